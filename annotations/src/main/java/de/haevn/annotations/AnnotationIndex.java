@@ -0,0 +1,208 @@
+package de.haevn.annotations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>AnnotationIndex</h1>
+ * <p>This class reads the annotation index generated at build time by the {@code processor} module.</p>
+ * <p>All index resources {@value #RESOURCE} on the classpath are read once when the index is first used,
+ * afterwards the entries of an annotation are found with a single map lookup.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     AnnotationIndex.getInstance().find(AutoCollect.class.getName(), "de.haevn")
+ *          .stream()
+ *          .sorted(Comparator.comparingInt(entry -> Integer.parseInt(entry.attribute("order"))))
+ *          .toList();
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class AnnotationIndex {
+    /**
+     * The location of the index resources.
+     */
+    public static final String RESOURCE = "META-INF/de.haevn/annotation.index";
+
+    private final Map<String, List<Entry>> entries;
+    private final boolean available;
+
+    private AnnotationIndex(final Map<String, List<Entry>> entries, final boolean available) {
+        this.entries = entries;
+        this.available = available;
+    }
+
+    /**
+     * <h2>getInstance()</h2>
+     * <p>Gets the index, the index resources are read on the first call.</p>
+     *
+     * @return The index
+     */
+    public static AnnotationIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * <h2>isAvailable()</h2>
+     * <p>Checks if at least one index resource was found.</p>
+     *
+     * @return True iff an index is present
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * <h2>find(String)</h2>
+     * <p>Gets all indexed types annotated with the given annotation.</p>
+     *
+     * @param annotation The fully qualified name of the annotation
+     * @return The entries
+     */
+    public List<Entry> find(final String annotation) {
+        return entries.getOrDefault(annotation, List.of());
+    }
+
+    /**
+     * <h2>find(String, String)</h2>
+     * <p>Gets all indexed types annotated with the given annotation inside the package or its subpackages.</p>
+     *
+     * @param annotation  The fully qualified name of the annotation
+     * @param packageName The package
+     * @return The entries
+     */
+    public List<Entry> find(final String annotation, final String packageName) {
+        final String prefix = packageName + ".";
+        return find(annotation).stream().filter(entry -> entry.type().startsWith(prefix)).toList();
+    }
+
+    /**
+     * <h2>load(ClassLoader)</h2>
+     * <p>Reads all index resources visible to the class loader.</p>
+     *
+     * @param loader The class loader
+     * @return The index
+     */
+    private static AnnotationIndex load(final ClassLoader loader) {
+        final Map<String, List<Entry>> entries = new HashMap<>();
+        boolean available = false;
+        try {
+            final Enumeration<URL> resources = loader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                available = true;
+                read(resources.nextElement(), entries);
+            }
+        } catch (IOException ignored) {
+            // An unreadable index is treated like a missing index
+        }
+        entries.replaceAll((annotation, list) -> Collections.unmodifiableList(list));
+        return new AnnotationIndex(entries, available);
+    }
+
+    /**
+     * <h2>read(URL, Map)</h2>
+     * <p>Reads a single index resource.</p>
+     *
+     * @param resource The resource
+     * @param entries  The entries by annotation
+     * @throws IOException If the resource cannot be read
+     */
+    private static void read(final URL resource, final Map<String, List<Entry>> entries) throws IOException {
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (null != (line = reader.readLine())) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                final String[] columns = line.split("\t");
+                if (columns.length < 2) {
+                    continue;
+                }
+                final Map<String, String> attributes = new LinkedHashMap<>();
+                for (int i = 2; i < columns.length; i++) {
+                    final int separator = columns[i].indexOf('=');
+                    if (separator > 0) {
+                        attributes.put(columns[i].substring(0, separator), unescape(columns[i].substring(separator + 1)));
+                    }
+                }
+                entries.computeIfAbsent(columns[0], key -> new ArrayList<>())
+                        .add(new Entry(columns[0], columns[1], Collections.unmodifiableMap(attributes)));
+            }
+        }
+    }
+
+    /**
+     * <h2>unescape(String)</h2>
+     * <p>Reverts the escaping of backslashes, tabs and line breaks.</p>
+     *
+     * @param value The escaped value
+     * @return The value
+     */
+    private static String unescape(final String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        final StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                builder.append(c);
+                continue;
+            }
+            final char next = value.charAt(++i);
+            switch (next) {
+                case 't' -> builder.append('\t');
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                default -> builder.append(next);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * <h1>Entry</h1>
+     * <p>An indexed type and the attributes of its annotation, including the defaults.</p>
+     *
+     * @param annotation The fully qualified name of the annotation
+     * @param type       The binary name of the annotated type
+     * @param attributes The attributes of the annotation
+     * @author haevn
+     * @version 1.0
+     * @since 2.1
+     */
+    public record Entry(String annotation, String type, Map<String, String> attributes) {
+        /**
+         * <h2>attribute(String)</h2>
+         * <p>Gets the value of an attribute, enum constants are represented by their name.</p>
+         *
+         * @param name The name of the attribute
+         * @return The value or null if the attribute does not exist
+         */
+        public String attribute(final String name) {
+            return attributes.get(name);
+        }
+    }
+
+    /**
+     * <h1>Holder</h1>
+     * <p>Lazily reads the index on first access.</p>
+     */
+    private static final class Holder {
+        private static final AnnotationIndex INSTANCE = load(AnnotationIndex.class.getClassLoader());
+    }
+}
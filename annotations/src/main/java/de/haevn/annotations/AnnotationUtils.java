@@ -1,12 +1,23 @@
 package de.haevn.annotations;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
-import java.util.ArrayList;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 /**
  * <h1>AnnotationUtils</h1>
@@ -24,6 +35,7 @@ import java.util.Objects;
  * @since 1.0
  */
 public class AnnotationUtils {
+    private static final Map<ScanKey, List<Class<?>>> SCAN_CACHE = new ConcurrentHashMap<>();
 
     private AnnotationUtils() {
     }
@@ -65,6 +77,8 @@ public class AnnotationUtils {
      * }
      * </pre>
      *
+     * <p>This method scans the classpath on every call, {@link LauncherRegistry#find(String)} caches the result</p>
+     *
      * @param packageName The package to search in
      * @return A list of all found {@link Launcher}
      */
@@ -76,17 +90,14 @@ public class AnnotationUtils {
 
     /**
      * <h2>findAnnotation</h2>
-     * <p>Searches a package for all classes annotated with a specific {@link Annotation}</p>
+     * <p>Searches a package and its subpackages for all classes annotated with a specific {@link Annotation}</p>
      * <br>
      * <ul>
-     *
-     * <li>First it request an inputstream from the {@link  ClassLoader#getSystemClassLoader() SystemClassLoader}</li>
-     * <li>If the {@link InputStream} is null the operation yields an empty list</li>
-     * <li>Then every file is read and filtered for files ending with <i>.class</i></li>
-     * <li>Next the class is requested using the {@link AnnotationUtils#getClass(String, String) getClass(String, String)} method</li>
-     * <li>After the conversion all null elements are discarded</li>
-     * <li>Elements not annotated with the given annotation are also discarded</li>
+     * <li>First the {@link AnnotationIndex} generated at build time is consulted, only the indexed classes are loaded</li>
+     * <li>If the index does not contain the annotation for the package, the classpath is scanned by
+     * {@link AnnotationUtils#findAnnotatedTypes(String, Class) findAnnotatedTypes(String, Class)}</li>
      * <li>Finally the annotation is casted to the given annotation type and collected in a list</li>
+     * </ul>
      * <h3>Example:</h3>
      * <pre>
      *     {@code
@@ -101,42 +112,160 @@ public class AnnotationUtils {
      * @return A list of all found {@link Annotation}
      */
     public static List<? extends Annotation> findAnnotation(final String packageName, final Class<? extends Annotation> annotation) {
-        final InputStream stream = ClassLoader.getSystemClassLoader()
-                .getResourceAsStream(packageName.replaceAll("[.]", "/"));
-        if (stream == null) return new ArrayList<>();
-        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-        return reader.lines()
-                .filter(line -> line.endsWith(".class"))
-                .map(line -> getClass(line, packageName))
-                .filter(Objects::nonNull)
-                .filter(clazz -> clazz.isAnnotationPresent(annotation))
+        return findAnnotatedTypes(packageName, annotation).stream()
                 .map(clazz -> clazz.getAnnotation(annotation))
                 .toList();
     }
 
     /**
-     * <h2>getClass</h2>
-     * <p><b>THIS IS AN INTERNAL METHOD</b></p>
-     * <p>This method wraps the {@link Class#forName(String)}, it will return a null instead of throwing an {@link ClassNotFoundException}</p>
+     * <h2>findAnnotatedTypes</h2>
+     * <p>Searches a package and its subpackages for all classes annotated with a specific {@link Annotation}</p>
      * <br>
+     * <ul>
+     * <li>If the {@link AnnotationIndex} contains the annotation for the package, the indexed classes are returned</li>
+     * <li>Otherwise every directory and jar of the package on the classpath is walked in parallel</li>
+     * <li>The classes are loaded without initializing them and filtered for the annotation</li>
+     * <li>The result of a scan is cached, every package and annotation is scanned at most once</li>
+     * </ul>
      * <h3>Example:</h3>
      * <pre>
      *     {@code
-     *     getClass("Example.class", "de.haevn); // Returns Example.class
+     *     @AutoCollect
+     *     public class Example {}
+     *     findAnnotatedTypes("de.haevn.annotations", AutoCollect.class); // Returns a list with Example.class
      *     }
      * </pre>
      *
-     * @param className   The name of the class
+     * @param packageName The package to search in
+     * @param annotation  The annotation to search for
+     * @return A list of all annotated classes
+     */
+    public static List<Class<?>> findAnnotatedTypes(final String packageName, final Class<? extends Annotation> annotation) {
+        final List<Class<?>> indexed = findIndexedTypes(packageName, annotation);
+        if (!indexed.isEmpty()) {
+            return indexed;
+        }
+        final ScanKey key = new ScanKey(packageName, annotation);
+        final List<Class<?>> cached = SCAN_CACHE.get(key);
+        if (null != cached) {
+            return cached;
+        }
+        final List<Class<?>> scanned = scan(packageName, annotation);
+        final List<Class<?>> previous = SCAN_CACHE.putIfAbsent(key, scanned);
+        return null == previous ? scanned : previous;
+    }
+
+    /**
+     * <h2>findIndexedTypes</h2>
+     * <p>Searches the {@link AnnotationIndex} for all classes of a package and its subpackages annotated with a
+     * specific {@link Annotation}</p>
+     * <p>Unlike {@link AnnotationUtils#findAnnotatedTypes(String, Class) findAnnotatedTypes(String, Class)} the
+     * classpath is never scanned, only the indexed classes are loaded</p>
+     *
+     * @param packageName The package to search in
+     * @param annotation  The annotation to search for
+     * @return A list of all indexed and annotated classes, empty if the index does not contain the annotation
+     */
+    public static List<Class<?>> findIndexedTypes(final String packageName, final Class<? extends Annotation> annotation) {
+        return AnnotationIndex.getInstance().find(annotation.getName(), packageName).stream()
+                .<Class<?>>map(entry -> loadClass(entry.type()))
+                .filter(Objects::nonNull)
+                .filter(clazz -> clazz.isAnnotationPresent(annotation))
+                .toList();
+    }
+
+    /**
+     * <h2>scan</h2>
+     * <p><b>THIS IS AN INTERNAL METHOD</b></p>
+     * <p>Walks all directories and jars containing the package in parallel and collects the annotated classes</p>
+     *
+     * @param packageName The package to search in
+     * @param annotation  The annotation to search for
+     * @return The annotated classes ordered by their name
+     */
+    private static List<Class<?>> scan(final String packageName, final Class<? extends Annotation> annotation) {
+        final String path = packageName.replace('.', '/');
+        final Set<String> classNames = ConcurrentHashMap.newKeySet();
+        try {
+            Collections.list(ClassLoader.getSystemClassLoader().getResources(path))
+                    .parallelStream()
+                    .forEach(root -> collect(root, packageName, path, classNames));
+        } catch (IOException ignored) {
+            return List.of();
+        }
+        return classNames.parallelStream()
+                .<Class<?>>map(AnnotationUtils::loadClass)
+                .filter(Objects::nonNull)
+                .filter(clazz -> clazz.isAnnotationPresent(annotation))
+                .sorted(Comparator.comparing(Class::getName))
+                .toList();
+    }
+
+    /**
+     * <h2>collect</h2>
+     * <p><b>THIS IS AN INTERNAL METHOD</b></p>
+     * <p>Collects the names of all classes below a directory or inside a jar</p>
+     *
+     * @param root        The location of the package
      * @param packageName The package name
+     * @param path        The package as path
+     * @param classNames  The collected class names
+     */
+    private static void collect(final URL root, final String packageName, final String path, final Set<String> classNames) {
+        try {
+            if ("file".equals(root.getProtocol())) {
+                final Path directory = Path.of(root.toURI());
+                try (final Stream<Path> files = Files.walk(directory)) {
+                    files.parallel()
+                            .map(file -> directory.relativize(file).toString())
+                            .filter(AnnotationUtils::isClassFile)
+                            .forEach(file -> classNames.add(packageName + "." + toClassName(file.replace(File.separatorChar, '/'))));
+                }
+            } else if (root.openConnection() instanceof JarURLConnection connection) {
+                connection.setUseCaches(false);
+                try (final JarFile jar = connection.getJarFile()) {
+                    jar.stream()
+                            .parallel()
+                            .map(JarEntry::getName)
+                            .filter(name -> name.startsWith(path + "/") && isClassFile(name))
+                            .forEach(name -> classNames.add(toClassName(name)));
+                }
+            }
+        } catch (IOException | URISyntaxException | RuntimeException ignored) {
+            // An unreadable location does not contribute classes
+        }
+    }
+
+    private static boolean isClassFile(final String name) {
+        return name.endsWith(".class") && !name.endsWith("-info.class");
+    }
+
+    private static String toClassName(final String file) {
+        return file.substring(0, file.length() - ".class".length()).replace('/', '.');
+    }
+
+    /**
+     * <h2>loadClass</h2>
+     * <p><b>THIS IS AN INTERNAL METHOD</b></p>
+     * <p>Loads the class with the given binary name without initializing it</p>
+     *
+     * @param name The binary name of the class
      * @return The class or null if not found
      */
-    private static Class<?> getClass(final String className, final String packageName) {
+    private static Class<?> loadClass(final String name) {
         try {
-            return Class.forName(packageName + "." + className.substring(0, className.lastIndexOf('.')));
-        } catch (ClassNotFoundException ignored) {
+            return Class.forName(name, false, AnnotationUtils.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError ignored) {
         }
         return null;
     }
 
+    /**
+     * <h1>ScanKey</h1>
+     * <p>The key of a cached scan</p>
+     */
+    private record ScanKey(String packageName, Class<? extends Annotation> annotation) {
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package de.haevn.annotations;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>LauncherRegistry</h1>
+ * <p>This class is the process wide registry of the {@link Launcher} of the application.</p>
+ * <p>Searching a package for a {@link Launcher} scans the classpath, the registry performs the scan lazily once
+ * per package and caches the result, so {@link LauncherUtils}, the logger and the io utilities share it.</p>
+ * <p>The scan can be skipped entirely by an explicit override, either programmatically with
+ * {@link #override(Launcher)} or with the system property {@value #PROPERTY}. The property either names a class
+ * annotated with {@link Launcher} or is used as the name of the application.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     // java -Dde.haevn.launcher=de.haevn.Example ...
+ *     LauncherRegistry.override("Example");
+ *     final Optional<Launcher> launcher = LauncherRegistry.find("de.haevn");
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ * @see Launcher
+ */
+public final class LauncherRegistry {
+    /**
+     * The system property overriding the {@link Launcher}.
+     */
+    public static final String PROPERTY = "de.haevn.launcher";
+
+    private static final Map<String, Optional<Launcher>> CACHE = new ConcurrentHashMap<>();
+    private static volatile Launcher override;
+
+    private LauncherRegistry() {
+    }
+
+    /**
+     * <h2>find(String)</h2>
+     * <p>Gets the <b>first</b> {@link Launcher} of the given package.</p>
+     * <p>An override is returned without scanning, otherwise the package is scanned once and the result is cached.</p>
+     *
+     * @param packageName The package to search in
+     * @return The launcher or an empty optional if none was found
+     */
+    public static Optional<Launcher> find(final String packageName) {
+        final Launcher explicit = resolveOverride();
+        if (null != explicit) {
+            return Optional.of(explicit);
+        }
+        final Optional<Launcher> cached = CACHE.get(packageName);
+        if (null != cached) {
+            return cached;
+        }
+        // The scan runs outside of the map, loading a class may log and therefore call this method again
+        final Optional<Launcher> found = AnnotationUtils.findLauncher(packageName).stream().findFirst();
+        final Optional<Launcher> previous = CACHE.putIfAbsent(packageName, found);
+        return null == previous ? found : previous;
+    }
+
+    /**
+     * <h2>override({@link Launcher})</h2>
+     * <p>Sets the launcher returned for every package, null removes the override.</p>
+     *
+     * @param launcher The launcher
+     */
+    public static void override(final Launcher launcher) {
+        override = launcher;
+    }
+
+    /**
+     * <h2>override(String)</h2>
+     * <p>Sets a launcher with the given name and default attributes for every package.</p>
+     *
+     * @param name The name of the application
+     */
+    public static void override(final String name) {
+        override(named(name));
+    }
+
+    /**
+     * <h2>invalidate()</h2>
+     * <p>Clears the cached scan results, the next lookup scans again.</p>
+     */
+    public static void invalidate() {
+        CACHE.clear();
+    }
+
+    /**
+     * <h2>resolveOverride()</h2>
+     * <p>Gets the programmatic override or resolves the system property.</p>
+     *
+     * @return The override or null
+     */
+    private static Launcher resolveOverride() {
+        final Launcher explicit = override;
+        if (null != explicit) {
+            return explicit;
+        }
+        final String property = System.getProperty(PROPERTY);
+        if (null == property || property.isBlank()) {
+            return null;
+        }
+        Launcher resolved;
+        try {
+            final Class<?> clazz = Class.forName(property, false, LauncherRegistry.class.getClassLoader());
+            resolved = clazz.isAnnotationPresent(Launcher.class) ? clazz.getAnnotation(Launcher.class) : named(property);
+        } catch (ClassNotFoundException ignored) {
+            resolved = named(property);
+        }
+        override = resolved;
+        return resolved;
+    }
+
+    /**
+     * <h2>named(String)</h2>
+     * <p>Creates a {@link Launcher} with the given name and the default attributes.</p>
+     *
+     * @param name The name
+     * @return The launcher
+     */
+    private static Launcher named(final String name) {
+        if (null == name) {
+            return null;
+        }
+        return new Launcher() {
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return Launcher.class;
+            }
+
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public String version() {
+                return "alpha 1.0";
+            }
+
+            @Override
+            public String author() {
+                return "Unknown";
+            }
+
+            @Override
+            public String root() {
+                return "./";
+            }
+
+            @Override
+            public String icon() {
+                return "";
+            }
+
+            @Override
+            public String description() {
+                return "";
+            }
+
+            @Override
+            public String license() {
+                return "MIT";
+            }
+
+            @Override
+            public String website() {
+                return "";
+            }
+        };
+    }
+}
@@ -30,11 +30,12 @@ public class LauncherUtils {
     /**
      * <h2>getLauncher</h2>
      * <p>Get the <b>first</b> {@link Launcher} annotation of in the specified package</p>
+     * <p>The lookup is cached by the {@link LauncherRegistry}, which also honors an explicit override</p>
      * @param packageName The package to search in
      * @return The <b>first</b> {@link Launcher} annotation
      */
     public static LauncherUtils getLauncher(final String packageName) {
-        return new LauncherUtils(AnnotationUtils.findLauncher(packageName).stream().findFirst().orElseThrow());
+        return new LauncherUtils(LauncherRegistry.find(packageName).orElseThrow());
     }
 
     /**
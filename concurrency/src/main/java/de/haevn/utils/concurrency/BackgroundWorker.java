@@ -1,6 +1,7 @@
 package de.haevn.utils.concurrency;
 
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -193,6 +194,25 @@ public class BackgroundWorker {
         return executor.submitOnce(runnable, name, delay);
     }
 
+    /**
+     * <h2>asExecutor()</h2>
+     * <p>Returns an {@link Executor} submitting every task once to the background worker</p>
+     * <p>Unlike {@link BackgroundWorker#submitOnce(Runnable, String)} the tasks are neither named nor logged</p>
+     * <p>This allows APIs which only know the {@link Executor} interface, e.g. a {@code LoadingCache}, to run on the
+     * background worker</p>
+     * <h3>Example:</h3>
+     * <pre>
+     *     {@code
+     *     CompletableFuture.runAsync(() -> System.out.println("Hello World"), worker.asExecutor());
+     *     }
+     * </pre>
+     *
+     * @return an executor backed by the background worker
+     */
+    public Executor asExecutor() {
+        return executor::executeUntraced;
+    }
+
     /**
      * <h2>shutdown()</h2>
      * <p>Request a shutdown of the {@link BackgroundWorker}</p>
@@ -2,6 +2,9 @@ package de.haevn.utils.concurrency;
 
 import de.haevn.utils.logging.Logger;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RunnableScheduledFuture;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -36,6 +39,7 @@ import java.util.concurrent.TimeUnit;
  */
 final class BackgroundWorkerThreadService extends ScheduledThreadPoolExecutor {
     private static final Logger LOGGER = new Logger(BackgroundWorker.class);
+    private final Set<Runnable> untraced = ConcurrentHashMap.newKeySet();
 
     /**
      * <h2>BackgroundWorkerThreadService(double)</h2>
@@ -137,6 +141,17 @@ final class BackgroundWorkerThreadService extends ScheduledThreadPoolExecutor {
         return super.schedule(runnable, delay, TimeUnit.SECONDS);
     }
 
+    /**
+     * <h2>executeUntraced(Runnable)</h2>
+     * <p>Executes a {@link Runnable} once as soon as possible, without logging its submission, start or end</p>
+     * <p>Used for executor style callers submitting many short tasks, where a log line per task would flood the log</p>
+     *
+     * @param runnable the task to be executed
+     */
+    void executeUntraced(final Runnable runnable) {
+        execute(new Untraced(runnable));
+    }
+
     /**
      * <h2>shutdown()</h2>
      * <p>Shuts down the service and waits for all tasks to finish</p>
@@ -204,6 +219,9 @@ final class BackgroundWorkerThreadService extends ScheduledThreadPoolExecutor {
     @Override
     protected void beforeExecute(final Thread thread, final Runnable runnable) {
         super.beforeExecute(thread, runnable);
+        if (untraced.contains(runnable)) {
+            return;
+        }
         LOGGER.atInfo().withMessage("Executing %s", thread.getName()).withObject(thread).log();
     }
 
@@ -217,8 +235,38 @@ final class BackgroundWorkerThreadService extends ScheduledThreadPoolExecutor {
     @Override
     protected void afterExecute(final Runnable runnable, final Throwable throwable) {
         super.afterExecute(runnable, throwable);
+        if (untraced.remove(runnable)) {
+            return;
+        }
         LOGGER.atInfo().withMessage("Finished").withException(throwable).log();
     }
 
+    /**
+     * <h2>decorateTask(Runnable, RunnableScheduledFuture)</h2>
+     * <p>Remembers the scheduled task of an {@link Untraced} runnable, so the execution hooks can skip its logging</p>
+     *
+     * @param runnable the submitted runnable
+     * @param task     the task created to execute the runnable
+     * @return the task itself
+     */
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(final Runnable runnable, final RunnableScheduledFuture<V> task) {
+        if (runnable instanceof Untraced) {
+            untraced.add(task);
+        }
+        return task;
+    }
+
+    /**
+     * <h1>Untraced</h1>
+     * <p>Marks a runnable submitted by {@link BackgroundWorkerThreadService#executeUntraced(Runnable)}.</p>
+     */
+    private record Untraced(Runnable runnable) implements Runnable {
+        @Override
+        public void run() {
+            runnable.run();
+        }
+    }
+
 
 }
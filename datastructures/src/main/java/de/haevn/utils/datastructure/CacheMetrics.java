@@ -0,0 +1,194 @@
+package de.haevn.utils.datastructure;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * <h1>CacheMetrics</h1>
+ * <br>
+ * <p>This class collects the statistics of a {@link ConcurrentCache} or {@link LoadingCache}.</p>
+ * <ul>
+ *     <li>Hits and misses of reads, an expired value is a miss</li>
+ *     <li>Successful and failed loads and the time spent loading</li>
+ *     <li>Removed entries by {@link RemovalCause}</li>
+ *     <li>The current size and weighted size</li>
+ * </ul>
+ * <p>Counters are {@link LongAdder LongAdders}, so recording does not contend between threads.</p>
+ * <h3>Example</h3>
+ * <pre>
+ * {@code
+ *     final CacheStats stats = cache.getMetrics().snapshot();
+ *     System.out.println(stats.hitRate());
+ *
+ *     cache.getMetrics().register("users"); // de.haevn.utils.datastructure:type=Cache,name="users"
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class CacheMetrics implements CacheMetricsMXBean {
+    /**
+     * The JMX domain of the beans.
+     */
+    public static final String DOMAIN = "de.haevn.utils.datastructure";
+
+    private static final RemovalCause[] CAUSES = RemovalCause.values();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccess = new LongAdder();
+    private final LongAdder loadFailure = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder[] removals = new LongAdder[CAUSES.length];
+    private final LongSupplier size;
+    private final LongSupplier weightedSize;
+
+    /**
+     * <h2>CacheMetrics(LongSupplier, LongSupplier)</h2>
+     * <p>Creates new metrics.</p>
+     *
+     * @param size         Supplies the amount of entries.
+     * @param weightedSize Supplies the weighted size.
+     */
+    CacheMetrics(final LongSupplier size, final LongSupplier weightedSize) {
+        this.size = size;
+        this.weightedSize = weightedSize;
+        for (int i = 0; i < removals.length; i++) {
+            removals[i] = new LongAdder();
+        }
+    }
+
+    void onHit() {
+        hits.increment();
+    }
+
+    void onMiss() {
+        misses.increment();
+    }
+
+    void onLoad(final boolean success, final long nanos) {
+        (success ? loadSuccess : loadFailure).increment();
+        loadNanos.add(nanos);
+    }
+
+    void onRemoval(final RemovalCause cause) {
+        removals[cause.ordinal()].increment();
+    }
+
+    /**
+     * <h2>snapshot()</h2>
+     * <p>Creates a snapshot of the counters, concurrent updates may be partially included.</p>
+     *
+     * @return The snapshot.
+     */
+    public CacheStats snapshot() {
+        final Map<RemovalCause, Long> removed = new EnumMap<>(RemovalCause.class);
+        for (final RemovalCause cause : CAUSES) {
+            removed.put(cause, removals[cause.ordinal()].sum());
+        }
+        return new CacheStats(hits.sum(), misses.sum(), loadSuccess.sum(), loadFailure.sum(), loadNanos.sum(),
+                Map.copyOf(removed), size.getAsLong(), weightedSize.getAsLong());
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        return snapshot().hitRate();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+        return loadSuccess.sum();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return loadFailure.sum();
+    }
+
+    @Override
+    public double getAverageLoadNanos() {
+        return snapshot().averageLoadNanos();
+    }
+
+    @Override
+    public Map<String, Long> getRemovals() {
+        final Map<String, Long> map = new LinkedHashMap<>();
+        for (final RemovalCause cause : CAUSES) {
+            map.put(cause.name(), removals[cause.ordinal()].sum());
+        }
+        return map;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return removals[RemovalCause.EXPIRED.ordinal()].sum() + removals[RemovalCause.SIZE.ordinal()].sum();
+    }
+
+    @Override
+    public long getSize() {
+        return size.getAsLong();
+    }
+
+    @Override
+    public long getWeightedSize() {
+        return weightedSize.getAsLong();
+    }
+
+    /**
+     * <h2>register(String)</h2>
+     * <p>Registers the metrics at the platform MBean server, a numeric suffix is added to duplicate names.</p>
+     *
+     * @param name The name of the bean.
+     * @return The name of the registered bean or null if the registration failed.
+     */
+    public ObjectName register(final String name) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            try {
+                final String unique = 0 == attempt ? name : name + "-" + attempt;
+                final ObjectName objectName = new ObjectName(DOMAIN + ":type=Cache,name=" + ObjectName.quote(unique));
+                server.registerMBean(this, objectName);
+                return objectName;
+            } catch (InstanceAlreadyExistsException ignored) {
+                // Try the next suffix
+            } catch (JMException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <h2>unregister({@link ObjectName})</h2>
+     * <p>Removes a bean registered by {@link #register(String)}, e.g. when the cache is discarded.</p>
+     *
+     * @param objectName The name of the bean.
+     */
+    public void unregister(final ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException ignored) {
+            // The bean is not registered
+        }
+    }
+}
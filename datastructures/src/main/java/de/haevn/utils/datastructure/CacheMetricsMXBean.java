@@ -0,0 +1,97 @@
+package de.haevn.utils.datastructure;
+
+import java.util.Map;
+
+/**
+ * <h1>CacheMetricsMXBean</h1>
+ * <br>
+ * <p>This interface is the JMX view of {@link CacheMetrics}.</p>
+ * <p>The bean is registered by {@link CacheMetrics#register(String)} below the domain {@value CacheMetrics#DOMAIN}
+ * with {@code type=Cache} and the given name.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public interface CacheMetricsMXBean {
+
+    /**
+     * <h2>getHitCount()</h2>
+     * <p>Gets the amount of reads finding a value.</p>
+     *
+     * @return The amount of hits.
+     */
+    long getHitCount();
+
+    /**
+     * <h2>getMissCount()</h2>
+     * <p>Gets the amount of reads finding no value or an expired one.</p>
+     *
+     * @return The amount of misses.
+     */
+    long getMissCount();
+
+    /**
+     * <h2>getHitRate()</h2>
+     * <p>Gets the ratio of reads finding a value.</p>
+     *
+     * @return The hit rate between 0 and 1.
+     */
+    double getHitRate();
+
+    /**
+     * <h2>getLoadSuccessCount()</h2>
+     * <p>Gets the amount of values loaded successfully.</p>
+     *
+     * @return The amount of loads.
+     */
+    long getLoadSuccessCount();
+
+    /**
+     * <h2>getLoadFailureCount()</h2>
+     * <p>Gets the amount of loads failing or returning null.</p>
+     *
+     * @return The amount of loads.
+     */
+    long getLoadFailureCount();
+
+    /**
+     * <h2>getAverageLoadNanos()</h2>
+     * <p>Gets the mean time of a load.</p>
+     *
+     * @return The mean time in nanoseconds.
+     */
+    double getAverageLoadNanos();
+
+    /**
+     * <h2>getRemovals()</h2>
+     * <p>Gets the amount of removed entries by {@link RemovalCause}.</p>
+     *
+     * @return The amounts by cause name.
+     */
+    Map<String, Long> getRemovals();
+
+    /**
+     * <h2>getEvictionCount()</h2>
+     * <p>Gets the amount of entries the cache removed on its own.</p>
+     *
+     * @return The amount of expired and evicted entries.
+     */
+    long getEvictionCount();
+
+    /**
+     * <h2>getSize()</h2>
+     * <p>Gets the amount of cached entries.</p>
+     *
+     * @return The amount of entries.
+     */
+    long getSize();
+
+    /**
+     * <h2>getWeightedSize()</h2>
+     * <p>Gets the sum of the weights of the cached entries.</p>
+     *
+     * @return The weighted size.
+     */
+    long getWeightedSize();
+}
@@ -0,0 +1,115 @@
+package de.haevn.utils.datastructure;
+
+import de.haevn.utils.enumeration.MillisecondTimeUnits;
+
+/**
+ * <h1>CachePolicy</h1>
+ * <br>
+ * <p>This record defines the bounds of a {@link ConcurrentCache}.</p>
+ * <p>A cache is bounded either by the amount of entries or by the sum of their weights, 0 means unbounded.
+ * The time to live is measured in milliseconds from the last write, 0 means entries never expire.</p>
+ * <h3>Example</h3>
+ * <pre>
+ * {@code
+ *     final CachePolicy policy = CachePolicy.maximumSize(10_000)
+ *             .withTtl(MillisecondTimeUnits.MINUTES, 5)
+ *             .withEviction(EvictionPolicy.TINY_LFU);
+ * }
+ * </pre>
+ *
+ * @param maximumSize   The maximal amount of entries, 0 if unbounded or bounded by weight.
+ * @param maximumWeight The maximal sum of the entry weights, 0 if unbounded or bounded by size.
+ * @param ttl           The time to live of an entry in milliseconds, 0 if entries never expire.
+ * @param eviction      The eviction policy.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public record CachePolicy(long maximumSize, long maximumWeight, long ttl, EvictionPolicy eviction) {
+
+    /**
+     * <h2>maximumSize(long)</h2>
+     * <p>Creates a policy bounding the amount of entries, evicting the least recently used entries.</p>
+     *
+     * @param maximumSize The maximal amount of entries.
+     * @return The policy.
+     */
+    public static CachePolicy maximumSize(final long maximumSize) {
+        return new CachePolicy(maximumSize, 0, 0, EvictionPolicy.LRU);
+    }
+
+    /**
+     * <h2>maximumWeight(long)</h2>
+     * <p>Creates a policy bounding the sum of the entry weights, evicting the least recently used entries.</p>
+     *
+     * @param maximumWeight The maximal sum of the weights.
+     * @return The policy.
+     */
+    public static CachePolicy maximumWeight(final long maximumWeight) {
+        return new CachePolicy(0, maximumWeight, 0, EvictionPolicy.LRU);
+    }
+
+    /**
+     * <h2>unbounded()</h2>
+     * <p>Creates a policy without any bound, entries are only removed explicitly or when they expire.</p>
+     *
+     * @return The policy.
+     */
+    public static CachePolicy unbounded() {
+        return new CachePolicy(0, 0, 0, EvictionPolicy.LRU);
+    }
+
+    /**
+     * <h2>withTtl(long)</h2>
+     * <p>Creates a copy of this policy with the given time to live.</p>
+     *
+     * @param ttl The time to live in milliseconds, 0 if entries never expire.
+     * @return The new policy.
+     */
+    public CachePolicy withTtl(final long ttl) {
+        return new CachePolicy(maximumSize, maximumWeight, ttl, eviction);
+    }
+
+    /**
+     * <h2>withTtl({@link MillisecondTimeUnits}, long)</h2>
+     * <p>Creates a copy of this policy with the given time to live.</p>
+     *
+     * @param unit   The unit of the amount.
+     * @param amount The amount of units.
+     * @return The new policy.
+     */
+    public CachePolicy withTtl(final MillisecondTimeUnits unit, final long amount) {
+        return withTtl(unit.getValue() * amount);
+    }
+
+    /**
+     * <h2>withEviction({@link EvictionPolicy})</h2>
+     * <p>Creates a copy of this policy with the given eviction policy.</p>
+     *
+     * @param eviction The eviction policy.
+     * @return The new policy.
+     */
+    public CachePolicy withEviction(final EvictionPolicy eviction) {
+        return new CachePolicy(maximumSize, maximumWeight, ttl, eviction);
+    }
+
+    /**
+     * <h2>isWeighted()</h2>
+     * <p>Checks if the cache is bounded by the weight of its entries.</p>
+     *
+     * @return True iff the maximum weight is set.
+     */
+    public boolean isWeighted() {
+        return maximumWeight > 0;
+    }
+
+    /**
+     * <h2>isBounded()</h2>
+     * <p>Checks if the cache evicts entries.</p>
+     *
+     * @return True iff the maximum size or weight is set.
+     */
+    public boolean isBounded() {
+        return maximumSize > 0 || maximumWeight > 0;
+    }
+}
@@ -0,0 +1,90 @@
+package de.haevn.utils.datastructure;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <h1>CacheStats</h1>
+ * <br>
+ * <p>This record is an immutable snapshot of the {@link CacheMetrics} of a cache.</p>
+ * <p>Snapshots can be subtracted with {@link #minus(CacheStats)} to get the statistics of an interval.</p>
+ * <h3>Example</h3>
+ * <pre>
+ * {@code
+ *     final CacheStats stats = cache.getMetrics().snapshot();
+ *     System.out.println(stats.hitRate() + " hit rate, " + stats.averageLoadNanos() + " ns per load");
+ * }
+ * </pre>
+ *
+ * @param hits         The amount of reads finding a value.
+ * @param misses       The amount of reads finding no value or an expired one.
+ * @param loadSuccess  The amount of values loaded successfully.
+ * @param loadFailure  The amount of loads failing or returning null.
+ * @param loadNanos    The total time spent loading in nanoseconds.
+ * @param removals     The amount of removed entries by cause.
+ * @param size         The amount of entries when the snapshot was taken.
+ * @param weightedSize The weighted size when the snapshot was taken.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public record CacheStats(long hits, long misses, long loadSuccess, long loadFailure, long loadNanos,
+                         Map<RemovalCause, Long> removals, long size, long weightedSize) {
+
+    /**
+     * <h2>requests()</h2>
+     * <p>Gets the amount of reads.</p>
+     *
+     * @return The amount of hits and misses.
+     */
+    public long requests() {
+        return hits + misses;
+    }
+
+    /**
+     * <h2>hitRate()</h2>
+     * <p>Gets the ratio of reads finding a value.</p>
+     *
+     * @return The hit rate between 0 and 1, 1 if nothing was read.
+     */
+    public double hitRate() {
+        return 0 == requests() ? 1 : (double) hits / requests();
+    }
+
+    /**
+     * <h2>averageLoadNanos()</h2>
+     * <p>Gets the mean time of a load including failed loads.</p>
+     *
+     * @return The mean time in nanoseconds, 0 if nothing was loaded.
+     */
+    public double averageLoadNanos() {
+        final long loads = loadSuccess + loadFailure;
+        return 0 == loads ? 0 : (double) loadNanos / loads;
+    }
+
+    /**
+     * <h2>evictions()</h2>
+     * <p>Gets the amount of entries the cache removed on its own.</p>
+     *
+     * @return The amount of expired and evicted entries.
+     */
+    public long evictions() {
+        return removals.getOrDefault(RemovalCause.EXPIRED, 0L) + removals.getOrDefault(RemovalCause.SIZE, 0L);
+    }
+
+    /**
+     * <h2>minus({@link CacheStats})</h2>
+     * <p>Gets the difference of the counters to an earlier snapshot, the sizes are taken from this snapshot.</p>
+     *
+     * @param earlier The earlier snapshot.
+     * @return The statistics of the interval.
+     */
+    public CacheStats minus(final CacheStats earlier) {
+        final Map<RemovalCause, Long> difference = new EnumMap<>(RemovalCause.class);
+        for (final RemovalCause cause : RemovalCause.values()) {
+            difference.put(cause, removals.getOrDefault(cause, 0L) - earlier.removals.getOrDefault(cause, 0L));
+        }
+        return new CacheStats(hits - earlier.hits, misses - earlier.misses, loadSuccess - earlier.loadSuccess,
+                loadFailure - earlier.loadFailure, loadNanos - earlier.loadNanos, Map.copyOf(difference), size, weightedSize);
+    }
+}
@@ -0,0 +1,859 @@
+package de.haevn.utils.datastructure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * <h1>ConcurrentCache</h1>
+ * <br>
+ * <p>This class is a thread-safe keyed cache with a time to live per entry and a maximum size or weight.</p>
+ * <p>Entries are stored in a {@link ConcurrentHashMap}, so reads never block. The eviction order is kept in linked
+ * lists guarded by a lock which readers never wait for: a read is recorded in a small lossy buffer and the buffer is
+ * replayed by the next thread holding the lock. Writes take the lock, replay the buffer, evict according to the
+ * {@link EvictionPolicy} and remove a few expired entries.</p>
+ * <p>There is no sweeper thread. An expired entry is removed when it is read, and every write or replay checks a
+ * bounded amount of the least recently used entries for expiry, so the cleanup costs amortized constant time.
+ * An unbounded cache keeps its entries in write order, there the checked entries are rotated to the back so every
+ * entry is checked eventually, and reads run the cleanup now and then. No entry is checked until one is written
+ * with a time to live.</p>
+ * <p>The time to live defaults to the one of the {@link CachePolicy}, it is the same kind of duration a
+ * {@link Cache} uses and may be given per entry.</p>
+ * <p>With an {@link OffHeapTier} entries evicted by size are moved off the heap and promoted back on their next read.
+ * The values are encoded and decoded without holding the lock, only the copy of the bytes is done under it.</p>
+ * <h3>Example</h3>
+ * <pre>
+ * {@code
+ *     final ConcurrentCache<String, User> users = new ConcurrentCache<>(CachePolicy.maximumSize(10_000)
+ *             .withTtl(MillisecondTimeUnits.MINUTES, 5)
+ *             .withEviction(EvictionPolicy.TINY_LFU));
+ *     users.put("haevn", user);
+ *     final User cached = users.get("haevn", this::loadUser);
+ * }
+ * </pre>
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class ConcurrentCache<K, V> {
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = READ_BUFFER_SIZE / 4;
+    private static final int EXPIRY_BATCH = 16;
+    private static final int LFU_SAMPLE = 8;
+    private static final int WINDOW_PERCENT = 1;
+
+    private final CachePolicy policy;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final long maximum;
+    private final long windowMaximum;
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final OffHeapTier<K, V> tier;
+    private final ConcurrentHashMap<K, Node<K, V>> demoting = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node<K, V>> demotions = new ConcurrentLinkedQueue<>();
+    private final Map<K, OffHeapTier.Stored> promoting = new HashMap<>();
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> main = new AccessOrder<>();
+    private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readWrites = new AtomicLong();
+    private volatile long readReads;
+    private volatile long weightedSize;
+    private volatile boolean expiring;
+    private final CacheMetrics metrics = new CacheMetrics(this::size, this::weightedSize);
+
+    /**
+     * <h2>ConcurrentCache({@link CachePolicy})</h2>
+     * <p>Creates a new cache in which every entry has the weight 1.</p>
+     *
+     * @param policy The policy of the cache.
+     */
+    public ConcurrentCache(final CachePolicy policy) {
+        this(policy, (key, value) -> 1);
+    }
+
+    /**
+     * <h2>ConcurrentCache({@link CachePolicy}, {@link ToIntBiFunction})</h2>
+     * <p>Creates a new cache weighing its entries with the given function.</p>
+     * <p>The weight is only used if the policy defines a {@link CachePolicy#maximumWeight() maximum weight}.</p>
+     *
+     * @param policy  The policy of the cache.
+     * @param weigher The function computing the weight of an entry once it is written, must not be negative.
+     */
+    public ConcurrentCache(final CachePolicy policy, final ToIntBiFunction<? super K, ? super V> weigher) {
+        this(policy, weigher, null);
+    }
+
+    /**
+     * <h2>ConcurrentCache({@link CachePolicy}, {@link OffHeapTier})</h2>
+     * <p>Creates a new cache in which every entry has the weight 1, backed by an off-heap tier.</p>
+     *
+     * @param policy The policy of the cache.
+     * @param tier   The off-heap tier receiving the entries evicted by size.
+     */
+    public ConcurrentCache(final CachePolicy policy, final OffHeapTier<K, V> tier) {
+        this(policy, (key, value) -> 1, tier);
+    }
+
+    /**
+     * <h2>ConcurrentCache({@link CachePolicy}, {@link ToIntBiFunction}, {@link OffHeapTier})</h2>
+     * <p>Creates a new cache weighing its entries with the given function, backed by an off-heap tier.</p>
+     * <p>A tier must not be shared between caches.</p>
+     *
+     * @param policy  The policy of the cache.
+     * @param weigher The function computing the weight of an entry once it is written, must not be negative.
+     * @param tier    The off-heap tier receiving the entries evicted by size, null for none.
+     */
+    public ConcurrentCache(final CachePolicy policy, final ToIntBiFunction<? super K, ? super V> weigher,
+                           final OffHeapTier<K, V> tier) {
+        this.policy = Objects.requireNonNull(policy);
+        this.tier = tier;
+        this.weigher = policy.isWeighted() ? Objects.requireNonNull(weigher) : (key, value) -> 1;
+        this.maximum = policy.isWeighted() ? policy.maximumWeight() : policy.maximumSize();
+        this.windowMaximum = Math.max(1, maximum * WINDOW_PERCENT / 100);
+        final boolean frequencies = policy.isBounded() && EvictionPolicy.LRU != policy.eviction();
+        this.sketch = frequencies ? new FrequencySketch(policy.isWeighted() ? Math.min(maximum, 1 << 20) : maximum) : null;
+    }
+
+    /**
+     * <h2>getIfPresent(K)</h2>
+     * <p>Gets the value of the key if it is cached and not expired.</p>
+     * <p>A value found in the {@link OffHeapTier} is decoded and moved back to the heap.</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     final User user = users.getIfPresent("haevn");
+     * }
+     * </pre>
+     *
+     * @param key The key.
+     * @return The value or null if it is not cached.
+     */
+    public V getIfPresent(final K key) {
+        final Node<K, V> node = map.get(key);
+        if (null == node) {
+            final V promoted = null == tier ? null : promote(key);
+            if (null == promoted) {
+                metrics.onMiss();
+            } else {
+                metrics.onHit();
+            }
+            return promoted;
+        }
+        if (node.isExpired(System.currentTimeMillis())) {
+            metrics.onMiss();
+            expire(node);
+            return null;
+        }
+        metrics.onHit();
+        afterRead(node);
+        return node.value;
+    }
+
+    /**
+     * <h2>get(K, {@link Function})</h2>
+     * <p>Gets the value of the key, a missing or expired value is computed and cached.</p>
+     * <p>The computation runs without holding any lock, concurrent misses of the same key may compute the value
+     * more than once, the last computed value is cached.</p>
+     *
+     * @param key     The key.
+     * @param mapping The function computing a missing value, a null value is returned but not cached.
+     * @return The cached or computed value.
+     */
+    public V get(final K key, final Function<? super K, ? extends V> mapping) {
+        final V cached = getIfPresent(key);
+        if (null != cached) {
+            return cached;
+        }
+        final long start = System.nanoTime();
+        final V computed;
+        try {
+            computed = mapping.apply(key);
+        } catch (RuntimeException | Error ex) {
+            metrics.onLoad(false, System.nanoTime() - start);
+            throw ex;
+        }
+        metrics.onLoad(null != computed, System.nanoTime() - start);
+        if (null != computed) {
+            put(key, computed);
+        }
+        return computed;
+    }
+
+    /**
+     * <h2>containsKey(K)</h2>
+     * <p>Checks if a value of the key is cached and not expired, the access is not recorded.</p>
+     *
+     * @param key The key.
+     * @return True iff a value is cached on the heap or in the {@link OffHeapTier}.
+     */
+    public boolean containsKey(final K key) {
+        final long now = System.currentTimeMillis();
+        final Node<K, V> node = map.get(key);
+        if (null != node) {
+            return !node.isExpired(now);
+        }
+        if (null == tier) {
+            return false;
+        }
+        final Node<K, V> pending = demoting.get(key);
+        return null != pending ? !pending.isExpired(now) : tier.contains(key, now);
+    }
+
+    /**
+     * <h2>put(K, V)</h2>
+     * <p>Caches the value with the time to live of the {@link CachePolicy}.</p>
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(final K key, final V value) {
+        put(key, value, policy.ttl());
+    }
+
+    /**
+     * <h2>put(K, V, long)</h2>
+     * <p>Caches the value with the given time to live, replacing a cached value of the key.</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     users.put("haevn", user, MillisecondTimeUnits.HOURS.getValue());
+     * }
+     * </pre>
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @param ttl   The time to live in milliseconds, 0 if the entry never expires.
+     */
+    public void put(final K key, final V value, final long ttl) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        final int weight = weigher.applyAsInt(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("The weight must not be negative: " + weight);
+        }
+        final long now = System.currentTimeMillis();
+        final Node<K, V> node = new Node<>(key, value, weight, ttl > 0 ? now + ttl : Long.MAX_VALUE);
+        if (ttl > 0 && !expiring) {
+            expiring = true;
+        }
+        final Node<K, V> previous = map.put(key, node);
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (null != previous) {
+                metrics.onRemoval(RemovalCause.REPLACED);
+                retire(previous);
+            }
+            if (null != tier) {
+                // Under the lock, so an eviction cannot move an older value off the heap afterwards
+                tier.remove(key);
+                demoting.remove(key);
+            }
+            if (!node.retired) {
+                link(node);
+            }
+            maintain(now);
+        } finally {
+            evictionLock.unlock();
+        }
+        demotePending();
+    }
+
+    /**
+     * <h2>remove(K)</h2>
+     * <p>Removes the value of the key.</p>
+     *
+     * @param key The key.
+     * @return The removed value or null if no value was cached on the heap or it was expired.
+     */
+    public V remove(final K key) {
+        final Node<K, V> node = map.remove(key);
+        if (null == node && null == tier) {
+            return null;
+        }
+        evictionLock.lock();
+        try {
+            if (null != node) {
+                retire(node);
+            }
+            if (null != tier) {
+                tier.remove(key);
+                demoting.remove(key);
+                promoting.remove(key);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (null == node) {
+            return null;
+        }
+        metrics.onRemoval(RemovalCause.EXPLICIT);
+        return node.isExpired(System.currentTimeMillis()) ? null : node.value;
+    }
+
+    /**
+     * <h2>invalidateAll()</h2>
+     * <p>Removes all values.</p>
+     */
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            for (final Node<K, V> node : map.values()) {
+                if (map.remove(node.key, node)) {
+                    metrics.onRemoval(RemovalCause.EXPLICIT);
+                    retire(node);
+                }
+            }
+            if (null != tier) {
+                tier.clear();
+                demoting.clear();
+                promoting.clear();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * <h2>cleanUp()</h2>
+     * <p>Replays the recorded reads, evicts over the maximum and removes all expired entries.</p>
+     * <p>This is never required, it makes the size exact, e.g. before reading it.</p>
+     */
+    public void cleanUp() {
+        final long now = System.currentTimeMillis();
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            for (final Node<K, V> node : map.values()) {
+                if (node.isExpired(now)) {
+                    evict(node, RemovalCause.EXPIRED);
+                }
+            }
+            maintain(now);
+        } finally {
+            evictionLock.unlock();
+        }
+        demotePending();
+    }
+
+    /**
+     * <h2>size()</h2>
+     * <p>Gets the amount of cached entries, expired entries count until they are cleaned up.</p>
+     *
+     * @return The amount of entries.
+     */
+    public long size() {
+        return map.size();
+    }
+
+    /**
+     * <h2>weightedSize()</h2>
+     * <p>Gets the sum of the weights of the cached entries, every entry weighs 1 in a cache bounded by size.</p>
+     *
+     * @return The weighted size.
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * <h2>getMetrics()</h2>
+     * <p>Gets the statistics of the cache.</p>
+     *
+     * @return The metrics.
+     */
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * <h2>getPolicy()</h2>
+     * <p>Gets the policy of the cache.</p>
+     *
+     * @return The policy.
+     */
+    public CachePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * <h2>afterRead(Node)</h2>
+     * <p>Records the read in the lossy buffer, a full buffer drops the read. Once enough reads are recorded, the
+     * buffer is replayed if the eviction lock is free.</p>
+     * <p>An unbounded cache does not record reads, it only removes expired entries after about every
+     * {@value #DRAIN_THRESHOLD}th read.</p>
+     *
+     * @param node The read node.
+     */
+    private void afterRead(final Node<K, V> node) {
+        if (!policy.isBounded()) {
+            if (expiring && 0 == ThreadLocalRandom.current().nextInt(DRAIN_THRESHOLD) && evictionLock.tryLock()) {
+                try {
+                    maintain(System.currentTimeMillis());
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            return;
+        }
+        final long tail = readWrites.get();
+        final long pending = tail - readReads;
+        if (pending < READ_BUFFER_SIZE && readWrites.compareAndSet(tail, tail + 1)) {
+            readBuffer.lazySet((int) (tail & READ_BUFFER_MASK), node);
+        }
+        if (pending >= DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+                maintain(System.currentTimeMillis());
+            } finally {
+                evictionLock.unlock();
+            }
+            demotePending();
+        }
+    }
+
+    /**
+     * <h2>expire(Node)</h2>
+     * <p>Removes an expired node found by a read.</p>
+     *
+     * @param node The expired node.
+     */
+    private void expire(final Node<K, V> node) {
+        if (!map.remove(node.key, node)) {
+            return;
+        }
+        metrics.onRemoval(RemovalCause.EXPIRED);
+        evictionLock.lock();
+        try {
+            retire(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * <h2>drainReadBuffer()</h2>
+     * <p>Replays the recorded reads, must be called under the eviction lock.</p>
+     */
+    private void drainReadBuffer() {
+        long head = readReads;
+        final long tail = readWrites.get();
+        for (; head < tail; head++) {
+            final int index = (int) (head & READ_BUFFER_MASK);
+            final Node<K, V> node = readBuffer.get(index);
+            if (null == node) {
+                // The reader claimed the slot but did not publish the node yet
+                break;
+            }
+            readBuffer.lazySet(index, null);
+            onAccess(node);
+        }
+        readReads = head;
+    }
+
+    /**
+     * <h2>onAccess(Node)</h2>
+     * <p>Moves a live node to the most recently used end of its list and counts the use.</p>
+     *
+     * @param node The node.
+     */
+    private void onAccess(final Node<K, V> node) {
+        if (null != sketch) {
+            sketch.increment(node.key);
+        }
+        if (null != node.order) {
+            node.order.moveToBack(node);
+        }
+    }
+
+    /**
+     * <h2>link(Node)</h2>
+     * <p>Adds a new node, new nodes enter the window in a {@link EvictionPolicy#TINY_LFU} cache.</p>
+     *
+     * @param node The node.
+     */
+    private void link(final Node<K, V> node) {
+        if (null != sketch) {
+            sketch.increment(node.key);
+        }
+        (EvictionPolicy.TINY_LFU == policy.eviction() && null != sketch ? window : main).addBack(node);
+        weightedSize += node.weight;
+    }
+
+    /**
+     * <h2>retire(Node)</h2>
+     * <p>Unlinks a node removed from the map, the node is never linked again.</p>
+     *
+     * @param node The node.
+     */
+    private void retire(final Node<K, V> node) {
+        node.retired = true;
+        if (null != node.order) {
+            node.order.remove(node);
+            weightedSize -= node.weight;
+        }
+    }
+
+    /**
+     * <h2>evict(Node, {@link RemovalCause})</h2>
+     * <p>Removes a node from the map and unlinks it, a node replaced meanwhile is only unlinked.</p>
+     * <p>A node evicted by size is moved to the {@link OffHeapTier}.</p>
+     *
+     * @param node  The node.
+     * @param cause The cause of the removal.
+     */
+    private void evict(final Node<K, V> node, final RemovalCause cause) {
+        if (map.remove(node.key, node)) {
+            metrics.onRemoval(cause);
+            if (null != tier && RemovalCause.SIZE == cause) {
+                demote(node);
+            }
+        }
+        retire(node);
+    }
+
+    /**
+     * <h2>demote(Node)</h2>
+     * <p>Queues the value of an evicted node for the {@link OffHeapTier}, must be called under the eviction lock.</p>
+     * <p>The value is encoded by {@link #demotePending()} after the lock is released. Until then it is kept as
+     * pending demotion, which a write or removal of the key cancels and a read promotes without the codec.</p>
+     *
+     * @param node The evicted node.
+     */
+    private void demote(final Node<K, V> node) {
+        demoting.put(node.key, node);
+        demotions.add(node);
+    }
+
+    /**
+     * <h2>demotePending()</h2>
+     * <p>Encodes the queued demotions and stores them in the {@link OffHeapTier}, must be called without holding the
+     * eviction lock. Only the copy of the encoded bytes is done under the lock, a demotion cancelled meanwhile is
+     * dropped.</p>
+     */
+    private void demotePending() {
+        if (null == tier || demotions.isEmpty()) {
+            return;
+        }
+        final List<Node<K, V>> nodes = new ArrayList<>();
+        final List<byte[]> encoded = new ArrayList<>();
+        for (Node<K, V> node = demotions.poll(); null != node; node = demotions.poll()) {
+            if (node != demoting.get(node.key)) {
+                continue;
+            }
+            byte[] bytes;
+            try {
+                bytes = tier.encode(node.value);
+            } catch (RuntimeException ex) {
+                // A value the codec cannot encode is dropped like without a tier
+                bytes = null;
+            }
+            nodes.add(node);
+            encoded.add(bytes);
+        }
+        if (nodes.isEmpty()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            for (int i = 0; i < nodes.size(); i++) {
+                final Node<K, V> node = nodes.get(i);
+                if (!demoting.remove(node.key, node)) {
+                    continue;
+                }
+                if (null == encoded.get(i)) {
+                    tier.remove(node.key);
+                } else {
+                    tier.store(node.key, encoded.get(i), node.expiresAt);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * <h2>promote(K)</h2>
+     * <p>Moves the value of the key from the {@link OffHeapTier} back to the heap, a value written to the heap
+     * meanwhile wins.</p>
+     * <p>The bytes are taken under the eviction lock and decoded without it. The taken value is registered as
+     * promotion, a {@link #remove(Object)} or {@link #invalidateAll()} meanwhile cancels it, so a removed value never
+     * reappears. A pending demotion is moved back without the codec.</p>
+     *
+     * @param key The key.
+     * @return The value or null if the tier holds no valid value.
+     */
+    private V promote(final K key) {
+        final long now = System.currentTimeMillis();
+        if (!demoting.containsKey(key) && !tier.contains(key, now)) {
+            return null;
+        }
+        V value = null;
+        OffHeapTier.Stored stored = null;
+        evictionLock.lock();
+        try {
+            final Node<K, V> pending = demoting.remove(key);
+            if (null != pending) {
+                if (!pending.isExpired(now)) {
+                    value = insert(key, pending.value, pending.weight, pending.expiresAt, now);
+                }
+            } else {
+                stored = tier.take(key, now);
+                if (null != stored) {
+                    promoting.put(key, stored);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (null != stored) {
+            value = decode(key, stored, now);
+        }
+        demotePending();
+        return value;
+    }
+
+    /**
+     * <h2>decode(K, {@link OffHeapTier.Stored}, long)</h2>
+     * <p>Decodes a taken value without holding the eviction lock and inserts it unless the promotion was cancelled.</p>
+     *
+     * @param key    The key.
+     * @param stored The taken value.
+     * @param now    The current time in milliseconds.
+     * @return The value or null if the promotion was cancelled.
+     */
+    private V decode(final K key, final OffHeapTier.Stored stored, final long now) {
+        final V value;
+        final int weight;
+        try {
+            value = tier.decode(stored);
+            weight = weigher.applyAsInt(key, value);
+        } catch (RuntimeException | Error ex) {
+            evictionLock.lock();
+            try {
+                promoting.remove(key, stored);
+            } finally {
+                evictionLock.unlock();
+            }
+            throw ex;
+        }
+        evictionLock.lock();
+        try {
+            return promoting.remove(key, stored) ? insert(key, value, weight, stored.expiresAt(), now) : null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * <h2>insert(K, V, int, long, long)</h2>
+     * <p>Inserts a promoted value unless a value was written meanwhile, must be called under the eviction lock.</p>
+     *
+     * @param key       The key.
+     * @param value     The value.
+     * @param weight    The weight of the value.
+     * @param expiresAt The time in milliseconds the value expires.
+     * @param now       The current time in milliseconds.
+     * @return The inserted value or the value written meanwhile.
+     */
+    private V insert(final K key, final V value, final int weight, final long expiresAt, final long now) {
+        final Node<K, V> node = new Node<>(key, value, weight, expiresAt);
+        final Node<K, V> present = map.putIfAbsent(key, node);
+        if (null != present) {
+            return present.value;
+        }
+        drainReadBuffer();
+        if (!node.retired) {
+            link(node);
+        }
+        maintain(now);
+        return node.value;
+    }
+
+    /**
+     * <h2>maintain(long)</h2>
+     * <p>Removes a bounded amount of expired nodes and evicts until the cache fits its maximum.</p>
+     *
+     * @param now The current time in milliseconds.
+     */
+    private void maintain(final long now) {
+        if (expiring) {
+            expireHead(window, now);
+            expireHead(main, now);
+        }
+        if (!policy.isBounded()) {
+            return;
+        }
+        while (window.weight > windowMaximum && null != window.head) {
+            final Node<K, V> candidate = window.head;
+            window.remove(candidate);
+            main.addBack(candidate);
+            if (weightedSize > maximum && null != main.head && candidate != main.head) {
+                evict(admit(candidate, main.head) ? main.head : candidate, RemovalCause.SIZE);
+            }
+        }
+        while (weightedSize > maximum) {
+            final Node<K, V> victim = victim();
+            if (null == victim) {
+                return;
+            }
+            evict(victim, RemovalCause.SIZE);
+        }
+    }
+
+    /**
+     * <h2>expireHead(AccessOrder, long)</h2>
+     * <p>Checks the least recently used nodes of the list for expiry.</p>
+     * <p>In an unbounded cache the order carries no information, the checked nodes are moved to the back so the next
+     * call checks the following ones.</p>
+     *
+     * @param order The list.
+     * @param now   The current time in milliseconds.
+     */
+    private void expireHead(final AccessOrder<K, V> order, final long now) {
+        Node<K, V> node = order.head;
+        for (int i = 0; null != node && i < EXPIRY_BATCH; i++) {
+            final Node<K, V> next = node.next;
+            if (node.isExpired(now)) {
+                evict(node, RemovalCause.EXPIRED);
+            } else if (!policy.isBounded()) {
+                order.moveToBack(node);
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * <h2>victim()</h2>
+     * <p>Selects the node to evict according to the {@link EvictionPolicy}.</p>
+     *
+     * @return The victim or null if the cache is empty.
+     */
+    private Node<K, V> victim() {
+        if (null == main.head) {
+            return window.head;
+        }
+        if (EvictionPolicy.LFU != policy.eviction() || null == sketch) {
+            return main.head;
+        }
+        Node<K, V> victim = main.head;
+        int lowest = sketch.frequency(victim.key);
+        Node<K, V> node = victim.next;
+        for (int i = 1; null != node && i < LFU_SAMPLE; i++) {
+            final int frequency = sketch.frequency(node.key);
+            if (frequency < lowest) {
+                lowest = frequency;
+                victim = node;
+            }
+            node = node.next;
+        }
+        return victim;
+    }
+
+    /**
+     * <h2>admit(Node, Node)</h2>
+     * <p>Decides if a node leaving the window replaces the victim of the main area.</p>
+     *
+     * @param candidate The node leaving the window.
+     * @param victim    The least recently used node of the main area.
+     * @return True iff the candidate is used more frequently than the victim.
+     */
+    private boolean admit(final Node<K, V> candidate, final Node<K, V> victim) {
+        return sketch.frequency(candidate.key) > sketch.frequency(victim.key);
+    }
+
+    /**
+     * <h1>Node</h1>
+     * <p>A cached entry, the links are guarded by the eviction lock.</p>
+     *
+     * @param <K> The type of the key.
+     * @param <V> The type of the value.
+     */
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        final long expiresAt;
+        AccessOrder<K, V> order;
+        Node<K, V> prev;
+        Node<K, V> next;
+        boolean retired;
+
+        Node(final K key, final V value, final int weight, final long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(final long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    /**
+     * <h1>AccessOrder</h1>
+     * <p>A doubly linked list of nodes from the least to the most recently used, guarded by the eviction lock.</p>
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    static final class AccessOrder<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        long weight;
+
+        void addBack(final Node<K, V> node) {
+            node.order = this;
+            node.prev = tail;
+            node.next = null;
+            if (null == tail) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        void remove(final Node<K, V> node) {
+            if (null == node.prev) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (null == node.next) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.order = null;
+            weight -= node.weight;
+        }
+
+        void moveToBack(final Node<K, V> node) {
+            if (tail != node) {
+                remove(node);
+                addBack(node);
+            }
+        }
+    }
+}
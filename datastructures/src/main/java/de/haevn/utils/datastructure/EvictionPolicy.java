@@ -0,0 +1,23 @@
+package de.haevn.utils.datastructure;
+
+/**
+ * <h1>EvictionPolicy</h1>
+ * <br>
+ * <p>This enum defines which entry a {@link ConcurrentCache} evicts once its maximum size or weight is exceeded.</p>
+ * <ul>
+ *     <li>LRU: The least recently used entry is evicted.</li>
+ *     <li>LFU: The least frequently used entry of a small sample of the least recently used entries is evicted.</li>
+ *     <li>TINY_LFU: New entries are admitted through a small LRU window, an entry leaving the window only replaces
+ *     the least recently used entry of the main area if it is used more frequently (W-TinyLFU).</li>
+ * </ul>
+ * <p>Frequencies are estimated by a compact count-min sketch which is halved periodically, so old popularity fades.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public enum EvictionPolicy {
+    LRU,
+    LFU,
+    TINY_LFU
+}
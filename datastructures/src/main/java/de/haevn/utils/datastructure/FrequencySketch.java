@@ -0,0 +1,100 @@
+package de.haevn.utils.datastructure;
+
+/**
+ * <h1>FrequencySketch</h1>
+ * <br>
+ * <p>This class estimates how often a key was used with a count-min sketch of 4 bit counters.</p>
+ * <p>Every key maps to one counter in each of four rows, the estimate is the smallest of them. Once the amount of
+ * increments reaches ten times the capacity all counters are halved, so the sketch follows changes in popularity.</p>
+ * <p>The sketch is not thread-safe, the {@link ConcurrentCache} only uses it under its eviction lock.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class FrequencySketch {
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int increments;
+
+    /**
+     * <h2>FrequencySketch(long)</h2>
+     * <p>Creates a sketch sized for the given amount of keys.</p>
+     *
+     * @param capacity The expected amount of keys.
+     */
+    FrequencySketch(final long capacity) {
+        final int size = (int) Math.min(1 << 24, Math.max(16, Long.highestOneBit(Math.max(1, capacity) - 1) << 1));
+        this.table = new long[size];
+        this.mask = size - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(16, capacity));
+    }
+
+    /**
+     * <h2>frequency(Object)</h2>
+     * <p>Estimates how often the key was used.</p>
+     *
+     * @param key The key.
+     * @return The estimate between 0 and 15.
+     */
+    int frequency(final Object key) {
+        final int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            final int index = index(hash, row);
+            final int offset = offset(hash, row);
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xF));
+        }
+        return frequency;
+    }
+
+    /**
+     * <h2>increment(Object)</h2>
+     * <p>Records a use of the key, all counters are halved periodically.</p>
+     *
+     * @param key The key.
+     */
+    void increment(final Object key) {
+        final int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            final int index = index(hash, row);
+            final int offset = offset(hash, row);
+            if (((table[index] >>> offset) & 0xF) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++increments >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        increments /= 2;
+    }
+
+    private int index(final int hash, final int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        mixed += mixed >>> 32;
+        return (int) mixed & mask;
+    }
+
+    private static int offset(final int hash, final int row) {
+        // Each row uses a different counter of the 16 in a long
+        return (((hash >>> (row << 3)) & 3) << 2 | row) << 2;
+    }
+
+    private static int spread(final int hash) {
+        int spread = hash * 0x9E3779B9;
+        return spread ^ (spread >>> 16);
+    }
+}
@@ -0,0 +1,257 @@
+package de.haevn.utils.datastructure;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * <h1>LoadingCache</h1>
+ * <br>
+ * <p>This class is a {@link ConcurrentCache} which loads missing values itself.</p>
+ * <p>Concurrent misses of the same key share one in-flight {@link CompletableFuture}, so a slow lookup runs once
+ * no matter how many callers wait for it. Loads run on the given {@link Executor}, e.g.
+ * {@code BackgroundWorker.getInstance().asExecutor()}, by default on virtual threads.</p>
+ * <p>With a {@link RefreshPolicy} an entry is reloaded in the background once it is older than
+ * {@link RefreshPolicy#refreshAfter()}, the cached value is served meanwhile. A stale value is served for
+ * {@link RefreshPolicy#grace()} after the time to live while it is reloaded, a failed reload keeps the old value
+ * until the grace period ends. Misses without a value complete exceptionally if the load fails.</p>
+ * <h3>Example</h3>
+ * <pre>
+ * {@code
+ *     final LoadingCache<String, Weather> weather = new LoadingCache<>(
+ *             CachePolicy.maximumSize(1000).withTtl(MillisecondTimeUnits.MINUTES, 10),
+ *             RefreshPolicy.refreshAfter(MillisecondTimeUnits.MINUTES.getValue() * 8).withGrace(60_000),
+ *             city -> fetchWeather(city),
+ *             BackgroundWorker.getInstance().asExecutor());
+ *     weather.getAsync("Berlin").thenAccept(System.out::println);
+ * }
+ * </pre>
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public class LoadingCache<K, V> {
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ConcurrentCache<K, Loaded<V>> cache;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Function<? super K, ? extends V> loader;
+    private final Executor executor;
+    private final long ttl;
+    private final long refreshAfter;
+
+    /**
+     * <h2>LoadingCache({@link CachePolicy}, {@link Function})</h2>
+     * <p>Creates a new cache loading missing and expired values on virtual threads.</p>
+     *
+     * @param policy The policy of the cache.
+     * @param loader The function loading a value, may block.
+     */
+    public LoadingCache(final CachePolicy policy, final Function<? super K, ? extends V> loader) {
+        this(policy, RefreshPolicy.none(), loader, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * <h2>LoadingCache({@link CachePolicy}, {@link RefreshPolicy}, {@link Function}, {@link Executor})</h2>
+     * <p>Creates a new cache loading values on the given executor.</p>
+     * <p>Entries are kept for the time to live plus the grace period, so a stale value is still available.</p>
+     *
+     * @param policy   The policy of the cache.
+     * @param refresh  The refresh policy.
+     * @param loader   The function loading a value, may block, a null value completes the load exceptionally.
+     * @param executor The executor running the loads.
+     */
+    public LoadingCache(final CachePolicy policy, final RefreshPolicy refresh,
+                        final Function<? super K, ? extends V> loader, final Executor executor) {
+        this.ttl = policy.ttl();
+        this.refreshAfter = refresh.refreshAfter();
+        this.loader = Objects.requireNonNull(loader);
+        this.executor = Objects.requireNonNull(executor);
+        this.cache = new ConcurrentCache<>(ttl > 0 ? policy.withTtl(ttl + Math.max(0, refresh.grace())) : policy);
+    }
+
+    /**
+     * <h2>getAsync(K)</h2>
+     * <p>Gets the value of the key, a missing value is loaded once for all concurrent callers.</p>
+     * <p>A cached value is returned as a completed future, a reload is started if it is old or stale.</p>
+     *
+     * @param key The key.
+     * @return The future of the value.
+     */
+    public CompletableFuture<V> getAsync(final K key) {
+        final Loaded<V> loaded = cache.getIfPresent(key);
+        if (null == loaded) {
+            return load(key);
+        }
+        final long age = System.currentTimeMillis() - loaded.loadedAt();
+        if ((ttl > 0 && age >= ttl) || (refreshAfter > 0 && age >= refreshAfter)) {
+            load(key);
+        }
+        return CompletableFuture.completedFuture(loaded.value());
+    }
+
+    /**
+     * <h2>get(K)</h2>
+     * <p>Gets the value of the key, waiting for a missing value to be loaded.</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     final Weather current = weather.get("Berlin");
+     * }
+     * </pre>
+     *
+     * @param key The key.
+     * @return The value.
+     * @throws java.util.concurrent.CompletionException If the value was missing and could not be loaded.
+     */
+    public V get(final K key) {
+        return getAsync(key).join();
+    }
+
+    /**
+     * <h2>getIfPresent(K)</h2>
+     * <p>Gets the cached value of the key without loading it, a stale value within the grace period is returned.</p>
+     *
+     * @param key The key.
+     * @return The value or null if it is not cached.
+     */
+    public V getIfPresent(final K key) {
+        final Loaded<V> loaded = cache.getIfPresent(key);
+        return null == loaded ? null : loaded.value();
+    }
+
+    /**
+     * <h2>refresh(K)</h2>
+     * <p>Reloads the value of the key, the cached value is served until the reload completes.</p>
+     * <p>If a load of the key is already running, its future is returned.</p>
+     *
+     * @param key The key.
+     * @return The future of the reloaded value.
+     */
+    public CompletableFuture<V> refresh(final K key) {
+        return load(key);
+    }
+
+    /**
+     * <h2>put(K, V)</h2>
+     * <p>Caches the value as if it was loaded now, a running load of the key no longer caches its result.</p>
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(final K key, final V value) {
+        inFlight.remove(key);
+        cache.put(key, new Loaded<>(Objects.requireNonNull(value), System.currentTimeMillis()));
+    }
+
+    /**
+     * <h2>invalidate(K)</h2>
+     * <p>Removes the value of the key, a running load of the key no longer caches its result. Waiting callers still
+     * receive the value of that load.</p>
+     *
+     * @param key The key.
+     */
+    public void invalidate(final K key) {
+        inFlight.remove(key);
+        cache.remove(key);
+    }
+
+    /**
+     * <h2>invalidateAll()</h2>
+     * <p>Removes all values, running loads no longer cache their results.</p>
+     */
+    public void invalidateAll() {
+        inFlight.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * <h2>size()</h2>
+     * <p>Gets the amount of cached entries including stale entries.</p>
+     *
+     * @return The amount of entries.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * <h2>getMetrics()</h2>
+     * <p>Gets the statistics of the cache, a read of a stale value within the grace period counts as a hit.</p>
+     *
+     * @return The metrics.
+     */
+    public CacheMetrics getMetrics() {
+        return cache.getMetrics();
+    }
+
+    /**
+     * <h2>cleanUp()</h2>
+     * <p>Removes all entries beyond their grace period, see {@link ConcurrentCache#cleanUp()}.</p>
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * <h2>load(K)</h2>
+     * <p>Starts a load of the key unless one is running. The value is cached while the load is removed from the
+     * in-flight loads, so a caller never misses both. A load already removed by {@link #put(Object, Object)} or an
+     * invalidation is superseded and does not cache its value, the invalidation removes the in-flight load first so
+     * it either sees the cached value or prevents it.</p>
+     *
+     * @param key The key.
+     * @return The future of the load.
+     */
+    private CompletableFuture<V> load(final K key) {
+        final CompletableFuture<V> created = new CompletableFuture<>();
+        final CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+        if (null != running) {
+            return running;
+        }
+        try {
+            executor.execute(() -> {
+                final long start = System.nanoTime();
+                try {
+                    final V value = Objects.requireNonNull(loader.apply(key), "The loader returned null");
+                    cache.getMetrics().onLoad(true, System.nanoTime() - start);
+                    inFlight.computeIfPresent(key, (k, current) -> {
+                        if (current != created) {
+                            return current;
+                        }
+                        cache.put(key, new Loaded<>(value, System.currentTimeMillis()));
+                        return null;
+                    });
+                    created.complete(value);
+                } catch (RuntimeException | Error ex) {
+                    cache.getMetrics().onLoad(false, System.nanoTime() - start);
+                    inFlight.remove(key, created);
+                    created.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(ex);
+        }
+        return created;
+    }
+
+    /**
+     * <h1>Loaded</h1>
+     * <p>A cached value and the time it was loaded.</p>
+     *
+     * @param value    The value.
+     * @param loadedAt The time of the load in milliseconds.
+     * @param <V>      The type of the value.
+     */
+    private record Loaded<V>(V value, long loadedAt) {
+    }
+}
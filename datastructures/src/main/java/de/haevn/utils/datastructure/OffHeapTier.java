@@ -0,0 +1,414 @@
+package de.haevn.utils.datastructure;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h1>OffHeapTier</h1>
+ * <br>
+ * <p>This class is a second tier of a {@link ConcurrentCache} storing serialized values outside of the heap.</p>
+ * <p>Values evicted from the heap by size are encoded with a {@link ValueCodec} and copied into direct
+ * {@link ByteBuffer} slabs. A read missing the heap takes the value out of this tier and promotes it back to the
+ * heap, so only the hot part of a large working set lives on the heap and adds to the garbage collection work.</p>
+ * <p>Slabs are allocated lazily until the capacity is reached. Each slab is cut into chunks of one size class, the
+ * size classes are powers of two from 64 bytes to the slab size. A value is stored in the smallest chunk it fits
+ * in. If no chunk of the size class is free and no slab can be allocated, the least recently stored value of the
+ * whole tier is dropped. If it has another size class, its slab is reassigned: all values in the slab are dropped
+ * and the slab is cut into chunks of the requested size class, so a shifting value size does not strand the memory
+ * in size classes no longer used. Values larger than a slab are not stored.</p>
+ * <p>All operations take a lock, they only copy bytes and never run the codec while holding it. The cache encodes
+ * and decodes with {@link #encode(Object)} and {@link #decode(Stored)} without holding any lock either.</p>
+ * <h3>Example</h3>
+ * <pre>
+ * {@code
+ *     final OffHeapTier<String, String> tier = new OffHeapTier<>(ValueCodec.string(), 512L * 1024 * 1024);
+ *     final ConcurrentCache<String, String> pages = new ConcurrentCache<>(CachePolicy.maximumSize(1000), tier);
+ * }
+ * </pre>
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class OffHeapTier<K, V> {
+    /**
+     * The default size of a slab, 1 MiB.
+     */
+    public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    private static final int MIN_CHUNK_SHIFT = 6;
+
+    private final ValueCodec<V> codec;
+    private final long capacity;
+    private final int slabSize;
+    private final int maxSlabs;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final List<SizeClass<K>> owners = new ArrayList<>();
+    private final Map<K, Chunk> chunks = new LinkedHashMap<>();
+    private final List<SizeClass<K>> classes;
+    private long usedBytes;
+
+    /**
+     * <h2>OffHeapTier({@link ValueCodec}, long)</h2>
+     * <p>Creates a new tier with {@link #DEFAULT_SLAB_SIZE slabs of 1 MiB}.</p>
+     *
+     * @param codec    The codec of the values.
+     * @param capacity The maximal amount of off-heap bytes.
+     */
+    public OffHeapTier(final ValueCodec<V> codec, final long capacity) {
+        this(codec, capacity, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * <h2>OffHeapTier({@link ValueCodec}, long, int)</h2>
+     * <p>Creates a new tier, no memory is allocated until a value is stored.</p>
+     *
+     * @param codec    The codec of the values.
+     * @param capacity The maximal amount of off-heap bytes, rounded down to whole slabs.
+     * @param slabSize The size of a slab and of the largest storable value, rounded up to a power of two.
+     */
+    public OffHeapTier(final ValueCodec<V> codec, final long capacity, final int slabSize) {
+        this.codec = Objects.requireNonNull(codec);
+        this.slabSize = Math.max(1 << MIN_CHUNK_SHIFT, Integer.highestOneBit(Math.max(1, slabSize - 1)) << 1);
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, Math.max(0, capacity) / this.slabSize);
+        this.capacity = (long) maxSlabs * this.slabSize;
+        final int classCount = Integer.numberOfTrailingZeros(this.slabSize) - MIN_CHUNK_SHIFT + 1;
+        this.classes = new ArrayList<>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            classes.add(new SizeClass<>(1 << (MIN_CHUNK_SHIFT + i)));
+        }
+    }
+
+    /**
+     * <h2>encode(V)</h2>
+     * <p>Encodes the value with the codec of the tier, no lock is held.</p>
+     *
+     * @param value The value.
+     * @return The encoded value.
+     */
+    byte[] encode(final V value) {
+        return codec.encode(value);
+    }
+
+    /**
+     * <h2>decode(Stored)</h2>
+     * <p>Decodes a value taken out of the tier with the codec of the tier, no lock is held.</p>
+     *
+     * @param stored The taken value.
+     * @return The value.
+     */
+    V decode(final Stored stored) {
+        return codec.decode(stored.bytes());
+    }
+
+    /**
+     * <h2>store(K, byte[], long)</h2>
+     * <p>Stores an encoded value, a stored value of the key is replaced.</p>
+     *
+     * @param key       The key.
+     * @param bytes     The value encoded by {@link #encode(Object)}.
+     * @param expiresAt The time in milliseconds the value expires.
+     * @return True iff the value was stored.
+     */
+    boolean store(final K key, final byte[] bytes, final long expiresAt) {
+        if (bytes.length > slabSize) {
+            remove(key);
+            return false;
+        }
+        final SizeClass<K> sizeClass = classes.get(classIndex(bytes.length));
+        lock.lock();
+        try {
+            release(chunks.remove(key));
+            final long position = allocate(sizeClass);
+            if (position < 0) {
+                return false;
+            }
+            final ByteBuffer slab = slabs.get((int) (position >>> 32));
+            slab.put((int) position, bytes);
+            final Chunk chunk = new Chunk(key, sizeClass, position, bytes.length, expiresAt);
+            chunks.put(key, chunk);
+            sizeClass.stored.put(key, chunk);
+            usedBytes += sizeClass.chunkSize;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>take(K, long)</h2>
+     * <p>Removes the value of the key and copies its bytes, see {@link #decode(Stored)}.</p>
+     *
+     * @param key The key.
+     * @param now The current time in milliseconds, an expired value is dropped.
+     * @return The encoded value and its expiry or null if no valid value is stored.
+     */
+    Stored take(final K key, final long now) {
+        lock.lock();
+        try {
+            final Chunk chunk = chunks.remove(key);
+            if (null == chunk) {
+                return null;
+            }
+            release(chunk);
+            if (now >= chunk.expiresAt) {
+                return null;
+            }
+            final byte[] bytes = new byte[chunk.length];
+            slabs.get((int) (chunk.position >>> 32)).get((int) chunk.position, bytes);
+            return new Stored(bytes, chunk.expiresAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>contains(K, long)</h2>
+     * <p>Checks if a valid value of the key is stored.</p>
+     *
+     * @param key The key.
+     * @param now The current time in milliseconds.
+     * @return True iff a value is stored and not expired.
+     */
+    boolean contains(final K key, final long now) {
+        lock.lock();
+        try {
+            final Chunk chunk = chunks.get(key);
+            return null != chunk && now < chunk.expiresAt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>remove(K)</h2>
+     * <p>Removes the value of the key.</p>
+     *
+     * @param key The key.
+     */
+    void remove(final K key) {
+        lock.lock();
+        try {
+            release(chunks.remove(key));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>clear()</h2>
+     * <p>Removes all values, allocated slabs are kept for reuse.</p>
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            for (final Chunk chunk : new ArrayList<>(chunks.values())) {
+                release(chunk);
+            }
+            chunks.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>size()</h2>
+     * <p>Gets the amount of stored values.</p>
+     *
+     * @return The amount of values.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return chunks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>getUsedBytes()</h2>
+     * <p>Gets the size of the chunks holding values.</p>
+     *
+     * @return The used bytes.
+     */
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>getAllocatedBytes()</h2>
+     * <p>Gets the size of the allocated slabs.</p>
+     *
+     * @return The allocated bytes.
+     */
+    public long getAllocatedBytes() {
+        lock.lock();
+        try {
+            return (long) slabs.size() * slabSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>getCapacity()</h2>
+     * <p>Gets the maximal amount of off-heap bytes.</p>
+     *
+     * @return The capacity.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * <h2>allocate(SizeClass)</h2>
+     * <p>Takes a free chunk of the size class or allocates a new slab. If neither is possible, the oldest value of the
+     * tier is dropped if it has the same size class, otherwise its slab is reassigned to the size class.</p>
+     *
+     * @param sizeClass The size class.
+     * @return The position as slab index and offset or -1 if no chunk is available.
+     */
+    private long allocate(final SizeClass<K> sizeClass) {
+        if (sizeClass.free.isEmpty()) {
+            if (slabs.size() < maxSlabs) {
+                slabs.add(ByteBuffer.allocateDirect(slabSize));
+                owners.add(sizeClass);
+                cut(slabs.size() - 1, sizeClass);
+            } else if (!chunks.isEmpty()) {
+                final Chunk oldest = chunks.values().iterator().next();
+                if (oldest.sizeClass == sizeClass) {
+                    chunks.remove(oldest.key);
+                    release(oldest);
+                } else {
+                    reassign((int) (oldest.position >>> 32), sizeClass);
+                }
+            } else if (!slabs.isEmpty()) {
+                // Nothing is stored, every slab is free and owned by another size class
+                reassign(0, sizeClass);
+            }
+        }
+        final Long position = sizeClass.free.poll();
+        return null == position ? -1 : position;
+    }
+
+    /**
+     * <h2>reassign(int, SizeClass)</h2>
+     * <p>Drops all values in the slab and cuts it into chunks of the size class.</p>
+     *
+     * @param index     The index of the slab.
+     * @param sizeClass The new size class of the slab.
+     */
+    private void reassign(final int index, final SizeClass<K> sizeClass) {
+        final SizeClass<K> owner = owners.get(index);
+        final Iterator<Chunk> stored = owner.stored.values().iterator();
+        while (stored.hasNext()) {
+            final Chunk chunk = stored.next();
+            if ((int) (chunk.position >>> 32) == index) {
+                stored.remove();
+                chunks.remove(chunk.key);
+                chunk.released = true;
+                usedBytes -= owner.chunkSize;
+            }
+        }
+        owner.free.removeIf(position -> (int) (position >>> 32) == index);
+        owners.set(index, sizeClass);
+        cut(index, sizeClass);
+    }
+
+    /**
+     * <h2>cut(int, SizeClass)</h2>
+     * <p>Adds all chunks of the slab to the free list of the size class.</p>
+     *
+     * @param index     The index of the slab.
+     * @param sizeClass The size class of the slab.
+     */
+    private void cut(final int index, final SizeClass<K> sizeClass) {
+        for (int offset = 0; offset + sizeClass.chunkSize <= slabSize; offset += sizeClass.chunkSize) {
+            sizeClass.free.add(((long) index << 32) | offset);
+        }
+    }
+
+    /**
+     * <h2>release(Chunk)</h2>
+     * <p>Returns the chunk to the free list of its size class.</p>
+     *
+     * @param chunk The chunk, may be null.
+     */
+    private void release(final Chunk chunk) {
+        if (null == chunk || chunk.released) {
+            return;
+        }
+        chunk.released = true;
+        chunk.sizeClass.stored.remove(chunk.key, chunk);
+        chunk.sizeClass.free.push(chunk.position);
+        usedBytes -= chunk.sizeClass.chunkSize;
+    }
+
+    private int classIndex(final int length) {
+        final int shift = 32 - Integer.numberOfLeadingZeros(Math.max(1, length - 1));
+        return Math.max(0, shift - MIN_CHUNK_SHIFT);
+    }
+
+    /**
+     * <h1>Stored</h1>
+     * <p>An encoded value taken out of the tier.</p>
+     *
+     * @param bytes     The encoded value.
+     * @param expiresAt The time in milliseconds the value expires.
+     */
+    record Stored(byte[] bytes, long expiresAt) {
+    }
+
+    /**
+     * <h1>SizeClass</h1>
+     * <p>The free chunks and the stored values of one chunk size.</p>
+     *
+     * @param <K> The type of the keys.
+     */
+    private static final class SizeClass<K> {
+        final int chunkSize;
+        final ArrayDeque<Long> free = new ArrayDeque<>();
+        final LinkedHashMap<K, Chunk> stored = new LinkedHashMap<>();
+
+        SizeClass(final int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * <h1>Chunk</h1>
+     * <p>The location of a stored value.</p>
+     */
+    private static final class Chunk {
+        final Object key;
+        final SizeClass<?> sizeClass;
+        final long position;
+        final int length;
+        final long expiresAt;
+        boolean released;
+
+        Chunk(final Object key, final SizeClass<?> sizeClass, final long position, final int length, final long expiresAt) {
+            this.key = key;
+            this.sizeClass = sizeClass;
+            this.position = position;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.haevn.utils.datastructure;
+
+/**
+ * <h1>RefreshPolicy</h1>
+ * <br>
+ * <p>This record defines when a {@link LoadingCache} reloads an entry in the background.</p>
+ * <p>A read of an entry older than {@code refreshAfter} milliseconds starts a reload and still returns the cached
+ * value. An entry older than the time to live of the {@link CachePolicy} is stale, for another {@code grace}
+ * milliseconds the stale value is returned while it is reloaded, so a failed reload keeps the old value.</p>
+ * <h3>Example</h3>
+ * <pre>
+ * {@code
+ *     // Expires after 5 minutes, reloaded after 4 minutes, served up to 1 minute longer if the reload fails
+ *     final RefreshPolicy refresh = RefreshPolicy.refreshAfter(MillisecondTimeUnits.MINUTES.getValue() * 4)
+ *             .withGrace(MillisecondTimeUnits.MINUTES.getValue());
+ * }
+ * </pre>
+ *
+ * @param refreshAfter The age in milliseconds after which a read reloads the entry, 0 to disable refresh-ahead.
+ * @param grace        The time in milliseconds a stale value is served while it is reloaded, 0 to disable.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public record RefreshPolicy(long refreshAfter, long grace) {
+
+    /**
+     * <h2>none()</h2>
+     * <p>Creates a policy which only loads missing and expired entries.</p>
+     *
+     * @return The policy.
+     */
+    public static RefreshPolicy none() {
+        return new RefreshPolicy(0, 0);
+    }
+
+    /**
+     * <h2>refreshAfter(long)</h2>
+     * <p>Creates a policy reloading entries older than the given age in the background.</p>
+     *
+     * @param refreshAfter The age in milliseconds.
+     * @return The policy.
+     */
+    public static RefreshPolicy refreshAfter(final long refreshAfter) {
+        return new RefreshPolicy(refreshAfter, 0);
+    }
+
+    /**
+     * <h2>withGrace(long)</h2>
+     * <p>Creates a copy of this policy serving stale values for the given time.</p>
+     *
+     * @param grace The grace period in milliseconds.
+     * @return The new policy.
+     */
+    public RefreshPolicy withGrace(final long grace) {
+        return new RefreshPolicy(refreshAfter, grace);
+    }
+}
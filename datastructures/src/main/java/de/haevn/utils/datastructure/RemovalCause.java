@@ -0,0 +1,33 @@
+package de.haevn.utils.datastructure;
+
+/**
+ * <h1>RemovalCause</h1>
+ * <br>
+ * <p>This enum describes why an entry left a {@link ConcurrentCache}.</p>
+ * <ul>
+ *     <li>EXPLICIT: The entry was removed or the cache was invalidated.</li>
+ *     <li>REPLACED: A new value was written for the key.</li>
+ *     <li>EXPIRED: The time to live of the entry passed.</li>
+ *     <li>SIZE: The entry was evicted to keep the maximum size or weight.</li>
+ * </ul>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public enum RemovalCause {
+    EXPLICIT,
+    REPLACED,
+    EXPIRED,
+    SIZE;
+
+    /**
+     * <h2>isEviction()</h2>
+     * <p>Checks if the cache removed the entry on its own.</p>
+     *
+     * @return True iff the entry expired or was evicted by size.
+     */
+    public boolean isEviction() {
+        return EXPIRED == this || SIZE == this;
+    }
+}
@@ -1,14 +1,35 @@
 package de.haevn.utils.datastructure;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * <h1>SearchableList</h1>
  * <br>
  * <p>This class extends the {@link ArrayList} class and provides a simple way to search for elements in the list.</p>
  * <p>It provides a simple way to search for elements in the list using a {@link Predicate} or a {@link SearchBuilder}.</p>
+ * <p>Named indexes speed up equality and range lookups on large lists. A hash index maps the key of each element to
+ * the elements with that key, a sorted index additionally keeps the keys in order. The indexes are updated on every
+ * change of the list. A search whose predicate is created by {@link #whereEquals(String, Object)},
+ * {@link #whereBetween(String, Object, Object)}, {@link #whereAtLeast(String, Object)} or
+ * {@link #whereAtMost(String, Object)} and only combined using AND tests the elements found in the index instead of
+ * the whole list. The result of such a search is in the order of the index instead of the order of the list.</p>
+ * <p>The key of an element must not change while it is in the list. Changes through a {@link #subList(int, int)}
+ * view are not tracked, call {@link #rebuildIndexes()} afterward.</p>
+ * <p>The list is serializable like an {@link ArrayList}, the indexes are not. A deserialized list has no indexes,
+ * they must be added again.</p>
  * <h3>Example</h3>
  * <pre>
  * {@code
@@ -18,11 +39,341 @@ import java.util.function.Predicate;
  *     list.add("Universe");
  *     final List<String> result = list.search(s -> s.startsWith("W"));
  *     System.out.println(result);
+ *
+ *     list.addHashIndex("first", s -> s.charAt(0)).addSortedIndex("length", String::length);
+ *     final List<String> indexed = list.search(list.searchBuilder(list.whereEquals("first", 'W'))
+ *             .and(list.whereBetween("length", 3, 5)));
  * }
  * </pre>
  * @param <T> The type of the elements in the list.
  */
 public class SearchableList<T> extends ArrayList<T> {
+    /**
+     * The indexes by name, not serialized as the key functions usually are not serializable.
+     */
+    private transient Map<String, Index<T>> indexes = new LinkedHashMap<>();
+
+    /**
+     * <h2>addHashIndex(String, {@link Function})</h2>
+     * <p>Adds an index for equality lookups, an index with the same name is replaced.</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     list.addHashIndex("city", Person::getCity);
+     * }
+     * </pre>
+     * @param name the name of the index
+     * @param key the function extracting the key of an element, the key may be null
+     * @return the list
+     */
+    public SearchableList<T> addHashIndex(final String name, final Function<? super T, ?> key) {
+        return addIndex(name, new Index<>(key, null));
+    }
+
+    /**
+     * <h2>addSortedIndex(String, {@link Function})</h2>
+     * <p>Adds an index for equality and range lookups using the natural order of the keys, an index with the same
+     * name is replaced. Elements with a null key are not indexed.</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     list.addSortedIndex("age", Person::getAge);
+     * }
+     * </pre>
+     * @param name the name of the index
+     * @param key the function extracting the key of an element
+     * @param <K> the type of the keys
+     * @return the list
+     */
+    public <K extends Comparable<? super K>> SearchableList<T> addSortedIndex(final String name, final Function<? super T, ? extends K> key) {
+        return addSortedIndex(name, key, Comparator.<K>naturalOrder());
+    }
+
+    /**
+     * <h2>addSortedIndex(String, {@link Function}, {@link Comparator})</h2>
+     * <p>Adds an index for equality and range lookups using the given order of the keys, an index with the same name
+     * is replaced. Elements with a null key are not indexed.</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     list.addSortedIndex("name", Person::getName, String.CASE_INSENSITIVE_ORDER);
+     * }
+     * </pre>
+     * @param name the name of the index
+     * @param key the function extracting the key of an element
+     * @param comparator the order of the keys
+     * @param <K> the type of the keys
+     * @return the list
+     */
+    @SuppressWarnings("unchecked")
+    public <K> SearchableList<T> addSortedIndex(final String name, final Function<? super T, ? extends K> key, final Comparator<? super K> comparator) {
+        return addIndex(name, new Index<>(key, (Comparator<Object>) Objects.requireNonNull(comparator)));
+    }
+
+    /**
+     * <h2>removeIndex(String)</h2>
+     * <p>Removes the index, searches using it scan the list afterward.</p>
+     * @param name the name of the index
+     * @return true iff the index existed
+     */
+    public boolean removeIndex(final String name) {
+        return null != indexes().remove(name);
+    }
+
+    /**
+     * <h2>getIndexNames()</h2>
+     * <p>Gets the names of the indexes.</p>
+     * @return the names of the indexes
+     */
+    public Set<String> getIndexNames() {
+        return Set.copyOf(indexes().keySet());
+    }
+
+    /**
+     * <h2>rebuildIndexes()</h2>
+     * <p>Recreates all indexes from the elements of the list, e.g. after a change through a sub list.</p>
+     */
+    public void rebuildIndexes() {
+        for (final Index<T> index : indexes().values()) {
+            index.clear();
+            forEach(index::add);
+        }
+    }
+
+    /**
+     * <h2>whereEquals(String, Object)</h2>
+     * <p>Creates a predicate matching elements whose key in the index equals the value.</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     final List<Person> result = list.search(list.searchBuilder(list.whereEquals("city", "Berlin")));
+     * }
+     * </pre>
+     * @param name the name of the index
+     * @param value the value of the key
+     * @return the predicate
+     * @throws IllegalArgumentException if the index does not exist
+     */
+    public Predicate<T> whereEquals(final String name, final Object value) {
+        return new IndexPredicate<>(this, name, getIndex(name), true, value, value);
+    }
+
+    /**
+     * <h2>whereBetween(String, Object, Object)</h2>
+     * <p>Creates a predicate matching elements whose key in the sorted index is between both values inclusive.</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     final List<Person> result = list.search(list.searchBuilder(list.whereBetween("age", 18, 30)));
+     * }
+     * </pre>
+     * @param name the name of the sorted index
+     * @param from the lowest key
+     * @param to the highest key
+     * @return the predicate
+     * @throws IllegalArgumentException if the index does not exist or is not sorted
+     */
+    public Predicate<T> whereBetween(final String name, final Object from, final Object to) {
+        return new IndexPredicate<>(this, name, getSortedIndex(name), false, Objects.requireNonNull(from), Objects.requireNonNull(to));
+    }
+
+    /**
+     * <h2>whereAtLeast(String, Object)</h2>
+     * <p>Creates a predicate matching elements whose key in the sorted index is greater than or equal to the value.</p>
+     * @param name the name of the sorted index
+     * @param from the lowest key
+     * @return the predicate
+     * @throws IllegalArgumentException if the index does not exist or is not sorted
+     */
+    public Predicate<T> whereAtLeast(final String name, final Object from) {
+        return new IndexPredicate<>(this, name, getSortedIndex(name), false, Objects.requireNonNull(from), null);
+    }
+
+    /**
+     * <h2>whereAtMost(String, Object)</h2>
+     * <p>Creates a predicate matching elements whose key in the sorted index is less than or equal to the value.</p>
+     * @param name the name of the sorted index
+     * @param to the highest key
+     * @return the predicate
+     * @throws IllegalArgumentException if the index does not exist or is not sorted
+     */
+    public Predicate<T> whereAtMost(final String name, final Object to) {
+        return new IndexPredicate<>(this, name, getSortedIndex(name), false, null, Objects.requireNonNull(to));
+    }
+
+    @Override
+    public boolean add(final T element) {
+        super.add(element);
+        index(element);
+        return true;
+    }
+
+    @Override
+    public void add(final int position, final T element) {
+        super.add(position, element);
+        index(element);
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends T> elements) {
+        final List<T> added = indexes().isEmpty() ? List.of() : new ArrayList<>(elements);
+        if (!super.addAll(elements)) {
+            return false;
+        }
+        added.forEach(this::index);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(final int position, final Collection<? extends T> elements) {
+        final List<T> added = indexes().isEmpty() ? List.of() : new ArrayList<>(elements);
+        if (!super.addAll(position, elements)) {
+            return false;
+        }
+        added.forEach(this::index);
+        return true;
+    }
+
+    @Override
+    public T set(final int position, final T element) {
+        final T previous = super.set(position, element);
+        unindex(previous);
+        index(element);
+        return previous;
+    }
+
+    @Override
+    public T remove(final int position) {
+        final T removed = super.remove(position);
+        unindex(removed);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(final Object element) {
+        final int position = indexOf(element);
+        if (position < 0) {
+            return false;
+        }
+        remove(position);
+        return true;
+    }
+
+    @Override
+    protected void removeRange(final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            unindex(get(i));
+        }
+        super.removeRange(from, to);
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> elements) {
+        return rebuildIf(super.removeAll(elements));
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> elements) {
+        return rebuildIf(super.retainAll(elements));
+    }
+
+    @Override
+    public boolean removeIf(final Predicate<? super T> filter) {
+        return rebuildIf(super.removeIf(filter));
+    }
+
+    @Override
+    public void replaceAll(final UnaryOperator<T> operator) {
+        super.replaceAll(operator);
+        rebuildIndexes();
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        indexes().values().forEach(Index::clear);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object clone() {
+        final SearchableList<T> copy = (SearchableList<T>) super.clone();
+        copy.indexes = new LinkedHashMap<>();
+        indexes().forEach((name, index) -> copy.addIndex(name, new Index<>(index.key, index.comparator)));
+        return copy;
+    }
+
+    /**
+     * <h2>indexes()</h2>
+     * <p>Gets the indexes, a deserialized list starts without any.</p>
+     * @return the indexes by name
+     */
+    private Map<String, Index<T>> indexes() {
+        if (null == indexes) {
+            indexes = new LinkedHashMap<>();
+        }
+        return indexes;
+    }
+
+    private SearchableList<T> addIndex(final String name, final Index<T> index) {
+        Objects.requireNonNull(name);
+        forEach(index::add);
+        indexes().put(name, index);
+        return this;
+    }
+
+    private Index<T> getIndex(final String name) {
+        final Index<T> index = indexes().get(name);
+        if (null == index) {
+            throw new IllegalArgumentException("No index named " + name);
+        }
+        return index;
+    }
+
+    private Index<T> getSortedIndex(final String name) {
+        final Index<T> index = getIndex(name);
+        if (null == index.comparator) {
+            throw new IllegalArgumentException("The index " + name + " is not sorted");
+        }
+        return index;
+    }
+
+    private void index(final T element) {
+        for (final Index<T> index : indexes().values()) {
+            index.add(element);
+        }
+    }
+
+    private void unindex(final T element) {
+        for (final Index<T> index : indexes().values()) {
+            index.remove(element);
+        }
+    }
+
+    private boolean rebuildIf(final boolean changed) {
+        if (changed) {
+            rebuildIndexes();
+        }
+        return changed;
+    }
+
+    /**
+     * <h2>candidates({@link List})</h2>
+     * <p>Gets the elements a query has to be tested on. Of the indexed predicates of this list the equality lookup
+     * with the fewest elements is preferred over a range lookup.</p>
+     * @param lookups the predicates every match of the query satisfies
+     * @return the elements found in an index or the whole list
+     */
+    private Collection<T> candidates(final List<Predicate<T>> lookups) {
+        IndexPredicate<T> best = null;
+        for (final Predicate<T> lookup : lookups) {
+            if (lookup instanceof IndexPredicate<T> indexed && indexed.isUsable(this)
+                    && (null == best || indexed.estimate() < best.estimate())) {
+                best = indexed;
+            }
+        }
+        return null == best ? this : best.lookup();
+    }
 
     /**
      * <h2>search({@link Predicate})</h2>
@@ -37,7 +388,7 @@ public class SearchableList<T> extends ArrayList<T> {
      * @return a list of elements that match the predicate
      */
     public List<T> search(final Predicate<T> query) {
-        return this.stream().filter(query).toList();
+        return candidates(List.of(query)).stream().filter(query).toList();
     }
 
     /**
@@ -53,7 +404,7 @@ public class SearchableList<T> extends ArrayList<T> {
      * @return a list of elements that match the predicate
      */
     public List<T> searchParallel(final Predicate<T> query) {
-        return this.parallelStream().filter(query).toList();
+        return candidates(List.of(query)).parallelStream().filter(query).toList();
     }
 
     /**
@@ -70,7 +421,7 @@ public class SearchableList<T> extends ArrayList<T> {
      * @return a list of elements that match the predicate
      */
     public List<T> search(final Predicate<T> query, int max) {
-        return this.stream().filter(query).limit(max).toList();
+        return candidates(List.of(query)).stream().filter(query).limit(max).toList();
     }
 
     /**
@@ -87,12 +438,13 @@ public class SearchableList<T> extends ArrayList<T> {
      * @return a list of elements that match the predicate
      */
     public List<T> searchParallel(final Predicate<T> query, int max) {
-        return this.parallelStream().filter(query).limit(max).toList();
+        return candidates(List.of(query)).parallelStream().filter(query).limit(max).toList();
     }
 
     /**
      * <h2>search({@link SearchBuilder})</h2>
      * <p>Searches for elements in the list that match the given search builder.</p>
+     * <p>If the query requires an indexed predicate of this list, only the elements found in the index are tested.</p>
      *
      * <h3>Example:</h3>
      * <pre>
@@ -104,7 +456,7 @@ public class SearchableList<T> extends ArrayList<T> {
      * @return a list of elements that match the search builder query
      */
     public List<T> search(final SearchBuilder<T> searchBuilder){
-        return search(searchBuilder.build());
+        return candidates(searchBuilder.getLookups()).stream().filter(searchBuilder.build()).toList();
     }
 
     /**
@@ -121,7 +473,7 @@ public class SearchableList<T> extends ArrayList<T> {
      * @return a list of elements that match the search builder query
      */
     public List<T> searchParallel(final SearchBuilder<T> searchBuilder){
-        return searchParallel(searchBuilder.build());
+        return candidates(searchBuilder.getLookups()).parallelStream().filter(searchBuilder.build()).toList();
     }
 
     /**
@@ -138,7 +490,7 @@ public class SearchableList<T> extends ArrayList<T> {
      * @return a list of elements that match the search builder query
      */
     public List<T> search(final SearchBuilder<T> searchBuilder, int max){
-        return search(searchBuilder.build(), max);
+        return candidates(searchBuilder.getLookups()).stream().filter(searchBuilder.build()).limit(max).toList();
     }
 
     /**
@@ -155,7 +507,7 @@ public class SearchableList<T> extends ArrayList<T> {
      * @return a list of elements that match the search builder query
      */
     public List<T> searchParallel(final SearchBuilder<T> searchBuilder, int max){
-        return searchParallel(searchBuilder.build(), max);
+        return candidates(searchBuilder.getLookups()).parallelStream().filter(searchBuilder.build()).limit(max).toList();
     }
 
 
@@ -194,6 +546,11 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         private Predicate<T> predicate;
 
+        /**
+         * The indexed predicates every match of the query satisfies.
+         */
+        private final List<Predicate<T>> lookups = new ArrayList<>();
+
         /**
          * <h2>SearchBuilder({@link Predicate})</h2>
          * <p>Creates a new search builder with given {@link Predicate}.</p>
@@ -206,6 +563,7 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         public SearchBuilder(final Predicate<T> predicate){
             this.predicate = predicate;
+            addLookup(predicate);
         }
 
         /**
@@ -252,6 +610,7 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         public SearchBuilder<T> not(){
             this.predicate = this.predicate.negate();
+            lookups.clear();
             return this;
         }
 
@@ -270,6 +629,7 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         public SearchBuilder<T> or(final Predicate<T> predicate){
             this.predicate = this.predicate.or(predicate);
+            lookups.clear();
             return this;
         }
 
@@ -288,6 +648,7 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         public SearchBuilder<T> and(final Predicate<T> predicate){
             this.predicate = this.predicate.and(predicate);
+            addLookup(predicate);
             return this;
         }
 
@@ -306,6 +667,7 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         public SearchBuilder<T> xor(final Predicate<T> predicate){
             this.predicate = this.predicate.or(predicate).and(this.predicate.negate().or(predicate.negate()));
+            lookups.clear();
             return this;
         }
 
@@ -343,6 +705,7 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         public SearchBuilder<T> nor(final Predicate<T> predicate){
             this.predicate = this.predicate.or(predicate.negate());
+            lookups.clear();
             return this;
         }
 
@@ -361,6 +724,7 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         public SearchBuilder<T> xnor(final Predicate<T> predicate){
             this.predicate = this.predicate.and(predicate).or(this.predicate.negate().and(predicate.negate()));
+            lookups.clear();
             return this;
         }
 
@@ -379,8 +743,141 @@ public class SearchableList<T> extends ArrayList<T> {
          */
         public SearchBuilder<T> implies(final Predicate<T> predicate){
             this.predicate = this.predicate.negate().or(predicate);
+            lookups.clear();
             return this;
         }
+
+        /**
+         * <h2>getLookups()</h2>
+         * <p>Gets the indexed predicates every match of the query satisfies.</p>
+         * @return the indexed predicates
+         */
+        List<Predicate<T>> getLookups(){
+            return lookups;
+        }
+
+        private void addLookup(final Predicate<T> predicate){
+            if (predicate instanceof IndexPredicate) {
+                lookups.add(predicate);
+            }
+        }
     }
 
+    /**
+     * <h1>Index</h1>
+     * <p>The elements of the list by key, sorted if a comparator is given.</p>
+     * @param <T> The type of the elements in the list.
+     */
+    private static final class Index<T> {
+        final Function<? super T, ?> key;
+        final Comparator<Object> comparator;
+        final Map<Object, List<T>> buckets;
+
+        Index(final Function<? super T, ?> key, final Comparator<Object> comparator) {
+            this.key = Objects.requireNonNull(key);
+            this.comparator = comparator;
+            this.buckets = null == comparator ? new HashMap<>() : new TreeMap<>(comparator);
+        }
+
+        void add(final T element) {
+            final Object value = key.apply(element);
+            if (null != value || null == comparator) {
+                buckets.computeIfAbsent(value, ignored -> new ArrayList<>()).add(element);
+            }
+        }
+
+        void remove(final T element) {
+            final Object value = key.apply(element);
+            if (null == value && null != comparator) {
+                return;
+            }
+            final List<T> bucket = buckets.get(value);
+            if (null != bucket && bucket.remove(element) && bucket.isEmpty()) {
+                buckets.remove(value);
+            }
+        }
+
+        void clear() {
+            buckets.clear();
+        }
+    }
+
+    /**
+     * <h1>IndexPredicate</h1>
+     * <p>An equality or inclusive range condition on the key of an index, a null bound is unbounded.</p>
+     * @param <T> The type of the elements in the list.
+     */
+    private static final class IndexPredicate<T> implements Predicate<T> {
+        private final SearchableList<T> owner;
+        private final String name;
+        private final Index<T> index;
+        private final boolean equality;
+        private final Object from;
+        private final Object to;
+
+        IndexPredicate(final SearchableList<T> owner, final String name, final Index<T> index,
+                       final boolean equality, final Object from, final Object to) {
+            this.owner = owner;
+            this.name = name;
+            this.index = index;
+            this.equality = equality;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean test(final T element) {
+            final Object value = index.key.apply(element);
+            if (null == index.comparator) {
+                return Objects.equals(value, from);
+            }
+            if (null == value) {
+                return false;
+            }
+            if (equality) {
+                return null != from && 0 == index.comparator.compare(value, from);
+            }
+            return (null == from || index.comparator.compare(value, from) >= 0)
+                    && (null == to || index.comparator.compare(value, to) <= 0);
+        }
+
+        /**
+         * <h2>isUsable({@link SearchableList})</h2>
+         * <p>Checks if the index belongs to the list and was not removed or replaced.</p>
+         * @param list the searched list
+         * @return true iff the index can be used
+         */
+        boolean isUsable(final SearchableList<T> list) {
+            return owner == list && owner.indexes().get(name) == index;
+        }
+
+        int estimate() {
+            if (!equality) {
+                return Integer.MAX_VALUE;
+            }
+            final List<T> bucket = null == from && null != index.comparator ? null : index.buckets.get(from);
+            return null == bucket ? 0 : bucket.size();
+        }
+
+        Collection<T> lookup() {
+            if (equality) {
+                final List<T> bucket = null == from && null != index.comparator ? null : index.buckets.get(from);
+                return null == bucket ? List.of() : bucket;
+            }
+            NavigableMap<Object, List<T>> range = (NavigableMap<Object, List<T>>) index.buckets;
+            if (null != from && null != to) {
+                if (index.comparator.compare(from, to) > 0) {
+                    return List.of();
+                }
+                range = range.subMap(from, true, to, true);
+            } else if (null != from) {
+                range = range.tailMap(from, true);
+            } else {
+                range = range.headMap(to, true);
+            }
+            final List<T> result = new ArrayList<>();
+            range.values().forEach(result::addAll);
+            return result;
+        }
+    }
 }
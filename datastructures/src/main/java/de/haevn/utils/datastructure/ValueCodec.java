@@ -0,0 +1,83 @@
+package de.haevn.utils.datastructure;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <h1>ValueCodec</h1>
+ * <br>
+ * <p>This interface converts the values of an {@link OffHeapTier} to bytes and back.</p>
+ * <h3>Example</h3>
+ * <pre>
+ * {@code
+ *     final ValueCodec<Document> codec = new ValueCodec<>() {
+ *         public byte[] encode(final Document value) { return value.toString().getBytes(StandardCharsets.UTF_8); }
+ *         public Document decode(final byte[] bytes) { return Document.parse(new String(bytes, StandardCharsets.UTF_8)); }
+ *     };
+ * }
+ * </pre>
+ *
+ * @param <V> The type of the values.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public interface ValueCodec<V> {
+
+    /**
+     * <h2>encode(V)</h2>
+     * <p>Converts the value to bytes.</p>
+     *
+     * @param value The value.
+     * @return The bytes.
+     */
+    byte[] encode(V value);
+
+    /**
+     * <h2>decode(byte[])</h2>
+     * <p>Converts bytes created by {@link #encode(Object)} back to a value.</p>
+     *
+     * @param bytes The bytes.
+     * @return The value.
+     */
+    V decode(byte[] bytes);
+
+    /**
+     * <h2>bytes()</h2>
+     * <p>Gets a codec storing byte arrays as they are.</p>
+     *
+     * @return The codec.
+     */
+    static ValueCodec<byte[]> bytes() {
+        return new ValueCodec<>() {
+            @Override
+            public byte[] encode(final byte[] value) {
+                return value;
+            }
+
+            @Override
+            public byte[] decode(final byte[] bytes) {
+                return bytes;
+            }
+        };
+    }
+
+    /**
+     * <h2>string()</h2>
+     * <p>Gets a codec storing strings as UTF-8.</p>
+     *
+     * @return The codec.
+     */
+    static ValueCodec<String> string() {
+        return new ValueCodec<>() {
+            @Override
+            public byte[] encode(final String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(final byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
@@ -1,4 +1,5 @@
 module de.haevn.utils.datastructures {
+    requires java.management;
     requires de.haevn.utils.enumeration;
 
     exports de.haevn.utils.datastructure;
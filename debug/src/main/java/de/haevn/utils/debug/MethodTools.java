@@ -27,6 +27,7 @@ import java.util.Optional;
  */
 @DebugTool(name = "MethodTools", description = "Provides some useful methods for methods.")
 public class MethodTools {
+    private static final StackWalker WALKER = StackWalker.getInstance();
     private final MethodDetails methodDetails;
 
     /**
@@ -90,9 +91,7 @@ public class MethodTools {
      * @return The method that is skip methods above this method.
      */
     public static Optional<MethodTools> getMethod(final int skip) {
-        StackWalker walker = StackWalker.getInstance();
-
-        return walker.walk(stackFrameStream -> stackFrameStream
+        return WALKER.walk(stackFrameStream -> stackFrameStream
                 .skip(skip)
                 .findFirst()).map(MethodTools::new);
     }
@@ -0,0 +1,76 @@
+package de.haevn.utils.io;
+
+import de.haevn.utils.logging.LoggerHierarchy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>LoggerProperties</h1>
+ * <p>The LoggerProperties class configures the {@link LoggerHierarchy} from a {@link PropertyHandler} file</p>
+ * <p>All keys starting with {@value LoggerHierarchy#PREFIX} are read as rules, see {@link LoggerHierarchy} for the format</p>
+ * <p>A watched file is reloaded by the {@link FileWatcher} when it changes, the rules are replaced as a whole and
+ * every logger resolves its settings again, so the verbosity can be changed without a restart</p>
+ *
+ * <h2>Example:</h2>
+ * <pre>{@code
+ * // config/Logging.property:
+ * // logger.level=WARNING
+ * // logger.de.haevn.utils.io.level=DEBUG
+ * LoggerProperties.watch("Logging", 5, TimeUnit.SECONDS);
+ * }</pre>
+ *
+ * @author Haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class LoggerProperties {
+
+    /**
+     * <h2>LoggerProperties</h2>
+     * <p>Private constructor, the class only provides static methods</p>
+     */
+    private LoggerProperties() {
+    }
+
+    /**
+     * <h2>load(String)</h2>
+     * <p>Reads the property file and replaces the rules of the {@link LoggerHierarchy}</p>
+     *
+     * @param name the name of the property file
+     * @return the PropertyHandler of the file
+     */
+    public static PropertyHandler load(final String name) {
+        final PropertyHandler handler = PropertyHandler.getInstance(name);
+        apply(handler);
+        return handler;
+    }
+
+    /**
+     * <h2>watch(String, int, {@link TimeUnit})</h2>
+     * <p>Reads the property file and replaces the rules of the {@link LoggerHierarchy}</p>
+     * <p>The file is checked every interval and read again if it has changed</p>
+     *
+     * @param name     the name of the property file
+     * @param interval the interval to check for changes
+     * @param unit     the time unit of the interval
+     * @return the PropertyHandler of the file
+     */
+    public static PropertyHandler watch(final String name, final int interval, final TimeUnit unit) {
+        final PropertyHandler handler = load(name);
+        FileWatcher.getInstance().watch(handler.getFile().getAbsolutePath(), interval, unit, () -> {
+            handler.reload();
+            apply(handler);
+        });
+        return handler;
+    }
+
+    /**
+     * <h2>apply(PropertyHandler)</h2>
+     * <p>Replaces the rules of the {@link LoggerHierarchy} with the properties of the handler</p>
+     *
+     * @param handler the PropertyHandler to read
+     */
+    public static void apply(final PropertyHandler handler) {
+        LoggerHierarchy.getInstance().configure(handler.getProperties());
+    }
+}
@@ -101,10 +101,15 @@ public final class PropertyHandler {
     /**
      * <h2>load()</h2>
      * <p>Loads the property file</p>
+     * <p>Keys removed from the file are removed as well, if the file cannot be read the properties are kept</p>
+     * <p>Only stale keys are removed before the new values are put, so a concurrent reader never sees an empty map</p>
      */
     public void load() {
         try (final InputStream inputStream = new FileInputStream(configFile)) {
-            properties.load(inputStream);
+            final Properties loaded = new Properties();
+            loaded.load(inputStream);
+            properties.keySet().retainAll(loaded.keySet());
+            properties.putAll(loaded);
         } catch (IOException e) {
             LOGGER.atError().forEnclosingMethod()
                     .withException(e)
@@ -251,6 +256,28 @@ public final class PropertyHandler {
         return properties.keySet().stream().map(Object::toString).toList();
     }
 
+    /**
+     * <h2>getProperties()</h2>
+     * <p>Returns a copy of all keys and values in the property file</p>
+     *
+     * @return a copy of the properties
+     */
+    public Properties getProperties() {
+        final Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+
+    /**
+     * <h2>getFile()</h2>
+     * <p>Returns the property file</p>
+     *
+     * @return the property file
+     */
+    public File getFile() {
+        return configFile;
+    }
+
     /**
      * <h2>set(String, String)</h2>
      * <p>Sets the value of the given key to the given value</p>
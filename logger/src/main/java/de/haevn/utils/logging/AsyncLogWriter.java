@@ -0,0 +1,121 @@
+package de.haevn.utils.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <h1>AsyncLogWriter</h1>
+ * <p>This class connects producers of a {@link Logger} with a single writer thread.</p>
+ * <p>Producers publish entries into a {@link LogRingBuffer}, the writer thread drains it in batches and hands
+ * every batch to the given sink, which prints the entries to the configured streams.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class AsyncLogWriter {
+    private static final int BATCH_SIZE = 256;
+
+    private final LogRingBuffer buffer;
+    private final WaitStrategy strategy;
+    private final boolean blockWhenFull;
+    private final Consumer<List<LogEntry>> sink;
+    private final Thread thread;
+    private volatile boolean writing = false;
+
+    /**
+     * <h2>AsyncLogWriter(String, {@link LoggerConfig}, {@link Consumer})</h2>
+     * <p>Creates and starts a new writer thread.</p>
+     *
+     * @param name   The name of the logger, used for the thread name.
+     * @param config The configuration providing buffer size and wait strategy.
+     * @param sink   The consumer writing a batch of entries.
+     */
+    AsyncLogWriter(final String name, final LoggerConfig config, final Consumer<List<LogEntry>> sink) {
+        this.buffer = new LogRingBuffer(config.getAsyncBufferSize());
+        this.strategy = config.getWaitStrategy();
+        this.blockWhenFull = config.isBlockWhenFull();
+        this.sink = sink;
+        this.thread = Thread.ofPlatform().daemon().name("Logger-" + name + "-writer").unstarted(this::run);
+        this.thread.start();
+    }
+
+    /**
+     * <h2>publish({@link LogEntry})</h2>
+     * <p>Publishes the entry to the writer thread.</p>
+     *
+     * @param entry The entry to publish.
+     * @return True iff the entry was accepted.
+     */
+    boolean publish(final LogEntry entry) {
+        final boolean accepted = buffer.publish(entry, blockWhenFull, strategy);
+        if (accepted && strategy.requiresSignal()) {
+            LockSupport.unpark(thread);
+        }
+        return accepted;
+    }
+
+    /**
+     * <h2>run()</h2>
+     * <p>The loop of the writer thread. It is a daemon thread running until the JVM exits, the shutdown of the
+     * {@link LoggerHandler} waits for it with {@link #awaitDrained()}.</p>
+     */
+    private void run() {
+        final List<LogEntry> batch = new ArrayList<>(BATCH_SIZE);
+        int attempt = 0;
+        while (true) {
+            writing = true;
+            if (buffer.drain(batch, BATCH_SIZE) > 0) {
+                try {
+                    sink.accept(batch);
+                } catch (final RuntimeException ignored) {
+                    // A broken batch must not stop the writer, otherwise producers would wait forever
+                }
+                batch.clear();
+                attempt = 0;
+                writing = false;
+            } else {
+                writing = false;
+                strategy.idle(attempt);
+                attempt = Math.min(attempt + 1, WaitStrategy.MAX_ATTEMPT);
+            }
+        }
+    }
+
+    /**
+     * <h2>awaitDrained()</h2>
+     * <p>Waits until every entry published so far was handed to the sink.</p>
+     */
+    void awaitDrained() {
+        int attempt = 0;
+        while (thread.isAlive() && (!buffer.isEmpty() || writing)) {
+            if (strategy.requiresSignal()) {
+                LockSupport.unpark(thread);
+            }
+            WaitStrategy.SLEEPING.idle(attempt);
+            attempt = Math.min(attempt + 1, WaitStrategy.MAX_ATTEMPT);
+        }
+    }
+
+    /**
+     * <h2>getQueueDepth()</h2>
+     * <p>Gets the amount of entries waiting to be written.</p>
+     *
+     * @return The queue depth.
+     */
+    int getQueueDepth() {
+        return buffer.size();
+    }
+
+    /**
+     * <h2>getStatistics()</h2>
+     * <p>Gets the producer side statistics.</p>
+     *
+     * @return The statistics.
+     */
+    EnqueueStatistics getStatistics() {
+        return buffer.getStatistics();
+    }
+}
@@ -0,0 +1,562 @@
+package de.haevn.utils.logging;
+
+import de.haevn.utils.debug.MethodTools;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * <h1>BinaryLogWriter</h1>
+ * <p>This class writes {@link LogEntry log entries} as compact binary records into memory-mapped segment files.</p>
+ * <p>A segment has a fixed size and is mapped with {@link FileChannel#map}, writing a record is a copy into the
+ * mapping, no json is produced and no system call is made. A new segment is started once a record does not fit.</p>
+ * <p>Every segment is self-contained and starts with a header of magic, version and the length of the written part,
+ * followed by records:</p>
+ * <ul>
+ *     <li>{@code 1 id length bytes}: defines a name, file, class, method and thread names are written only once per segment</li>
+ *     <li>{@code 2 level timestamp file class method line thread message object throwable fields}: an entry, the timestamp
+ *     is the zigzag encoded difference to the previous entry, names are ids and strings are length prefixed.
+ *     The fields are a count followed by {@code key type value} triples, the keys are names, integral numbers are
+ *     zigzag encoded, doubles are 8 bytes and all other values are strings</li>
+ *     <li>{@code 0}: the end of the segment, the unused tail of the mapping is zero</li>
+ * </ul>
+ * <p>All numbers are unsigned varints, ids and string lengths are shifted by one so 0 represents null.
+ * Attached objects are stored as their {@link String#valueOf(Object) string value}.</p>
+ * <p>A segment is trimmed to its written length when it is closed. While the mapping is still alive this fails on
+ * some platforms, such segments keep their full size and are trimmed when the next writer for the base file is
+ * created, readers rely on the length in the header.</p>
+ * <p>Segments are decoded with {@link LogConversion#readSegments(File, Consumer)}.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LoggerConfig config = new LoggerConfig();
+ *     config.setBinaryOutput(new File("logs/App.bin"));
+ *     config.setConsoleOutput(null);
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.1
+ * @since 2.1
+ */
+public final class BinaryLogWriter implements Closeable {
+    /**
+     * The default size of a segment in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    static final int MAGIC = 0x484C4F47;
+    static final byte VERSION = 3;
+    static final byte END = 0;
+    static final byte NAME = 1;
+    static final byte ENTRY = 2;
+    static final int HEADER_SIZE = Integer.BYTES + 1 + Integer.BYTES;
+    private static final int LENGTH_POSITION = Integer.BYTES + 1;
+
+    private final File directory;
+    private final String baseName;
+    private final String extension;
+    private final int segmentSize;
+    private final Map<String, Integer> names = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private long lastTimestamp;
+
+    /**
+     * <h2>BinaryLogWriter({@link File})</h2>
+     * <p>Creates a new writer with {@link #DEFAULT_SEGMENT_SIZE segments of 16 MB}.</p>
+     *
+     * @param base The base file, segments are named {@code <name>-<index>.<extension>} next to it.
+     * @throws IOException If the first segment cannot be created.
+     */
+    public BinaryLogWriter(final File base) throws IOException {
+        this(base, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * <h2>BinaryLogWriter({@link File}, int)</h2>
+     * <p>Creates a new writer, a new segment is started after the highest existing segment.</p>
+     *
+     * @param base        The base file, segments are named {@code <name>-<index>.<extension>} next to it.
+     * @param segmentSize The size of a segment in bytes.
+     * @throws IOException If the first segment cannot be created.
+     */
+    public BinaryLogWriter(final File base, final int segmentSize) throws IOException {
+        final File absolute = base.getAbsoluteFile();
+        this.directory = absolute.getParentFile();
+        this.baseName = baseName(absolute);
+        this.extension = extension(absolute);
+        this.segmentSize = Math.max(HEADER_SIZE + 64, segmentSize);
+        directory.mkdirs();
+        final File[] existing = segments(absolute);
+        for (final File file : existing) {
+            trim(file);
+        }
+        this.segmentIndex = existing.length == 0 ? 0 : index(existing[existing.length - 1]) + 1;
+        openSegment();
+    }
+
+    /**
+     * <h2>write(List)</h2>
+     * <p>Appends the entries to the current segment, a record larger than a segment is discarded.</p>
+     *
+     * @param entries The entries to write.
+     */
+    public void write(final List<LogEntry> entries) {
+        lock.lock();
+        try {
+            for (final LogEntry entry : entries) {
+                if (null == segment) {
+                    return;
+                }
+                int defined = names.size();
+                try {
+                    encode(entry);
+                    if (scratch.position() + 1 > segment.remaining()) {
+                        nextSegment();
+                        defined = 0;
+                        encode(entry);
+                        if (scratch.position() + 1 > segment.remaining()) {
+                            forget(defined);
+                            continue;
+                        }
+                    }
+                    lastTimestamp = entry.getTimestamp();
+                    segment.put(scratch.flip());
+                } catch (IOException | RuntimeException ex) {
+                    // A broken entry or segment must not break the logger
+                    forget(defined);
+                }
+            }
+            if (null != segment) {
+                segment.putInt(LENGTH_POSITION, length());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>forget(int)</h2>
+     * <p>Removes the names defined by a record that was not written.</p>
+     *
+     * @param defined The amount of names that are written to the segment.
+     */
+    private void forget(final int defined) {
+        names.values().removeIf(id -> id > defined);
+    }
+
+    /**
+     * <h2>close()</h2>
+     * <p>Forces the current segment to the disk and trims the unused tail of the file.</p>
+     *
+     * @throws IOException If the segment cannot be trimmed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closeSegment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>encode({@link LogEntry})</h2>
+     * <p>Encodes the entry including missing name definitions into the scratch buffer.</p>
+     *
+     * @param entry The entry to encode.
+     */
+    private void encode(final LogEntry entry) {
+        scratch.clear();
+        final MethodTools helper = entry.getHelper();
+        final int file = null == helper ? 0 : name(helper.getFileName());
+        final int className = null == helper ? 0 : name(helper.getClassName());
+        final int method = null == helper ? 0 : name(helper.getMethodName());
+        final int thread = name(entry.getThreadName());
+        final Map<String, Object> fields = SanitizedLogEntry.getFields(entry);
+        final int[] keys = null == fields ? new int[0] : new int[fields.size()];
+        if (null != fields) {
+            int index = 0;
+            for (final String key : fields.keySet()) {
+                keys[index++] = name(key);
+            }
+        }
+
+        ensure(16);
+        scratch.put(ENTRY);
+        scratch.put((byte) entry.getLevel().ordinal());
+        putVarint(zigzag(entry.getTimestamp() - lastTimestamp));
+        putVarint(file);
+        putVarint(className);
+        putVarint(method);
+        putVarint(null == helper ? 0 : helper.getLineNumber());
+        putVarint(thread);
+        putString(entry.getMessage());
+        putString(null == entry.getObj() ? null : String.valueOf(entry.getObj()));
+        putString(null == entry.getThrowable() ? null : StackTraceDeduplicator.describe(entry));
+        putVarint(keys.length);
+        if (null != fields) {
+            int index = 0;
+            for (final Object value : fields.values()) {
+                putVarint(keys[index++]);
+                putValue(value);
+            }
+        }
+    }
+
+    /**
+     * <h2>putValue(Object)</h2>
+     * <p>Encodes the type and the value of a field.</p>
+     */
+    private void putValue(final Object value) {
+        ensure(9);
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            scratch.put(LogFields.LONG);
+            putVarint(zigzag(((Number) value).longValue()));
+        } else if (value instanceof Double || value instanceof Float) {
+            scratch.put(LogFields.DOUBLE);
+            scratch.putDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean bool) {
+            scratch.put(LogFields.BOOLEAN);
+            scratch.put((byte) (bool ? 1 : 0));
+        } else {
+            scratch.put(LogFields.STRING);
+            putString(null == value ? null : String.valueOf(value));
+        }
+    }
+
+    /**
+     * <h2>name(String)</h2>
+     * <p>Gets the id of the name, a definition record is encoded if the name is new in this segment.</p>
+     *
+     * @param name The name.
+     * @return The id, 0 for null.
+     */
+    private int name(final String name) {
+        if (null == name) {
+            return 0;
+        }
+        final Integer known = names.get(name);
+        if (null != known) {
+            return known;
+        }
+        final int id = names.size() + 1;
+        names.put(name, id);
+        ensure(6);
+        scratch.put(NAME);
+        putVarint(id);
+        putString(name);
+        return id;
+    }
+
+    /**
+     * <h2>putString(String)</h2>
+     * <p>Encodes a length prefixed UTF-8 string, null is encoded as length 0.</p>
+     */
+    private void putString(final String value) {
+        if (null == value) {
+            putVarint(0);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length + 1L);
+        ensure(bytes.length);
+        scratch.put(bytes);
+    }
+
+    /**
+     * <h2>putVarint(long)</h2>
+     * <p>Encodes an unsigned varint.</p>
+     */
+    private void putVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            scratch.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        scratch.put((byte) value);
+    }
+
+    /**
+     * <h2>ensure(int)</h2>
+     * <p>Grows the scratch buffer so the given amount of bytes fits.</p>
+     */
+    private void ensure(final int length) {
+        if (scratch.remaining() < length) {
+            final ByteBuffer grown = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + length));
+            grown.put(scratch.flip());
+            scratch = grown;
+        }
+    }
+
+    /**
+     * <h2>nextSegment()</h2>
+     * <p>Closes the current segment and starts the next one with empty name tables.</p>
+     *
+     * @throws IOException If the segment cannot be created.
+     */
+    private void nextSegment() throws IOException {
+        closeSegment();
+        segmentIndex++;
+        openSegment();
+    }
+
+    /**
+     * <h2>openSegment()</h2>
+     * <p>Creates and maps the segment with the current index and writes its header.</p>
+     *
+     * @throws IOException If the segment cannot be created.
+     */
+    private void openSegment() throws IOException {
+        final File file = new File(directory, String.format("%s-%06d%s", baseName, segmentIndex, extension));
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.putInt(MAGIC);
+        segment.put(VERSION);
+        segment.putInt(HEADER_SIZE + 1);
+        names.clear();
+        lastTimestamp = 0;
+    }
+
+    /**
+     * <h2>length()</h2>
+     * <p>Gets the length of the written records plus the end marker.</p>
+     *
+     * @return The length in bytes.
+     */
+    private int length() {
+        return Math.min(segment.position() + 1, segmentSize);
+    }
+
+    /**
+     * <h2>closeSegment()</h2>
+     * <p>Records the length in the header, forces the current segment and trims the file to that length.</p>
+     * <p>If the file cannot be trimmed while it is mapped, it is trimmed by {@link #trim(File)} on the next start.
+     * The segment is only released once it is forced and its channel is closed.</p>
+     *
+     * @throws IOException If the segment cannot be closed.
+     */
+    private void closeSegment() throws IOException {
+        if (null == segment) {
+            return;
+        }
+        final int end = length();
+        segment.putInt(LENGTH_POSITION, end);
+        segment.force();
+        try {
+            channel.truncate(end);
+        } catch (final IOException ignored) {
+            // The mapping is still alive, e.g. on Windows, the header keeps the segment readable
+        }
+        channel.close();
+        segment = null;
+        channel = null;
+    }
+
+    /**
+     * <h2>trim({@link File})</h2>
+     * <p>Trims a segment of a previous writer to the length recorded in its header.</p>
+     *
+     * @param file The segment.
+     */
+    private static void trim(final File file) {
+        try (final FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (in.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC || header.get(Integer.BYTES) < 3) {
+                return;
+            }
+            final int length = header.getInt(LENGTH_POSITION);
+            if (length >= HEADER_SIZE && length < in.size()) {
+                in.truncate(length);
+            }
+        } catch (final IOException ignored) {
+            // An untrimmed segment is still readable
+        }
+    }
+
+    /**
+     * <h2>segments({@link File})</h2>
+     * <p>Finds all segments of the given base file ordered by their index.</p>
+     *
+     * @param base The base file.
+     * @return The segments.
+     */
+    static File[] segments(final File base) {
+        final File absolute = base.getAbsoluteFile();
+        final Pattern pattern = Pattern.compile(Pattern.quote(baseName(absolute)) + "-\\d{6,}" + Pattern.quote(extension(absolute)));
+        final File[] files = absolute.getParentFile().listFiles((dir, name) -> pattern.matcher(name).matches());
+        if (null == files) {
+            return new File[0];
+        }
+        Arrays.sort(files, Comparator.comparingInt(BinaryLogWriter::index));
+        return files;
+    }
+
+    /**
+     * <h2>read({@link File}, Consumer)</h2>
+     * <p>Decodes all records of a single segment.</p>
+     *
+     * @param file     The segment.
+     * @param consumer Receives the decoded entries.
+     * @throws IOException If the file is not a segment or cannot be read.
+     */
+    static void read(final File file, final Consumer<SanitizedLogEntry> consumer) throws IOException {
+        try (final FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            if (buffer.remaining() < Integer.BYTES + 1 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a log segment: " + file);
+            }
+            final byte version = buffer.get();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported log segment version " + version + ": " + file);
+            }
+            if (version >= 3) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    throw new IOException("Not a log segment: " + file);
+                }
+                final int length = buffer.getInt();
+                if (length >= HEADER_SIZE && length < buffer.limit()) {
+                    buffer.limit(length);
+                }
+            }
+            final Map<Integer, String> table = new HashMap<>();
+            final Level[] levels = Level.values();
+            long timestamp = 0;
+            try {
+                while (buffer.hasRemaining()) {
+                    final byte tag = buffer.get();
+                    if (NAME == tag) {
+                        final int id = (int) getVarint(buffer);
+                        table.put(id, getString(buffer));
+                    } else if (ENTRY == tag) {
+                        final Level level = levels[buffer.get()];
+                        timestamp += unzigzag(getVarint(buffer));
+                        final String fileName = table.get((int) getVarint(buffer));
+                        final String className = table.get((int) getVarint(buffer));
+                        final String method = table.get((int) getVarint(buffer));
+                        final long line = getVarint(buffer);
+                        final String thread = table.get((int) getVarint(buffer));
+                        final String message = getString(buffer);
+                        final String object = getString(buffer);
+                        final String throwable = getString(buffer);
+                        final Map<String, Object> fields = version < 2 ? null : getFields(buffer, table);
+                        consumer.accept(new SanitizedLogEntry(
+                                SanitizedLogEntry.DATE_FORMAT.format(Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault())),
+                                level.name(),
+                                null == fileName ? "" : fileName + ":" + line,
+                                null == className ? "" : className + "#" + method,
+                                thread, object, message, null == throwable ? "" : throwable, fields));
+                    } else {
+                        return;
+                    }
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+                throw new IOException("Corrupt log segment: " + file, ex);
+            }
+        }
+    }
+
+    /**
+     * <h2>getFields(ByteBuffer, Map)</h2>
+     * <p>Decodes the fields of an entry.</p>
+     *
+     * @return The fields or null if the entry has none.
+     */
+    private static Map<String, Object> getFields(final ByteBuffer buffer, final Map<Integer, String> table) throws IOException {
+        final int count = (int) getVarint(buffer);
+        if (0 == count) {
+            return null;
+        }
+        final Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final String key = table.get((int) getVarint(buffer));
+            final byte type = buffer.get();
+            final Object value = switch (type) {
+                case LogFields.LONG -> unzigzag(getVarint(buffer));
+                case LogFields.DOUBLE -> buffer.getDouble();
+                case LogFields.BOOLEAN -> buffer.get() != 0;
+                case LogFields.STRING -> getString(buffer);
+                default -> throw new IOException("Unknown field type " + type);
+            };
+            fields.put(key, value);
+        }
+        return fields;
+    }
+
+    /**
+     * <h2>getVarint(ByteBuffer)</h2>
+     * <p>Decodes an unsigned varint.</p>
+     */
+    private static long getVarint(final ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * <h2>getString(ByteBuffer)</h2>
+     * <p>Decodes a length prefixed UTF-8 string.</p>
+     */
+    private static String getString(final ByteBuffer buffer) {
+        final int length = (int) getVarint(buffer);
+        if (0 == length) {
+            return null;
+        }
+        final byte[] bytes = new byte[length - 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String baseName(final File file) {
+        final String name = file.getName();
+        return name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name;
+    }
+
+    private static String extension(final File file) {
+        final String name = file.getName();
+        return name.contains(".") ? name.substring(name.lastIndexOf('.')) : "";
+    }
+
+    private static int index(final File segment) {
+        final String name = segment.getName();
+        final int end = name.length() - extension(segment).length();
+        return Integer.parseInt(name.substring(name.lastIndexOf('-', end) + 1, end));
+    }
+}
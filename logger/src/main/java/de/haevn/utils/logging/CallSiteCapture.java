@@ -0,0 +1,45 @@
+package de.haevn.utils.logging;
+
+/**
+ * <h1>CallSiteCapture</h1>
+ * <p>This enum defines for which entries a {@link Logger} walks the stack to capture the calling method.</p>
+ * <p>Capturing the call site is the most expensive part of creating an entry, it is skipped for entries
+ * that are dropped by the level of the logger regardless of the chosen policy.</p>
+ * <ul>
+ *     Following policies are defined:
+ *     <li>ALWAYS, every entry contains the call site</li>
+ *     <li>WARNING, only {@link Level#WARNING} and more severe entries contain the call site</li>
+ *     <li>NEVER, no entry contains the call site unless {@link Logger.EntryBuilder#forEnclosingMethod()} is used</li>
+ * </ul>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LoggerConfig config = new LoggerConfig();
+ *     config.setCallSiteCapture(CallSiteCapture.WARNING);
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public enum CallSiteCapture {
+    ALWAYS,
+    WARNING,
+    NEVER;
+
+    /**
+     * <h2>captures({@link Level})</h2>
+     * <p>Checks if an entry with the given level should contain the call site.</p>
+     *
+     * @param level The level of the entry.
+     * @return True iff the call site should be captured.
+     */
+    public boolean captures(final Level level) {
+        return switch (this) {
+            case ALWAYS -> true;
+            case WARNING -> level.ordinal() >= Level.WARNING.ordinal();
+            case NEVER -> false;
+        };
+    }
+}
@@ -0,0 +1,232 @@
+package de.haevn.utils.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * <h1>CallSiteThrottle</h1>
+ * <p>This class applies a {@link SamplingPolicy} to every call site of a {@link Logger}.</p>
+ * <p>The token bucket is implemented as generic cell rate algorithm: a single theoretical arrival time per call site
+ * is advanced with one CAS, so the check is lock-free. A captured call site allocates its key on every check, a
+ * call site identified by its template or message does not allocate once it is known.</p>
+ * <p>The amount of tracked call sites is bounded. When the table is full, idle call sites are evicted, a limiter
+ * without pending tokens and suppressions is indistinguishable from a new one. Only if every tracked call site is
+ * busy, further call sites share a single limiter.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class CallSiteThrottle {
+    /**
+     * Returned by {@link #admit(Object)} if the entry must be dropped.
+     */
+    static final long REJECTED = -1;
+
+    private static final int MAX_CALL_SITES = 4096;
+    private static final long SUMMARY_INTERVAL_NANOS = 10_000_000_000L;
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+    private static final String OVERFLOW_CALL_SITE = "other call sites";
+
+    private final SamplingPolicy policy;
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final Map<Object, Limiter> limiters = new ConcurrentHashMap<>();
+    private final Limiter overflow = new Limiter();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+    /**
+     * <h2>CallSiteThrottle({@link SamplingPolicy})</h2>
+     * <p>Creates a new throttle for the given policy.</p>
+     *
+     * @param policy The policy.
+     */
+    CallSiteThrottle(final SamplingPolicy policy) {
+        this.policy = policy;
+        this.emissionInterval = policy.permitsPerSecond() > 0 ? (long) (1_000_000_000L / policy.permitsPerSecond()) : 0;
+        this.burstTolerance = emissionInterval * Math.max(0, policy.burst() - 1);
+    }
+
+    /**
+     * <h2>applies({@link Level})</h2>
+     * <p>Checks if entries with the given level are throttled.</p>
+     *
+     * @param level The level.
+     * @return True iff the level is throttled.
+     */
+    boolean applies(final Level level) {
+        return policy.applies(level);
+    }
+
+    /**
+     * <h2>callSite({@link LogEntry}, String)</h2>
+     * <p>Computes the key of the call site of the given entry.</p>
+     * <p>If the call site was captured it is identified by class, method and line, otherwise the message template
+     * is used, which is a constant for almost every call site. A message without arguments is used as is, a literal
+     * is as constant as a template. A message concatenated at the call site becomes a call site of its own, the
+     * bounded table keeps that cheap.</p>
+     * <p>The formatted message of a template is never used, as it would turn every dynamic message into a call site
+     * of its own.</p>
+     *
+     * @param entry    The entry.
+     * @param template The message template or null.
+     * @return The key or null if the entry has neither call site nor message and must not be throttled.
+     */
+    static Object callSite(final LogEntry entry, final String template) {
+        if (null != entry.getHelper()) {
+            return new CallSite(entry.getHelper().getClassName(), entry.getHelper().getMethodName(), entry.getHelper().getLineNumber());
+        }
+        if (null != template) {
+            return template;
+        }
+        final String message = entry.getMessage();
+        return null == message || message.isEmpty() ? null : message;
+    }
+
+    /**
+     * <h2>admit(Object)</h2>
+     * <p>Decides whether an entry of the given call site is logged.</p>
+     *
+     * @param callSite The key of the call site.
+     * @return {@link #REJECTED} if the entry must be dropped, otherwise the amount of suppressed entries
+     * that should be reported now, usually 0.
+     */
+    long admit(final Object callSite) {
+        final Limiter limiter = limiter(callSite);
+        if (policy.probability() < 1.0 && ThreadLocalRandom.current().nextDouble() >= policy.probability()) {
+            limiter.suppressed.incrementAndGet();
+            return REJECTED;
+        }
+        if (emissionInterval > 0 && !limiter.tryAcquire(emissionInterval, burstTolerance)) {
+            limiter.suppressed.incrementAndGet();
+            return REJECTED;
+        }
+        if (limiter.suppressed.get() > 0) {
+            final long now = System.nanoTime();
+            final long last = limiter.lastSummary.get();
+            if (now - last >= SUMMARY_INTERVAL_NANOS && limiter.lastSummary.compareAndSet(last, now)) {
+                return limiter.suppressed.getAndSet(0);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * <h2>drainSuppressed(ObjLongConsumer)</h2>
+     * <p>Reports and resets the suppressed counters of all call sites whose last summary is older than the
+     * summary interval, used when the logger is flushed so quiet call sites are reported as well.</p>
+     *
+     * @param consumer Receives the call site and the amount of suppressed entries.
+     */
+    void drainSuppressed(final ObjLongConsumer<Object> consumer) {
+        final long now = System.nanoTime();
+        limiters.forEach((callSite, limiter) -> {
+            final long last = limiter.lastSummary.get();
+            if (limiter.suppressed.get() > 0 && now - last >= SUMMARY_INTERVAL_NANOS && limiter.lastSummary.compareAndSet(last, now)) {
+                consumer.accept(callSite, limiter.suppressed.getAndSet(0));
+            }
+        });
+        final long last = overflow.lastSummary.get();
+        if (overflow.suppressed.get() > 0 && now - last >= SUMMARY_INTERVAL_NANOS && overflow.lastSummary.compareAndSet(last, now)) {
+            consumer.accept(OVERFLOW_CALL_SITE, overflow.suppressed.getAndSet(0));
+        }
+    }
+
+    /**
+     * <h2>limiter(Object)</h2>
+     * <p>Gets or creates the limiter of the call site.</p>
+     */
+    private Limiter limiter(final Object callSite) {
+        final Limiter limiter = limiters.get(callSite);
+        if (null != limiter) {
+            return limiter;
+        }
+        if (limiters.size() >= MAX_CALL_SITES && (!sweep() || limiters.size() >= MAX_CALL_SITES)) {
+            return overflow;
+        }
+        return limiters.computeIfAbsent(callSite, key -> new Limiter());
+    }
+
+    /**
+     * <h2>sweep()</h2>
+     * <p>Evicts all idle limiters, at most once per sweep interval.</p>
+     * <p>A suppression counted by a concurrent caller while its limiter is evicted is moved to the overflow limiter,
+     * so it is still reported.</p>
+     *
+     * @return True iff this call swept the table.
+     */
+    private boolean sweep() {
+        final long now = System.nanoTime();
+        final long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return false;
+        }
+        limiters.forEach((callSite, limiter) -> {
+            if (limiter.isIdle(now) && limiters.remove(callSite, limiter)) {
+                final long suppressed = limiter.suppressed.getAndSet(0);
+                if (suppressed > 0) {
+                    overflow.suppressed.addAndGet(suppressed);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * <h1>CallSite</h1>
+     * <p>The key of a captured call site.</p>
+     */
+    private record CallSite(String className, String methodName, int line) {
+        @Override
+        public String toString() {
+            return className + "#" + methodName + ":" + line;
+        }
+    }
+
+    /**
+     * <h1>Limiter</h1>
+     * <p>The state of a single call site.</p>
+     */
+    private static final class Limiter {
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong suppressed = new AtomicLong();
+        private final AtomicLong lastSummary = new AtomicLong(System.nanoTime());
+
+        /**
+         * <h2>tryAcquire(long, long)</h2>
+         * <p>Takes a token if one is available.</p>
+         *
+         * @param interval  The time between two tokens in nanoseconds.
+         * @param tolerance The burst tolerance in nanoseconds.
+         * @return True iff a token was taken.
+         */
+        boolean tryAcquire(final long interval, final long tolerance) {
+            while (true) {
+                final long now = System.nanoTime();
+                final long current = theoreticalArrival.get();
+                final long start = Long.MIN_VALUE == current || current - now < 0 ? now : current;
+                if (start - now > tolerance) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(current, start + interval)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * <h2>isIdle(long)</h2>
+         * <p>Checks if the limiter holds no state a new limiter would not have.</p>
+         *
+         * @param now The current time in nanoseconds.
+         * @return True iff the bucket is full and nothing was suppressed.
+         */
+        boolean isIdle(final long now) {
+            final long arrival = theoreticalArrival.get();
+            return suppressed.get() == 0 && (Long.MIN_VALUE == arrival || arrival - now <= 0);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package de.haevn.utils.logging;
+
+/**
+ * <h1>DeduplicationPolicy</h1>
+ * <p>This record defines how repeated stack traces are shortened.</p>
+ * <p>Every throwable gets a fingerprint computed from its type, the types of its causes and the top {@code frames}
+ * frames of each. The full stack trace of a fingerprint is written once per {@code window} milliseconds, other
+ * occurrences only reference the fingerprint. At most {@code capacity} fingerprints are remembered, the oldest
+ * are evicted first.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LoggerConfig config = new LoggerConfig();
+ *     config.setDeduplicationPolicy(DeduplicationPolicy.window(60_000).withFrames(5));
+ * }
+ * </pre>
+ *
+ * @param window   The time in milliseconds a written stack trace is referenced instead of written again.
+ * @param frames   The amount of top frames per throwable included in the fingerprint.
+ * @param capacity The maximal amount of remembered fingerprints.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public record DeduplicationPolicy(long window, int frames, int capacity) {
+    private static final int DEFAULT_FRAMES = 8;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * <h2>window(long)</h2>
+     * <p>Creates a policy writing the full stack trace of a fingerprint once per window.</p>
+     *
+     * @param window The window in milliseconds.
+     * @return The policy.
+     */
+    public static DeduplicationPolicy window(final long window) {
+        return new DeduplicationPolicy(window, DEFAULT_FRAMES, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * <h2>withFrames(int)</h2>
+     * <p>Creates a copy of this policy including the given amount of frames in the fingerprint.</p>
+     *
+     * @param frames The amount of frames.
+     * @return The new policy.
+     */
+    public DeduplicationPolicy withFrames(final int frames) {
+        return new DeduplicationPolicy(window, frames, capacity);
+    }
+
+    /**
+     * <h2>withCapacity(int)</h2>
+     * <p>Creates a copy of this policy remembering the given amount of fingerprints.</p>
+     *
+     * @param capacity The amount of fingerprints.
+     * @return The new policy.
+     */
+    public DeduplicationPolicy withCapacity(final int capacity) {
+        return new DeduplicationPolicy(window, frames, capacity);
+    }
+}
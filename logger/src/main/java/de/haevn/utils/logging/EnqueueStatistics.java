@@ -0,0 +1,27 @@
+package de.haevn.utils.logging;
+
+/**
+ * <h1>EnqueueStatistics</h1>
+ * <p>This record is a snapshot of the producer side of an asynchronous {@link Logger}.</p>
+ * <p>The latency is measured from the start of the publish call until the entry is visible to the writer thread.</p>
+ *
+ * @param published  The amount of entries published into the ring buffer.
+ * @param rejected   The amount of entries discarded because the ring buffer was full.
+ * @param totalNanos The accumulated enqueue latency in nanoseconds.
+ * @param maxNanos   The highest observed enqueue latency in nanoseconds.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public record EnqueueStatistics(long published, long rejected, long totalNanos, long maxNanos) {
+
+    /**
+     * <h2>averageNanos()</h2>
+     * <p>Gets the average enqueue latency in nanoseconds.</p>
+     *
+     * @return The average latency or 0 if nothing was published.
+     */
+    public double averageNanos() {
+        return published == 0 ? 0 : (double) totalNanos / published;
+    }
+}
@@ -33,4 +33,26 @@ public enum Level {
     Level(int value) {
         this.value = value;
     }
+
+    /**
+     * <h2>bit()</h2>
+     * <p>Gets the bit of this level inside a level mask.</p>
+     * <p>Unlike {@link #value} every level has its own bit, ERROR and FATAL share their value.</p>
+     *
+     * @return The bit.
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * <h2>maskUpTo({@link Level})</h2>
+     * <p>Creates a level mask enabling the given level and all levels declared before it.</p>
+     *
+     * @param level The most verbose level.
+     * @return The mask.
+     */
+    public static int maskUpTo(final Level level) {
+        return (level.bit() << 1) - 1;
+    }
 }
@@ -0,0 +1,192 @@
+package de.haevn.utils.logging;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * <h1>LogContext</h1>
+ * <p>This class binds key/value pairs to the current thread, they are attached to every entry logged inside the scope.</p>
+ * <p>A context is an immutable chain of bindings, opening a scope only prepends a node and closing it restores the
+ * previous chain. Logging captures the context with a single reference, no map is copied.</p>
+ * <p>The context is inherited by child threads, including virtual threads, which share the immutable chain instead
+ * of copying it. Tasks submitted to a pool can carry the context of the submitter with {@link #wrap(Runnable)}.</p>
+ * <p>If a key is bound more than once, the innermost binding wins.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     try (final LogContext.Scope scope = LogContext.open("requestId", requestId)) {
+ *         LOGGER.atInfo().withMessage("Handling request").log(); // contains requestId
+ *     }
+ *
+ *     LogContext.run("tenant", "acme", () -> LOGGER.atInfo().withMessage("Tenant job").log());
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class LogContext {
+    private static final InheritableThreadLocal<LogContext> CURRENT = new InheritableThreadLocal<>();
+
+    private final String key;
+    private final Object value;
+    private final LogContext parent;
+
+    private LogContext(final String key, final Object value, final LogContext parent) {
+        this.key = key;
+        this.value = value;
+        this.parent = parent;
+    }
+
+    /**
+     * <h2>current()</h2>
+     * <p>Gets the context of the current thread.</p>
+     *
+     * @return The context or null if nothing is bound.
+     */
+    public static LogContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * <h2>open(String, Object)</h2>
+     * <p>Binds the pair to the current thread until the returned scope is closed.</p>
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The scope restoring the previous context on close.
+     */
+    public static Scope open(final String key, final Object value) {
+        final LogContext previous = CURRENT.get();
+        CURRENT.set(new LogContext(key, value, previous));
+        return new Scope(previous);
+    }
+
+    /**
+     * <h2>run(String, Object, Runnable)</h2>
+     * <p>Runs the action with the pair bound to the current thread.</p>
+     *
+     * @param key    The key.
+     * @param value  The value.
+     * @param action The action.
+     */
+    public static void run(final String key, final Object value, final Runnable action) {
+        try (final Scope ignored = open(key, value)) {
+            action.run();
+        }
+    }
+
+    /**
+     * <h2>call(String, Object, Supplier)</h2>
+     * <p>Computes a result with the pair bound to the current thread.</p>
+     *
+     * @param key    The key.
+     * @param value  The value.
+     * @param action The action.
+     * @param <T>    The type of the result.
+     * @return The result of the action.
+     */
+    public static <T> T call(final String key, final Object value, final Supplier<T> action) {
+        try (final Scope ignored = open(key, value)) {
+            return action.get();
+        }
+    }
+
+    /**
+     * <h2>wrap(Runnable)</h2>
+     * <p>Captures the context of the current thread and binds it while the returned task runs.</p>
+     *
+     * @param task The task.
+     * @return The wrapped task.
+     */
+    public static Runnable wrap(final Runnable task) {
+        final LogContext captured = CURRENT.get();
+        return () -> {
+            final LogContext previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * <h2>snapshot()</h2>
+     * <p>Copies the context of the current thread into a map.</p>
+     *
+     * @return The bound pairs, the outermost binding first.
+     */
+    public static Map<String, Object> snapshot() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        final LogContext context = CURRENT.get();
+        if (null != context) {
+            final List<LogContext> nodes = new ArrayList<>();
+            for (LogContext node = context; null != node; node = node.parent) {
+                nodes.add(node);
+            }
+            for (int i = nodes.size() - 1; i >= 0; i--) {
+                map.put(nodes.get(i).key, nodes.get(i).value);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * <h2>forEach(BiConsumer)</h2>
+     * <p>Visits every visible binding of this context, the innermost binding first.</p>
+     *
+     * @param consumer Receives key and value.
+     */
+    void forEach(final BiConsumer<String, Object> consumer) {
+        for (LogContext node = this; null != node; node = node.parent) {
+            if (!isShadowed(node)) {
+                consumer.accept(node.key, node.value);
+            }
+        }
+    }
+
+    /**
+     * <h2>isShadowed(LogContext)</h2>
+     * <p>Checks if a binding between this node and the given node uses the same key.</p>
+     */
+    private boolean isShadowed(final LogContext target) {
+        for (LogContext node = this; node != target; node = node.parent) {
+            if (node.key.equals(target.key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <h1>Scope</h1>
+     * <p>A binding opened by {@link #open(String, Object)}, closing it restores the previous context.</p>
+     *
+     * @author haevn
+     * @version 1.0
+     * @since 2.1
+     */
+    public static final class Scope implements AutoCloseable {
+        private final LogContext previous;
+
+        private Scope(final LogContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (null == previous) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
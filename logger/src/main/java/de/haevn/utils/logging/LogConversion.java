@@ -1,13 +1,30 @@
 package de.haevn.utils.logging;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * <h1>LogConversion</h1>
  * <br>
  * <br> This class provides methods to convert log messages to different formats.
+ * <br> Large logs should be converted with an {@link IStreamConverter}, it reads and writes the log line by line
+ * and therefore needs constant memory regardless of the size of the log.
+ * <br> Binary segments written by a {@link BinaryLogWriter} are decoded with {@link #readSegments(File, Consumer)}.
  *
  * @author haevn
  * @version 1.0
@@ -23,6 +40,28 @@ public class LogConversion {
         return "[\n\t" + log + "\n]";
     };
 
+    /**
+     * <h2>JSON_STREAM_CONVERTER</h2>
+     * <p>This converter streams the log messages into a JSON array.</p>
+     * <p>The output is identical to {@link #JSON_CONVERTER} but only a single line is held in memory.</p>
+     */
+    public static final IStreamConverter JSON_STREAM_CONVERTER = (reader, writer) -> {
+        writer.write("[\n\t");
+        boolean first = true;
+        String line;
+        while (null != (line = reader.readLine())) {
+            if (!first) {
+                writer.write(",\n\t");
+            }
+            writer.write(line);
+            first = false;
+        }
+        writer.write("\n]");
+    };
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
     private LogConversion() {
     }
 
@@ -51,18 +90,30 @@ public class LogConversion {
      */
     private static void writeLog(final Logger logger, final String data) {
         try {
-            final var logFile = logger.getConfig().getLogFile();
-            final String name = logFile.getName().substring(0, logFile.getName().lastIndexOf("."));
-            final File file = new File(logFile.getParent(), name + ".json");
-            file.getParentFile().mkdirs();
+            final File file = getTargetFile(logger);
             if (file.exists()) {
                 file.delete();
             }
-            Files.writeString(logFile.toPath(), data);
+            Files.writeString(file.toPath(), data);
         } catch (IOException ignored) {
         }
     }
 
+    /**
+     * <h2>getTargetFile({@link Logger})</h2>
+     * <p>This internal method returns the file next to the log file the converted data is written to.</p>
+     *
+     * @param logger The logger to convert.
+     * @return The target file.
+     */
+    private static File getTargetFile(final Logger logger) {
+        final var logFile = logger.getConfig().getLogFile();
+        final String name = logFile.getName().substring(0, logFile.getName().lastIndexOf("."));
+        final File file = new File(logFile.getParent(), name + ".json");
+        file.getParentFile().mkdirs();
+        return file;
+    }
+
     /**
      * <h2>convert({@link Logger}, {@link IConverter})</h2>
      * <p>This method converts the log messages of the logger to a new format using the given converter.</p>
@@ -83,6 +134,133 @@ public class LogConversion {
         writeLog(logger, data);
     }
 
+    /**
+     * <h2>convert({@link Logger}, {@link IStreamConverter})</h2>
+     * <p>This method streams the log messages of the logger into a new file using the given converter.</p>
+     * <p>The target file is placed next to the log file with the extension {@code .json}.</p>
+     * <br>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     final Logger logger = new Logger(new LoggerConfig());
+     *     LogConversion.convert(logger, LogConversion.JSON_STREAM_CONVERTER);
+     * }
+     * </pre>
+     *
+     * @param logger    The logger to convert.
+     * @param converter The converter to use.
+     * @return True iff the conversion succeeded.
+     */
+    public static boolean convert(final Logger logger, final IStreamConverter converter) {
+        return convert(logger.getConfig().getLogFile(), getTargetFile(logger), converter);
+    }
+
+    /**
+     * <h2>convert({@link File}, {@link File}, {@link IStreamConverter})</h2>
+     * <p>This method streams the given log file into the target file using the given converter.</p>
+     * <p>It can be used offline, e.g. for rotated log files.</p>
+     * <br>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     LogConversion.convert(new File("app.log"), new File("app.json"), LogConversion.JSON_STREAM_CONVERTER);
+     * }
+     * </pre>
+     *
+     * @param source    The newline delimited log file.
+     * @param target    The file to write to, it is overwritten.
+     * @param converter The converter to use.
+     * @return True iff the conversion succeeded.
+     */
+    public static boolean convert(final File source, final File target, final IStreamConverter converter) {
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8), BUFFER_SIZE);
+             final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(target), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            converter.convert(reader, writer);
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * <h2>readSegments({@link File}, Consumer)</h2>
+     * <p>This method decodes all binary segments of the given base file, ordered from the oldest to the newest.</p>
+     * <p>Only one segment is mapped at a time, so arbitrary large logs can be read.</p>
+     * <br>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     LogConversion.readSegments(new File("logs/App.bin"), entry -> System.out.println(entry.message()));
+     * }
+     * </pre>
+     *
+     * @param base     The base file passed to the {@link BinaryLogWriter}.
+     * @param consumer Receives the decoded entries.
+     * @return True iff all segments were decoded.
+     */
+    public static boolean readSegments(final File base, final Consumer<SanitizedLogEntry> consumer) {
+        try {
+            for (final File segment : BinaryLogWriter.segments(base)) {
+                BinaryLogWriter.read(segment, consumer);
+            }
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * <h2>readSegments({@link File})</h2>
+     * <p>This method decodes all binary segments of the given base file into a list.</p>
+     *
+     * @param base The base file passed to the {@link BinaryLogWriter}.
+     * @return The decoded entries, corrupt segments are decoded up to the damaged record.
+     */
+    public static List<SanitizedLogEntry> readSegments(final File base) {
+        final List<SanitizedLogEntry> entries = new ArrayList<>();
+        readSegments(base, entries::add);
+        return entries;
+    }
+
+    /**
+     * <h2>convertSegments({@link File}, {@link File})</h2>
+     * <p>This method converts all binary segments of the given base file into a JSON array.</p>
+     * <p>The layout matches {@link #JSON_CONVERTER}, every entry is written on its own line.</p>
+     * <br>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     LogConversion.convertSegments(new File("logs/App.bin"), new File("logs/App.json"));
+     * }
+     * </pre>
+     *
+     * @param base   The base file passed to the {@link BinaryLogWriter}.
+     * @param target The file to write to, it is overwritten.
+     * @return True iff the conversion succeeded.
+     */
+    public static boolean convertSegments(final File base, final File target) {
+        try (final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(target), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            final boolean[] first = {true};
+            final IOException[] failure = {null};
+            writer.write("[\n\t");
+            final boolean decoded = readSegments(base, entry -> {
+                try {
+                    if (!first[0]) {
+                        writer.write(",\n\t");
+                    }
+                    writer.write(MAPPER.writeValueAsString(entry));
+                    first[0] = false;
+                } catch (IOException ex) {
+                    failure[0] = ex;
+                }
+            });
+            writer.write("\n]");
+            return decoded && null == failure[0];
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
     /**
      * <h2>IConverter</h2>
      * <p>This interface provides a method to convert log messages to a new format.</p>
@@ -104,4 +282,30 @@ public class LogConversion {
     public interface IConverter {
         String convert(final Logger logger);
     }
+
+    /**
+     * <h2>IStreamConverter</h2>
+     * <p>This interface provides a method to convert a newline delimited log into a new format while streaming.</p>
+     * <p>Implementations should only keep a bounded amount of data in memory.</p>
+     * <br>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     final IStreamConverter converter = (reader, writer) -> {
+     *         String line;
+     *         while (null != (line = reader.readLine())) {
+     *             writer.write(line.toUpperCase());
+     *             writer.write('\n');
+     *         }
+     *     };
+     * }
+     * </pre>
+     *
+     * @author haevn
+     * @version 1.0
+     * @since 2.1
+     */
+    public interface IStreamConverter {
+        void convert(final BufferedReader reader, final Writer writer) throws IOException;
+    }
 }
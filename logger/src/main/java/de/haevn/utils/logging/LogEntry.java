@@ -2,24 +2,36 @@ package de.haevn.utils.logging;
 
 import de.haevn.utils.debug.MethodTools;
 
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+
 /**
  * <h1>LogEntry</h1>
  * <p>This class represents a log entry.</p>
+ * <p>A message with arguments is formatted lazily on the first call of {@link #getMessage()}, so an entry
+ * dropped by a sampling policy or never written is never formatted. The arguments are held by reference, so an
+ * entry with a mutable argument is formatted when it is logged, see {@link #freezeArguments()}.</p>
  *
  * @author haevn
- * @version 1.0
+ * @version 1.1
  * @since 1.0
  */
 public final class LogEntry {
     private Level level = Level.UNKNOWN;
     private MethodTools helper = null;
 
-    private String message = "";
+    private volatile String message = "";
+    private String template = null;
+    private Object[] args = null;
     private Throwable throwable = null;
     private long timestamp = 0;
     private String threadName = "";
     private Object obj;
-
+    private LogFields fields = null;
+    private LogContext context = null;
+    private Runnable recycler = null;
+    private String fingerprint = null;
+    private boolean traceOmitted = false;
 
     /**
      * <h2>getLevel</h2>
@@ -64,12 +76,22 @@ public final class LogEntry {
 
     /**
      * <h2>getMessage()</h2>
-     * <p>Gets the message.</p>
+     * <p>Gets the message, a message with arguments is formatted on the first call.</p>
+     * <p>If the arguments do not match the template, the template followed by the arguments is returned.</p>
      *
      * @return The message.
      */
     public String getMessage() {
-        return message;
+        String formatted = message;
+        if (null == formatted && null != template) {
+            try {
+                formatted = String.format(template, args);
+            } catch (IllegalFormatException ex) {
+                formatted = template + " " + Arrays.toString(args);
+            }
+            message = formatted;
+        }
+        return formatted;
     }
 
     /**
@@ -79,9 +101,61 @@ public final class LogEntry {
      * @param message The message.
      */
     public void setMessage(final String message) {
+        this.template = null;
+        this.args = null;
         this.message = message;
     }
 
+    /**
+     * <h2>setMessage(String, Object...)</h2>
+     * <p>Sets a message template and its arguments, they are formatted with {@link String#format(String, Object...)}
+     * when the message is read.</p>
+     *
+     * @param template The template.
+     * @param args     The arguments.
+     */
+    public void setMessage(final String template, final Object... args) {
+        this.template = template;
+        this.args = args;
+        this.message = null;
+    }
+
+    /**
+     * <h2>freezeArguments()</h2>
+     * <p>Formats the message now unless every argument is immutable, called once the entry is logged.</p>
+     * <p>The message may be formatted later by another thread. A mutable argument, e.g. a {@link StringBuilder} or
+     * a collection, would then show its state at that time instead of the state when it was logged. Strings, boxed
+     * primitives and enums are kept for lazy formatting.</p>
+     */
+    void freezeArguments() {
+        if (null != message || null == args) {
+            return;
+        }
+        for (final Object arg : args) {
+            if (!isImmutable(arg)) {
+                getMessage();
+                args = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * <h2>getTemplate()</h2>
+     * <p>Gets the message template.</p>
+     *
+     * @return The template or null if the message was set without arguments.
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    private static boolean isImmutable(final Object arg) {
+        return null == arg || arg instanceof String || arg instanceof Enum<?>
+                || arg instanceof Integer || arg instanceof Long || arg instanceof Double || arg instanceof Boolean
+                || arg instanceof Character || arg instanceof Float || arg instanceof Short || arg instanceof Byte;
+    }
+
 
     /**
      * <h2>getThrowable()</h2>
@@ -162,4 +236,139 @@ public final class LogEntry {
     public void setThreadName(final String name) {
         this.threadName = name;
     }
+
+    /**
+     * <h2>getFields()</h2>
+     * <p>Gets the structured fields.</p>
+     *
+     * @return The fields or null if no field was added.
+     */
+    public LogFields getFields() {
+        return fields;
+    }
+
+    /**
+     * <h2>fields()</h2>
+     * <p>Gets the structured fields, they are created on first use.</p>
+     *
+     * @return The fields.
+     */
+    LogFields fields() {
+        if (null == fields) {
+            fields = new LogFields();
+        }
+        return fields;
+    }
+
+    /**
+     * <h2>getContext()</h2>
+     * <p>Gets the {@link LogContext} captured when the entry was logged.</p>
+     *
+     * @return The context or null if nothing was bound.
+     */
+    public LogContext getContext() {
+        return context;
+    }
+
+    /**
+     * <h2>setContext({@link LogContext})</h2>
+     * <p>Sets the {@link LogContext}.</p>
+     *
+     * @param context The context.
+     */
+    public void setContext(final LogContext context) {
+        this.context = context;
+    }
+
+    /**
+     * <h2>hasFields()</h2>
+     * <p>Checks if the entry has structured fields or a context.</p>
+     *
+     * @return True iff fields or context are present.
+     */
+    public boolean hasFields() {
+        return null != context || (null != fields && !fields.isEmpty());
+    }
+
+    /**
+     * <h2>getFingerprint()</h2>
+     * <p>Gets the fingerprint of the throwable, computed if a {@link DeduplicationPolicy} is configured.</p>
+     *
+     * @return The fingerprint or null.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * <h2>setFingerprint(String)</h2>
+     * <p>Sets the fingerprint of the throwable.</p>
+     *
+     * @param fingerprint The fingerprint.
+     */
+    public void setFingerprint(final String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * <h2>isTraceOmitted()</h2>
+     * <p>Checks if the stack trace is replaced by a reference, because it was written recently.</p>
+     *
+     * @return True iff the stack trace is omitted.
+     */
+    public boolean isTraceOmitted() {
+        return traceOmitted;
+    }
+
+    /**
+     * <h2>setTraceOmitted(boolean)</h2>
+     * <p>Sets if the stack trace is replaced by a reference.</p>
+     *
+     * @param traceOmitted True to omit the stack trace.
+     */
+    public void setTraceOmitted(final boolean traceOmitted) {
+        this.traceOmitted = traceOmitted;
+    }
+
+    /**
+     * <h2>setRecycler(Runnable)</h2>
+     * <p>Sets the action returning a pooled entry to its pool.</p>
+     *
+     * @param recycler The action.
+     */
+    void setRecycler(final Runnable recycler) {
+        this.recycler = recycler;
+    }
+
+    /**
+     * <h2>recycle()</h2>
+     * <p>Returns the entry to its pool once it was written or dropped, does nothing for entries which are not pooled.</p>
+     */
+    void recycle() {
+        if (null != recycler) {
+            recycler.run();
+        }
+    }
+
+    /**
+     * <h2>reset()</h2>
+     * <p>Clears all values, the arrays of the fields are kept for reuse.</p>
+     */
+    void reset() {
+        level = Level.UNKNOWN;
+        helper = null;
+        template = null;
+        args = null;
+        throwable = null;
+        timestamp = 0;
+        threadName = "";
+        obj = null;
+        context = null;
+        fingerprint = null;
+        traceOmitted = false;
+        if (null != fields) {
+            fields.clear();
+        }
+        message = "";
+    }
 }
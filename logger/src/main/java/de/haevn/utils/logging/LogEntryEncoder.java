@@ -0,0 +1,147 @@
+package de.haevn.utils.logging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <h1>LogEntryEncoder</h1>
+ * <p>This class encodes a batch of {@link LogEntry log entries} as newline delimited json.</p>
+ * <p>Entries are streamed into a long-lived {@link JsonGenerator} by the {@link LogLineFormatter}, only attached
+ * objects are handed to the shared, preconfigured mapper so the introspection caches of Jackson stay warm.</p>
+ * <p>A batch is serialized once into a reusable byte buffer which is then copied to every output stream and
+ * {@link LogSink}, no intermediate {@link String} is created.</p>
+ * <p>An instance is not thread-safe, the owning {@link Logger} guarantees that only one thread encodes at a time.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class LogEntryEncoder {
+    private static final JsonMapper MAPPER = JsonMapper.builder()
+            .disable(SerializationFeature.INDENT_OUTPUT)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private static final int INITIAL_CAPACITY = 8192;
+    private static final int RETAINED_CAPACITY = 1 << 20;
+
+    private final LogLineFormatter formatter = new LogLineFormatter();
+    private final LogMetrics metrics;
+    private Buffer buffer = new Buffer();
+    private JsonGenerator generator;
+
+    /**
+     * <h2>LogEntryEncoder({@link LogMetrics})</h2>
+     * <p>Creates a new encoder.</p>
+     *
+     * @param metrics The metrics recording batch size, encoded bytes and serialization latency.
+     */
+    LogEntryEncoder(final LogMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * <h2>encode(List, OutputStream...)</h2>
+     * <p>Serializes the entries and writes the result to all given streams, null streams are skipped.</p>
+     * <p>Entries that cannot be serialized are discarded.</p>
+     *
+     * @param entries The entries to encode.
+     * @param outputs The streams to write to.
+     */
+    void encode(final List<LogEntry> entries, final OutputStream... outputs) {
+        encode(entries, List.of(), outputs);
+    }
+
+    /**
+     * <h2>encode(List, List, OutputStream...)</h2>
+     * <p>Serializes the entries and writes the result to all given sinks and streams, null streams are skipped.</p>
+     * <p>Entries that cannot be serialized are discarded, a failing sink does not affect the others.</p>
+     *
+     * @param entries The entries to encode.
+     * @param sinks   The sinks to write to.
+     * @param outputs The streams to write to.
+     */
+    void encode(final List<LogEntry> entries, final List<LogSink> sinks, final OutputStream... outputs) {
+        if (entries.isEmpty() || (sinks.isEmpty() && Arrays.stream(outputs).allMatch(Objects::isNull))) {
+            return;
+        }
+        final long start = System.nanoTime();
+        int encoded = 0;
+        for (final LogEntry entry : entries) {
+            final int mark = buffer.size();
+            try {
+                if (null == generator) {
+                    generator = MAPPER.createGenerator(buffer).setRootValueSeparator(null);
+                }
+                formatter.write(entry, generator);
+                generator.writeRaw('\n');
+                generator.flush();
+                encoded++;
+            } catch (IOException | RuntimeException ex) {
+                // The generator may hold a partial entry, drop it together with the written bytes
+                generator = null;
+                buffer.truncate(mark);
+            }
+        }
+
+        metrics.onEncoded(encoded, buffer.size(), System.nanoTime() - start);
+
+        for (final OutputStream output : outputs) {
+            if (null == output) {
+                continue;
+            }
+            try {
+                buffer.writeTo(output);
+                output.flush();
+            } catch (IOException ignored) {
+            }
+        }
+        for (final LogSink sink : sinks) {
+            try {
+                buffer.writeTo(sink, encoded);
+                sink.flush();
+            } catch (IOException | RuntimeException ignored) {
+                // A failing sink must not break the other outputs
+            }
+        }
+
+        if (buffer.capacity() > RETAINED_CAPACITY) {
+            buffer = new Buffer();
+            generator = null;
+        } else {
+            buffer.reset();
+        }
+    }
+
+    /**
+     * <h1>Buffer</h1>
+     * <p>A {@link ByteArrayOutputStream} that can drop a partially written entry.</p>
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(INITIAL_CAPACITY);
+        }
+
+        void truncate(final int size) {
+            count = size;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        void writeTo(final LogSink sink, final int entries) throws IOException {
+            sink.write(buf, 0, count, entries);
+        }
+    }
+}
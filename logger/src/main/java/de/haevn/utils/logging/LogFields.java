@@ -0,0 +1,271 @@
+package de.haevn.utils.logging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <h1>LogFields</h1>
+ * <p>This class stores the structured key/value fields of a {@link LogEntry}.</p>
+ * <p>The fields are kept in flat parallel arrays, primitive values are stored unboxed in a {@code long[]},
+ * so {@code with("userId", 42L)} neither boxes nor creates a map entry. The arrays are reused after {@link #clear()}.</p>
+ * <p>Adding a key again replaces the earlier value in place, so every key is written once.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     LOGGER.atInfo()
+ *           .with("userId", 42L)
+ *           .with("ratio", 0.5)
+ *           .with("cached", true)
+ *           .withMessage("Request handled")
+ *           .log();
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class LogFields {
+    static final byte LONG = 0;
+    static final byte DOUBLE = 1;
+    static final byte BOOLEAN = 2;
+    static final byte STRING = 3;
+    static final byte OBJECT = 4;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] primitives = new long[INITIAL_CAPACITY];
+    private Object[] references = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * <h2>add(String, long)</h2>
+     * <p>Adds an integral field.</p>
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return This instance.
+     */
+    public LogFields add(final String key, final long value) {
+        final int index = next(key, LONG);
+        primitives[index] = value;
+        return this;
+    }
+
+    /**
+     * <h2>add(String, double)</h2>
+     * <p>Adds a floating point field.</p>
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return This instance.
+     */
+    public LogFields add(final String key, final double value) {
+        final int index = next(key, DOUBLE);
+        primitives[index] = Double.doubleToRawLongBits(value);
+        return this;
+    }
+
+    /**
+     * <h2>add(String, boolean)</h2>
+     * <p>Adds a boolean field.</p>
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return This instance.
+     */
+    public LogFields add(final String key, final boolean value) {
+        final int index = next(key, BOOLEAN);
+        primitives[index] = value ? 1 : 0;
+        return this;
+    }
+
+    /**
+     * <h2>add(String, String)</h2>
+     * <p>Adds a string field.</p>
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return This instance.
+     */
+    public LogFields add(final String key, final String value) {
+        final int index = next(key, STRING);
+        references[index] = value;
+        return this;
+    }
+
+    /**
+     * <h2>add(String, Object)</h2>
+     * <p>Adds a field with an arbitrary value, it is serialized like {@link Logger.EntryBuilder#withObject(Object)}.</p>
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return This instance.
+     */
+    public LogFields add(final String key, final Object value) {
+        final int index = next(key, OBJECT);
+        references[index] = value;
+        return this;
+    }
+
+    /**
+     * <h2>size()</h2>
+     * <p>Gets the amount of fields.</p>
+     *
+     * @return The amount of fields.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * <h2>isEmpty()</h2>
+     * <p>Checks if no field was added.</p>
+     *
+     * @return True iff there are no fields.
+     */
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    /**
+     * <h2>key(int)</h2>
+     * <p>Gets the key of the field at the given index.</p>
+     *
+     * @param index The index.
+     * @return The key.
+     */
+    public String key(final int index) {
+        return keys[index];
+    }
+
+    /**
+     * <h2>value(int)</h2>
+     * <p>Gets the value of the field at the given index, primitive values are boxed.</p>
+     *
+     * @param index The index.
+     * @return The value.
+     */
+    public Object value(final int index) {
+        return switch (types[index]) {
+            case LONG -> primitives[index];
+            case DOUBLE -> Double.longBitsToDouble(primitives[index]);
+            case BOOLEAN -> primitives[index] != 0;
+            default -> references[index];
+        };
+    }
+
+    /**
+     * <h2>contains(String)</h2>
+     * <p>Checks if a field with the given key exists.</p>
+     *
+     * @param key The key.
+     * @return True iff the key exists.
+     */
+    public boolean contains(final String key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <h2>toMap()</h2>
+     * <p>Copies the fields into a map in the order their keys were first added.</p>
+     *
+     * @return The fields.
+     */
+    public Map<String, Object> toMap() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(keys[i], value(i));
+        }
+        return map;
+    }
+
+    /**
+     * <h2>clear()</h2>
+     * <p>Removes all fields, the arrays are kept for reuse.</p>
+     */
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(references, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * <h2>type(int)</h2>
+     * <p>Gets the type tag of the field at the given index.</p>
+     *
+     * @param index The index.
+     * @return The type tag.
+     */
+    byte type(final int index) {
+        return types[index];
+    }
+
+    /**
+     * <h2>primitive(int)</h2>
+     * <p>Gets the raw primitive value of the field at the given index.</p>
+     *
+     * @param index The index.
+     * @return The raw value, doubles are stored as their raw long bits.
+     */
+    long primitive(final int index) {
+        return primitives[index];
+    }
+
+    /**
+     * <h2>writeValue(int, {@link JsonGenerator})</h2>
+     * <p>Writes the value of the field at the given index without boxing primitive values.</p>
+     *
+     * @param index     The index.
+     * @param generator The generator.
+     * @throws IOException If the value cannot be written.
+     */
+    void writeValue(final int index, final JsonGenerator generator) throws IOException {
+        switch (types[index]) {
+            case LONG -> generator.writeNumber(primitives[index]);
+            case DOUBLE -> generator.writeNumber(Double.longBitsToDouble(primitives[index]));
+            case BOOLEAN -> generator.writeBoolean(primitives[index] != 0);
+            case STRING -> generator.writeString((String) references[index]);
+            default -> generator.writeObject(references[index]);
+        }
+    }
+
+    /**
+     * <h2>next(String, byte)</h2>
+     * <p>Gets the slot of the key, a new slot is reserved and the arrays are grown if the key is new.</p>
+     *
+     * @param key  The key.
+     * @param type The type tag.
+     * @return The index of the slot.
+     */
+    private int next(final String key, final byte type) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                types[i] = type;
+                references[i] = null;
+                return i;
+            }
+        }
+        if (size == keys.length) {
+            final int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            types = Arrays.copyOf(types, capacity);
+            primitives = Arrays.copyOf(primitives, capacity);
+            references = Arrays.copyOf(references, capacity);
+        }
+        keys[size] = key;
+        types[size] = type;
+        return size++;
+    }
+}
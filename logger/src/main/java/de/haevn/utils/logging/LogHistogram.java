@@ -0,0 +1,114 @@
+package de.haevn.utils.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>LogHistogram</h1>
+ * <p>This class is a lock-free histogram with power of two buckets, used for batch sizes and latencies.</p>
+ * <p>A value {@code v} is counted in bucket {@code 64 - numberOfLeadingZeros(v)}, so recording is a few atomic
+ * increments and the memory is constant. Percentiles are estimated with the upper bound of their bucket, which is
+ * at most twice the exact value.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LogHistogram.Snapshot latency = LOGGER.getMetrics().getFlushLatency();
+ *     System.out.println(latency.mean() + " ns mean, " + latency.percentile(0.99) + " ns p99");
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class LogHistogram {
+    private static final int BUCKETS = 65;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * <h2>record(long)</h2>
+     * <p>Records a value, negative values are recorded as 0.</p>
+     *
+     * @param value The value.
+     */
+    public void record(final long value) {
+        final long recorded = Math.max(0, value);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(recorded));
+        count.increment();
+        sum.add(recorded);
+        if (recorded > max.get()) {
+            max.accumulateAndGet(recorded, Math::max);
+        }
+    }
+
+    /**
+     * <h2>snapshot()</h2>
+     * <p>Creates a snapshot of the recorded values, concurrent records may be partially included.</p>
+     *
+     * @return The snapshot.
+     */
+    public Snapshot snapshot() {
+        final long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+        }
+        return new Snapshot(count.sum(), sum.sum(), max.get(), copy);
+    }
+
+    /**
+     * <h1>Snapshot</h1>
+     * <p>An immutable view of a {@link LogHistogram}.</p>
+     *
+     * @param count   The amount of recorded values.
+     * @param sum     The sum of the recorded values.
+     * @param max     The highest recorded value.
+     * @param buckets The counts of the power of two buckets.
+     * @author haevn
+     * @version 1.0
+     * @since 2.1
+     */
+    public record Snapshot(long count, long sum, long max, long[] buckets) {
+
+        /**
+         * <h2>mean()</h2>
+         * <p>Gets the mean of the recorded values.</p>
+         *
+         * @return The mean or 0 if nothing was recorded.
+         */
+        public double mean() {
+            return 0 == count ? 0 : (double) sum / count;
+        }
+
+        /**
+         * <h2>percentile(double)</h2>
+         * <p>Estimates the given percentile with the upper bound of its bucket.</p>
+         *
+         * @param quantile The quantile between 0 and 1, e.g. 0.99.
+         * @return The estimated value or 0 if nothing was recorded.
+         */
+        public long percentile(final double quantile) {
+            long total = 0;
+            for (final long bucket : buckets) {
+                total += bucket;
+            }
+            if (0 == total) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * total));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    final long upper = 0 == i ? 0 : i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+                    return Math.min(upper, max);
+                }
+            }
+            return max;
+        }
+    }
+}
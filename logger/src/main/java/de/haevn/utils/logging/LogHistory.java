@@ -0,0 +1,427 @@
+package de.haevn.utils.logging;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <h1>LogHistory</h1>
+ * <p>This class retains the most recent entries of a {@link Logger} in memory and indexes them.</p>
+ * <p>The history is a ring of a fixed amount of slots, when it is full the oldest entry is evicted.
+ * Following secondary indexes are maintained for every slot:</p>
+ * <ul>
+ *     <li>A bitmap per {@link Level}</li>
+ *     <li>A time ordered index, times are clamped to be non-decreasing in arrival order</li>
+ *     <li>A posting bitmap per thread name</li>
+ *     <li>A posting bitmap per class of the call site</li>
+ * </ul>
+ * <p>A {@link Query} combines a time range with level, thread and class restrictions, the restrictions are
+ * intersected on the bitmaps, so only matching slots are visited.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LoggerConfig config = new LoggerConfig();
+ *     config.setHistorySize(100_000);
+ *     final Logger logger = new Logger(Dummy.class, config);
+ *     final List<LogEntry> errors = logger.getHistory().orElseThrow().search(LogHistory.query()
+ *             .levels(Level.ERROR)
+ *             .className("de.haevn.Dummy")
+ *             .inLast(5 * 60 * 1000));
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class LogHistory {
+    private final int capacity;
+    private final LogEntry[] entries;
+    private final long[] sequences;
+    private final long[] times;
+    private final BitSet[] levels = new BitSet[Level.values().length];
+    private final Map<String, Postings> threads = new HashMap<>();
+    private final Map<String, Postings> classes = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long head = 0;
+    private long lastTime = Long.MIN_VALUE;
+
+    /**
+     * <h2>LogHistory(int)</h2>
+     * <p>Creates a new history retaining at most the given amount of entries.</p>
+     *
+     * @param capacity The maximal amount of retained entries.
+     */
+    LogHistory(final int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new LogEntry[this.capacity];
+        this.sequences = new long[this.capacity];
+        this.times = new long[this.capacity];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = new BitSet(this.capacity);
+        }
+    }
+
+    /**
+     * <h2>query()</h2>
+     * <p>Creates a new, unrestricted {@link Query}.</p>
+     *
+     * @return The query.
+     */
+    public static Query query() {
+        return new Query();
+    }
+
+    /**
+     * <h2>add({@link LogEntry})</h2>
+     * <p>Adds the entry to the history and evicts the oldest entry if the history is full.</p>
+     *
+     * @param entry The entry to add.
+     */
+    void add(final LogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            final long sequence = head++;
+            final int slot = (int) (sequence % capacity);
+            if (null != entries[slot]) {
+                evict(slot);
+            }
+            lastTime = Math.max(lastTime, entry.getTimestamp());
+            entries[slot] = entry;
+            sequences[slot] = sequence;
+            times[slot] = lastTime;
+            levels[entry.getLevel().ordinal()].set(slot);
+            post(threads, entry.getThreadName(), slot);
+            post(classes, className(entry), slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <h2>search({@link Query})</h2>
+     * <p>Finds all retained entries matching the query, ordered from the oldest to the newest.</p>
+     *
+     * @param query The query to execute.
+     * @return The matching entries.
+     */
+    public List<LogEntry> search(final Query query) {
+        lock.readLock().lock();
+        try {
+            final long first = Math.max(0, head - capacity);
+            final long last = head - 1;
+            if (last < first) {
+                return List.of();
+            }
+            final long from = lowerBound(first, last, query.from);
+            final long to = upperBound(first, last, query.to);
+            if (to < from) {
+                return List.of();
+            }
+
+            final BitSet candidates = candidates(query);
+            final List<LogEntry> result = new ArrayList<>();
+            if (null == candidates) {
+                for (long sequence = from; sequence <= to && result.size() < query.limit; sequence++) {
+                    result.add(entries[(int) (sequence % capacity)]);
+                }
+                return result;
+            }
+
+            final int oldestSlot = (int) (first % capacity);
+            collect(candidates, oldestSlot, capacity, from, to, query.limit, result);
+            collect(candidates, 0, oldestSlot, from, to, query.limit, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <h2>size()</h2>
+     * <p>Gets the amount of retained entries.</p>
+     *
+     * @return The amount of entries.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) Math.min(head, capacity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <h2>clear()</h2>
+     * <p>Removes all entries and indexes.</p>
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < capacity; i++) {
+                entries[i] = null;
+            }
+            for (final BitSet level : levels) {
+                level.clear();
+            }
+            threads.clear();
+            classes.clear();
+            head = 0;
+            lastTime = Long.MIN_VALUE;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <h2>evict(int)</h2>
+     * <p>Removes the entry in the given slot from all indexes.</p>
+     *
+     * @param slot The slot to evict.
+     */
+    private void evict(final int slot) {
+        final LogEntry old = entries[slot];
+        levels[old.getLevel().ordinal()].clear(slot);
+        unpost(threads, old.getThreadName(), slot);
+        unpost(classes, className(old), slot);
+        entries[slot] = null;
+    }
+
+    /**
+     * <h2>candidates({@link Query})</h2>
+     * <p>Intersects the bitmaps of all restrictions of the query.</p>
+     *
+     * @param query The query.
+     * @return The candidate slots or null if the query has no restriction besides the time range.
+     */
+    private BitSet candidates(final Query query) {
+        BitSet result = null;
+        if (!query.levels.isEmpty()) {
+            result = new BitSet(capacity);
+            for (final Level level : query.levels) {
+                result.or(levels[level.ordinal()]);
+            }
+        }
+        result = intersect(result, threads, query.thread);
+        result = intersect(result, classes, query.className);
+        return result;
+    }
+
+    /**
+     * <h2>intersect(BitSet, Map, String)</h2>
+     * <p>Intersects the candidates with the postings of the given key, a null key does not restrict.</p>
+     */
+    private BitSet intersect(final BitSet candidates, final Map<String, Postings> index, final String key) {
+        if (null == key) {
+            return candidates;
+        }
+        final Postings postings = index.get(key);
+        if (null == postings) {
+            return new BitSet();
+        }
+        if (null == candidates) {
+            return (BitSet) postings.bits.clone();
+        }
+        candidates.and(postings.bits);
+        return candidates;
+    }
+
+    /**
+     * <h2>collect(BitSet, int, int, long, long, int, List)</h2>
+     * <p>Collects the entries of all candidate slots in {@code [start, end)} whose sequence is within the range.</p>
+     */
+    private void collect(final BitSet candidates, final int start, final int end, final long from, final long to,
+                         final int limit, final List<LogEntry> result) {
+        for (int slot = candidates.nextSetBit(start); slot >= 0 && slot < end && result.size() < limit; slot = candidates.nextSetBit(slot + 1)) {
+            final long sequence = sequences[slot];
+            if (sequence >= from && sequence <= to) {
+                result.add(entries[slot]);
+            }
+        }
+    }
+
+    /**
+     * <h2>lowerBound(long, long, long)</h2>
+     * <p>Finds the first sequence whose time is at least the given time.</p>
+     */
+    private long lowerBound(final long first, final long last, final long time) {
+        long low = first;
+        long high = last + 1;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (times[(int) (mid % capacity)] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * <h2>upperBound(long, long, long)</h2>
+     * <p>Finds the last sequence whose time is at most the given time.</p>
+     */
+    private long upperBound(final long first, final long last, final long time) {
+        long low = first;
+        long high = last + 1;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (times[(int) (mid % capacity)] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * <h2>className({@link LogEntry})</h2>
+     * <p>Gets the class of the call site, or null if it was not captured.</p>
+     */
+    private static String className(final LogEntry entry) {
+        return null == entry.getHelper() ? null : entry.getHelper().getClassName();
+    }
+
+    /**
+     * <h2>post(Map, String, int)</h2>
+     * <p>Adds the slot to the postings of the key.</p>
+     */
+    private static void post(final Map<String, Postings> index, final String key, final int slot) {
+        if (null == key || key.isEmpty()) {
+            return;
+        }
+        final Postings postings = index.computeIfAbsent(key, k -> new Postings());
+        postings.bits.set(slot);
+        postings.count++;
+    }
+
+    /**
+     * <h2>unpost(Map, String, int)</h2>
+     * <p>Removes the slot from the postings of the key, empty postings are dropped.</p>
+     */
+    private static void unpost(final Map<String, Postings> index, final String key, final int slot) {
+        if (null == key || key.isEmpty()) {
+            return;
+        }
+        final Postings postings = index.get(key);
+        if (null == postings) {
+            return;
+        }
+        postings.bits.clear(slot);
+        if (--postings.count == 0) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * <h1>Postings</h1>
+     * <p>The slots of all entries sharing a key.</p>
+     */
+    private static final class Postings {
+        private final BitSet bits = new BitSet();
+        private int count;
+    }
+
+    /**
+     * <h1>Query</h1>
+     * <p>This class describes a conjunctive query against a {@link LogHistory}.</p>
+     * <p>Every restriction is optional, an empty query matches all retained entries.</p>
+     *
+     * @author haevn
+     * @version 1.0
+     * @since 2.1
+     */
+    public static final class Query {
+        private List<Level> levels = List.of();
+        private long from = Long.MIN_VALUE;
+        private long to = Long.MAX_VALUE;
+        private String thread;
+        private String className;
+        private int limit = Integer.MAX_VALUE;
+
+        private Query() {
+        }
+
+        /**
+         * <h2>levels({@link Level}...)</h2>
+         * <p>Restricts the query to entries with one of the given levels.</p>
+         *
+         * @param levels The levels.
+         * @return The query.
+         */
+        public Query levels(final Level... levels) {
+            final List<Level> list = new ArrayList<>();
+            Collections.addAll(list, levels);
+            this.levels = list;
+            return this;
+        }
+
+        /**
+         * <h2>between(long, long)</h2>
+         * <p>Restricts the query to entries logged within the given time range, both bounds are inclusive.</p>
+         *
+         * @param from The start in milliseconds since the epoch.
+         * @param to   The end in milliseconds since the epoch.
+         * @return The query.
+         */
+        public Query between(final long from, final long to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        /**
+         * <h2>inLast(long)</h2>
+         * <p>Restricts the query to entries logged within the last given milliseconds.</p>
+         *
+         * @param millis The duration in milliseconds.
+         * @return The query.
+         */
+        public Query inLast(final long millis) {
+            return between(System.currentTimeMillis() - millis, Long.MAX_VALUE);
+        }
+
+        /**
+         * <h2>thread(String)</h2>
+         * <p>Restricts the query to entries logged with the given thread name.</p>
+         *
+         * @param thread The thread name.
+         * @return The query.
+         */
+        public Query thread(final String thread) {
+            this.thread = thread;
+            return this;
+        }
+
+        /**
+         * <h2>className(String)</h2>
+         * <p>Restricts the query to entries whose call site is in the given fully qualified class.</p>
+         *
+         * @param className The class name.
+         * @return The query.
+         */
+        public Query className(final String className) {
+            this.className = className;
+            return this;
+        }
+
+        /**
+         * <h2>limit(int)</h2>
+         * <p>Limits the amount of returned entries, the oldest matches are returned first.</p>
+         *
+         * @param limit The maximal amount of entries.
+         * @return The query.
+         */
+        public Query limit(final int limit) {
+            this.limit = limit;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package de.haevn.utils.logging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import de.haevn.utils.debug.MethodTools;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * <h1>LogLineFormatter</h1>
+ * <p>This class writes a {@link LogEntry} as json object directly into a {@link JsonGenerator}.</p>
+ * <p>The produced object has the same fields as {@link SanitizedLogEntry} but no intermediate record,
+ * date object or concatenated string is created:</p>
+ * <ul>
+ *     <li>The formatted date is cached and only recomputed when the second changes</li>
+ *     <li>Field names and level names are written from precomputed, already quoted byte arrays</li>
+ *     <li>Source and method are assembled in a reusable character buffer</li>
+ *     <li>Stack traces are printed into a reusable character buffer and streamed to the generator</li>
+ *     <li>Stack traces omitted by the {@link DeduplicationPolicy} are replaced by a reference, the fingerprint
+ *     is written to every entry with a fingerprint so the reference can be resolved</li>
+ * </ul>
+ * <p>An instance is not thread-safe, it is owned by a single {@link LogEntryEncoder}.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class LogLineFormatter {
+    private static final SerializableString DATE = new SerializedString("date");
+    private static final SerializableString LEVEL = new SerializedString("level");
+    private static final SerializableString SOURCE = new SerializedString("source");
+    private static final SerializableString METHOD = new SerializedString("method");
+    private static final SerializableString THREAD = new SerializedString("thread");
+    private static final SerializableString OBJECT = new SerializedString("object");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString THROWABLE = new SerializedString("throwable");
+    private static final SerializableString FIELDS = new SerializedString("fields");
+    private static final SerializableString FINGERPRINT = new SerializedString("fingerprint");
+    private static final SerializableString[] LEVEL_NAMES = new SerializableString[Level.values().length];
+
+    static {
+        for (final Level level : Level.values()) {
+            LEVEL_NAMES[level.ordinal()] = new SerializedString(level.name());
+        }
+    }
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Chars scratch = new Chars();
+    private final Chars trace = new Chars();
+    private final PrintWriter tracePrinter = new PrintWriter(trace);
+    private long cachedSecond = Long.MIN_VALUE;
+    private char[] cachedDate = new char[0];
+
+    /**
+     * <h2>write({@link LogEntry}, {@link JsonGenerator})</h2>
+     * <p>Writes the entry as json object.</p>
+     *
+     * @param entry     The entry to write.
+     * @param generator The generator to write to.
+     * @throws IOException If the generator fails or the attached object cannot be serialized.
+     */
+    void write(final LogEntry entry, final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeFieldName(DATE);
+        final char[] date = formatDate(entry.getTimestamp());
+        generator.writeString(date, 0, date.length);
+
+        generator.writeFieldName(LEVEL);
+        generator.writeString(LEVEL_NAMES[entry.getLevel().ordinal()]);
+
+        final MethodTools helper = entry.getHelper();
+        generator.writeFieldName(SOURCE);
+        scratch.reset();
+        if (null != helper) {
+            scratch.append(helper.getFileName()).append(':');
+            appendInt(scratch, helper.getLineNumber());
+        }
+        generator.writeString(scratch.buffer(), 0, scratch.size());
+
+        generator.writeFieldName(METHOD);
+        scratch.reset();
+        if (null != helper) {
+            scratch.append(helper.getClassName()).append('#').append(helper.getMethodName());
+        }
+        generator.writeString(scratch.buffer(), 0, scratch.size());
+
+        generator.writeFieldName(THREAD);
+        generator.writeString(entry.getThreadName());
+
+        generator.writeFieldName(OBJECT);
+        if (null == entry.getObj()) {
+            generator.writeNull();
+        } else {
+            generator.writeObject(entry.getObj());
+        }
+
+        generator.writeFieldName(MESSAGE);
+        generator.writeString(entry.getMessage());
+
+        generator.writeFieldName(THROWABLE);
+        if (entry.isTraceOmitted()) {
+            generator.writeString(StackTraceDeduplicator.reference(entry));
+        } else {
+            trace.reset();
+            if (null != entry.getThrowable()) {
+                entry.getThrowable().printStackTrace(tracePrinter);
+                tracePrinter.flush();
+            }
+            generator.writeString(trace.buffer(), 0, trace.size());
+        }
+
+        if (null != entry.getFingerprint()) {
+            generator.writeFieldName(FINGERPRINT);
+            generator.writeString(entry.getFingerprint());
+        }
+
+        if (entry.hasFields()) {
+            writeFields(entry, generator);
+        }
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * <h2>writeFields({@link LogEntry}, {@link JsonGenerator})</h2>
+     * <p>Writes the fields and the context of the entry as json object.</p>
+     * <p>Fields of the entry shadow context bindings with the same key, primitive fields are written unboxed.</p>
+     *
+     * @param entry     The entry to write.
+     * @param generator The generator to write to.
+     * @throws IOException If the generator fails or a value cannot be serialized.
+     */
+    private void writeFields(final LogEntry entry, final JsonGenerator generator) throws IOException {
+        final LogFields fields = entry.getFields();
+        generator.writeFieldName(FIELDS);
+        generator.writeStartObject();
+        if (null != entry.getContext()) {
+            try {
+                entry.getContext().forEach((key, value) -> {
+                    if (null != fields && fields.contains(key)) {
+                        return;
+                    }
+                    try {
+                        generator.writeFieldName(key);
+                        generator.writeObject(value);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+        if (null != fields) {
+            for (int i = 0; i < fields.size(); i++) {
+                generator.writeFieldName(fields.key(i));
+                fields.writeValue(i, generator);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * <h2>formatDate(long)</h2>
+     * <p>Formats the timestamp with {@link SanitizedLogEntry#DATE_FORMAT}, the result is cached per second.</p>
+     *
+     * @param timestamp The timestamp in milliseconds.
+     * @return The formatted date, the array must not be modified.
+     */
+    private char[] formatDate(final long timestamp) {
+        final long second = Math.floorDiv(timestamp, 1000L);
+        if (second != cachedSecond) {
+            cachedDate = SanitizedLogEntry.DATE_FORMAT.format(Instant.ofEpochSecond(second).atZone(zone)).toCharArray();
+            cachedSecond = second;
+        }
+        return cachedDate;
+    }
+
+    /**
+     * <h2>appendInt(Chars, int)</h2>
+     * <p>Appends the decimal representation of the value without creating a string.</p>
+     *
+     * @param target The buffer to append to.
+     * @param value  The value to append.
+     */
+    private static void appendInt(final Chars target, final int value) {
+        long remaining = value;
+        if (remaining < 0) {
+            target.write('-');
+            remaining = -remaining;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= remaining) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            target.write((char) ('0' + (remaining / divisor)));
+            remaining %= divisor;
+            divisor /= 10;
+        }
+    }
+
+    /**
+     * <h1>Chars</h1>
+     * <p>A {@link CharArrayWriter} exposing its buffer, so the content can be written without a copy.</p>
+     */
+    private static final class Chars extends CharArrayWriter {
+        Chars() {
+            super(256);
+        }
+
+        char[] buffer() {
+            return buf;
+        }
+
+        @Override
+        public Chars append(final CharSequence sequence) {
+            super.append(sequence);
+            return this;
+        }
+
+        @Override
+        public Chars append(final char c) {
+            super.append(c);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package de.haevn.utils.logging;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * <h1>LogMetrics</h1>
+ * <p>This class collects the counters and histograms of a {@link Logger} or of the {@link LoggerHandler}.</p>
+ * <ul>
+ *     <li>Entries produced per level, entries discarded by the level mask per level and by the {@link SamplingPolicy}</li>
+ *     <li>Entries rejected by the full ring buffer and the current queue depth</li>
+ *     <li>Stack traces replaced by a reference by the {@link DeduplicationPolicy}</li>
+ *     <li>The size of written batches, the encoded bytes and the serialization and flush latency</li>
+ * </ul>
+ * <p>Counters are {@link LongAdder LongAdders}, so recording does not contend between threads.</p>
+ * <p>Batches of synchronous loggers are written by the {@link LoggerHandler}, their batch sizes, bytes and
+ * latencies are recorded in the metrics of the handler. Asynchronous loggers record them in their own metrics.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LogMetrics metrics = LOGGER.getMetrics();
+ *     System.out.println(metrics.getProduced(Level.INFO) + " info entries, " + metrics.getSampledOut() + " sampled out");
+ *
+ *     LoggerHandler.getInstance().registerMBeans(); // de.haevn.utils.logging:type=Logger,name=...
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class LogMetrics implements LogMetricsMXBean {
+    /**
+     * The JMX domain of the beans.
+     */
+    public static final String DOMAIN = "de.haevn.utils.logging";
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final LongAdder[] produced = adders();
+    private final LongAdder[] filtered = adders();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder omittedTraces = new LongAdder();
+    private final LogHistogram batchSizes = new LogHistogram();
+    private final LogHistogram serializationLatency = new LogHistogram();
+    private final LogHistogram flushLatency = new LogHistogram();
+    private final IntSupplier queueDepth;
+    private final LongSupplier queueRejected;
+
+    /**
+     * <h2>LogMetrics(IntSupplier, LongSupplier)</h2>
+     * <p>Creates new metrics.</p>
+     *
+     * @param queueDepth    Supplies the current queue depth.
+     * @param queueRejected Supplies the amount of entries rejected by the full ring buffer.
+     */
+    LogMetrics(final IntSupplier queueDepth, final LongSupplier queueRejected) {
+        this.queueDepth = queueDepth;
+        this.queueRejected = queueRejected;
+    }
+
+    void onProduced(final Level level) {
+        produced[level.ordinal()].increment();
+    }
+
+    void onFiltered(final Level level) {
+        filtered[level.ordinal()].increment();
+    }
+
+    void onSampledOut() {
+        sampledOut.increment();
+    }
+
+    void onTraceOmitted() {
+        omittedTraces.increment();
+    }
+
+    void onEncoded(final int entries, final long encodedBytes, final long nanos) {
+        batchSizes.record(entries);
+        bytes.add(encodedBytes);
+        serializationLatency.record(nanos);
+    }
+
+    void onFlushed(final long nanos) {
+        flushLatency.record(nanos);
+    }
+
+    /**
+     * <h2>getProduced({@link Level})</h2>
+     * <p>Gets the amount of logged entries of the given level.</p>
+     *
+     * @param level The level.
+     * @return The amount of entries.
+     */
+    public long getProduced(final Level level) {
+        return produced[level.ordinal()].sum();
+    }
+
+    /**
+     * <h2>getFiltered({@link Level})</h2>
+     * <p>Gets the amount of entries of the given level discarded by the level mask.</p>
+     *
+     * @param level The level.
+     * @return The amount of entries.
+     */
+    public long getFiltered(final Level level) {
+        return filtered[level.ordinal()].sum();
+    }
+
+    /**
+     * <h2>getSampledOut()</h2>
+     * <p>Gets the amount of entries discarded by the {@link SamplingPolicy}.</p>
+     *
+     * @return The amount of entries.
+     */
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    /**
+     * <h2>getBatchSizes()</h2>
+     * <p>Gets the distribution of the amount of entries per written batch.</p>
+     *
+     * @return The snapshot.
+     */
+    public LogHistogram.Snapshot getBatchSizes() {
+        return batchSizes.snapshot();
+    }
+
+    /**
+     * <h2>getSerializationLatency()</h2>
+     * <p>Gets the distribution of the time to encode a batch in nanoseconds.</p>
+     *
+     * @return The snapshot.
+     */
+    public LogHistogram.Snapshot getSerializationLatency() {
+        return serializationLatency.snapshot();
+    }
+
+    /**
+     * <h2>getFlushLatency()</h2>
+     * <p>Gets the distribution of the time to write a batch to all outputs in nanoseconds.</p>
+     *
+     * @return The snapshot.
+     */
+    public LogHistogram.Snapshot getFlushLatency() {
+        return flushLatency.snapshot();
+    }
+
+    @Override
+    public Map<String, Long> getProducedEntries() {
+        return toMap(produced);
+    }
+
+    @Override
+    public Map<String, Long> getFilteredEntries() {
+        return toMap(filtered);
+    }
+
+    @Override
+    public long getSampledOutEntries() {
+        return getSampledOut();
+    }
+
+    @Override
+    public long getOmittedStackTraces() {
+        return omittedTraces.sum();
+    }
+
+    @Override
+    public long getQueueRejectedEntries() {
+        return queueRejected.getAsLong();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getFlushedBatches() {
+        return batchSizes.snapshot().count();
+    }
+
+    @Override
+    public double getMeanBatchSize() {
+        return batchSizes.snapshot().mean();
+    }
+
+    @Override
+    public long getMaxBatchSize() {
+        return batchSizes.snapshot().max();
+    }
+
+    @Override
+    public double getMeanSerializationNanos() {
+        return serializationLatency.snapshot().mean();
+    }
+
+    @Override
+    public long getP99SerializationNanos() {
+        return serializationLatency.snapshot().percentile(0.99);
+    }
+
+    @Override
+    public long getMaxSerializationNanos() {
+        return serializationLatency.snapshot().max();
+    }
+
+    @Override
+    public double getMeanFlushNanos() {
+        return flushLatency.snapshot().mean();
+    }
+
+    @Override
+    public long getP99FlushNanos() {
+        return flushLatency.snapshot().percentile(0.99);
+    }
+
+    @Override
+    public long getMaxFlushNanos() {
+        return flushLatency.snapshot().max();
+    }
+
+    /**
+     * <h2>register(String, String)</h2>
+     * <p>Registers the metrics at the platform MBean server, a numeric suffix is added to duplicate names.</p>
+     *
+     * @param type The type of the bean.
+     * @param name The name of the bean.
+     * @return The name of the registered bean or null if the registration failed.
+     */
+    ObjectName register(final String type, final String name) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            try {
+                final String unique = 0 == attempt ? name : name + "-" + attempt;
+                final ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(unique));
+                server.registerMBean(this, objectName);
+                return objectName;
+            } catch (InstanceAlreadyExistsException ignored) {
+                // Try the next suffix
+            } catch (JMException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Long> toMap(final LongAdder[] adders) {
+        final Map<String, Long> map = new LinkedHashMap<>();
+        for (final Level level : LEVELS) {
+            map.put(level.name(), adders[level.ordinal()].sum());
+        }
+        return map;
+    }
+
+    private static LongAdder[] adders() {
+        final LongAdder[] adders = new LongAdder[LEVELS.length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,145 @@
+package de.haevn.utils.logging;
+
+import java.util.Map;
+
+/**
+ * <h1>LogMetricsMXBean</h1>
+ * <p>This interface is the JMX view of {@link LogMetrics}.</p>
+ * <p>The beans are registered by {@link LoggerHandler#registerMBeans()} below the domain
+ * {@value LogMetrics#DOMAIN}, one bean with {@code type=Logger} per logger and one with {@code type=LoggerHandler}.</p>
+ * <p>Latencies are in nanoseconds, percentiles are estimates with at most twice the exact value.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public interface LogMetricsMXBean {
+
+    /**
+     * <h2>getProducedEntries()</h2>
+     * <p>Gets the amount of logged entries by level.</p>
+     *
+     * @return The amounts by level name.
+     */
+    Map<String, Long> getProducedEntries();
+
+    /**
+     * <h2>getFilteredEntries()</h2>
+     * <p>Gets the amount of entries discarded by the level mask by level.</p>
+     *
+     * @return The amounts by level name.
+     */
+    Map<String, Long> getFilteredEntries();
+
+    /**
+     * <h2>getSampledOutEntries()</h2>
+     * <p>Gets the amount of entries discarded by the {@link SamplingPolicy}.</p>
+     *
+     * @return The amount of entries.
+     */
+    long getSampledOutEntries();
+
+    /**
+     * <h2>getOmittedStackTraces()</h2>
+     * <p>Gets the amount of stack traces replaced by a reference by the {@link DeduplicationPolicy}.</p>
+     *
+     * @return The amount of stack traces.
+     */
+    long getOmittedStackTraces();
+
+    /**
+     * <h2>getQueueRejectedEntries()</h2>
+     * <p>Gets the amount of entries discarded because the ring buffer of the asynchronous mode was full.</p>
+     *
+     * @return The amount of entries.
+     */
+    long getQueueRejectedEntries();
+
+    /**
+     * <h2>getQueueDepth()</h2>
+     * <p>Gets the amount of entries waiting to be written.</p>
+     *
+     * @return The queue depth.
+     */
+    int getQueueDepth();
+
+    /**
+     * <h2>getBytesWritten()</h2>
+     * <p>Gets the amount of encoded json bytes, every output receives these bytes once.</p>
+     *
+     * @return The amount of bytes.
+     */
+    long getBytesWritten();
+
+    /**
+     * <h2>getFlushedBatches()</h2>
+     * <p>Gets the amount of written batches.</p>
+     *
+     * @return The amount of batches.
+     */
+    long getFlushedBatches();
+
+    /**
+     * <h2>getMeanBatchSize()</h2>
+     * <p>Gets the mean amount of entries per batch.</p>
+     *
+     * @return The mean batch size.
+     */
+    double getMeanBatchSize();
+
+    /**
+     * <h2>getMaxBatchSize()</h2>
+     * <p>Gets the largest amount of entries in a batch.</p>
+     *
+     * @return The largest batch size.
+     */
+    long getMaxBatchSize();
+
+    /**
+     * <h2>getMeanSerializationNanos()</h2>
+     * <p>Gets the mean time to encode a batch.</p>
+     *
+     * @return The mean latency.
+     */
+    double getMeanSerializationNanos();
+
+    /**
+     * <h2>getP99SerializationNanos()</h2>
+     * <p>Gets the 99th percentile of the time to encode a batch.</p>
+     *
+     * @return The latency.
+     */
+    long getP99SerializationNanos();
+
+    /**
+     * <h2>getMaxSerializationNanos()</h2>
+     * <p>Gets the longest time to encode a batch.</p>
+     *
+     * @return The latency.
+     */
+    long getMaxSerializationNanos();
+
+    /**
+     * <h2>getMeanFlushNanos()</h2>
+     * <p>Gets the mean time to write a batch to all outputs, including serialization.</p>
+     *
+     * @return The mean latency.
+     */
+    double getMeanFlushNanos();
+
+    /**
+     * <h2>getP99FlushNanos()</h2>
+     * <p>Gets the 99th percentile of the time to write a batch to all outputs.</p>
+     *
+     * @return The latency.
+     */
+    long getP99FlushNanos();
+
+    /**
+     * <h2>getMaxFlushNanos()</h2>
+     * <p>Gets the longest time to write a batch to all outputs.</p>
+     *
+     * @return The latency.
+     */
+    long getMaxFlushNanos();
+}
@@ -0,0 +1,165 @@
+package de.haevn.utils.logging;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>LogRingBuffer</h1>
+ * <p>This class is a bounded, lock-free multi-producer single-consumer ring buffer for {@link LogEntry log entries}.</p>
+ * <p>All slots are allocated once, the capacity is rounded up to the next power of two.</p>
+ * <p>Producers claim a sequence with a CAS on the claim cursor, fill the slot and publish the sequence of the slot.
+ * The consumer only reads slots whose published sequence matches the expected one, so no locks are involved.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class LogRingBuffer {
+    private final AtomicReferenceArray<LogEntry> slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int capacity;
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong consumed = new AtomicLong(-1);
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * <h2>LogRingBuffer(int)</h2>
+     * <p>Creates a new ring buffer with at least the given capacity.</p>
+     *
+     * @param requestedCapacity The minimal amount of slots.
+     */
+    LogRingBuffer(final int requestedCapacity) {
+        int size = 1;
+        while (size < Math.max(2, requestedCapacity)) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * <h2>publish({@link LogEntry}, boolean, {@link WaitStrategy})</h2>
+     * <p>Publishes the entry into the next free slot.</p>
+     * <p>If the buffer is full the entry is either discarded or the producer waits with the given strategy.</p>
+     *
+     * @param entry         The entry to publish.
+     * @param blockWhenFull True if the producer should wait for a free slot.
+     * @param strategy      The strategy used while waiting.
+     * @return True iff the entry was published.
+     */
+    boolean publish(final LogEntry entry, final boolean blockWhenFull, final WaitStrategy strategy) {
+        final long start = System.nanoTime();
+        int attempt = 0;
+        long sequence;
+        while (true) {
+            final long current = claimed.get();
+            sequence = current + 1;
+            if (sequence - capacity > consumed.get()) {
+                if (!blockWhenFull) {
+                    rejectedCount.increment();
+                    return false;
+                }
+                strategy.idle(attempt);
+                attempt = Math.min(attempt + 1, WaitStrategy.MAX_ATTEMPT);
+                continue;
+            }
+            if (claimed.compareAndSet(current, sequence)) {
+                break;
+            }
+        }
+
+        final int index = (int) (sequence & mask);
+        slots.lazySet(index, entry);
+        published.set(index, sequence);
+
+        final long elapsed = System.nanoTime() - start;
+        publishedCount.increment();
+        totalNanos.add(elapsed);
+        if (elapsed > maxNanos.get()) {
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * <h2>drain(List, int)</h2>
+     * <p>Moves up to {@code max} published entries into the given batch.</p>
+     * <p>This method must only be called by the single consumer.</p>
+     *
+     * @param batch The batch to fill.
+     * @param max   The maximal amount of entries to drain.
+     * @return The amount of drained entries.
+     */
+    int drain(final List<LogEntry> batch, final int max) {
+        long next = consumed.get() + 1;
+        int count = 0;
+        while (count < max) {
+            final int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            batch.add(slots.get(index));
+            slots.lazySet(index, null);
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            consumed.set(next - 1);
+        }
+        return count;
+    }
+
+    /**
+     * <h2>isEmpty()</h2>
+     * <p>Checks if every claimed slot was consumed.</p>
+     *
+     * @return True iff the buffer is empty.
+     */
+    boolean isEmpty() {
+        return consumed.get() >= claimed.get();
+    }
+
+    /**
+     * <h2>size()</h2>
+     * <p>Gets the amount of claimed but not yet consumed slots.</p>
+     *
+     * @return The current queue depth.
+     */
+    int size() {
+        return (int) Math.max(0, claimed.get() - consumed.get());
+    }
+
+    /**
+     * <h2>getCapacity()</h2>
+     * <p>Gets the amount of slots.</p>
+     *
+     * @return The capacity.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * <h2>getStatistics()</h2>
+     * <p>Creates a snapshot of the producer side statistics.</p>
+     *
+     * @return The statistics.
+     */
+    EnqueueStatistics getStatistics() {
+        return new EnqueueStatistics(publishedCount.sum(), rejectedCount.sum(), totalNanos.sum(), maxNanos.get());
+    }
+}
@@ -0,0 +1,533 @@
+package de.haevn.utils.logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <h1>LogShipper</h1>
+ * <p>This class is a {@link LogSink} sending batches of newline delimited json to a log aggregator over HTTP or TCP.</p>
+ * <p>Encoded entries are appended to the open batch, a background thread sends a batch once it is full or the
+ * linger time of the {@link ShippingPolicy} elapsed. Sending never happens on the logging thread.</p>
+ * <ul>
+ *     <li>HTTP: every batch is a {@code POST} with content type {@code application/x-ndjson}, compressed batches
+ *     are sent with {@code Content-Encoding: gzip}. 2xx is a success, 408, 429 and 5xx are retried,
+ *     every other status rejects the batch.</li>
+ *     <li>TCP: batches are written to a persistent connection, a compressed batch is a gzip member.
+ *     A broken connection is reopened on the next attempt.</li>
+ * </ul>
+ * <p>The buffer is bounded, batches waiting for a retry count towards it. If the buffer is full the logger waits
+ * or the new entries are dropped, depending on the policy. A synchronous logger waits in {@link #awaitCapacity()}
+ * before it takes the lock of its output group, until a batch fits again. A write from the {@link LoggerHandler}
+ * itself never waits, it holds that lock, so entries that still do not fit are dropped.</p>
+ * <p>On close the pending batches are sent once without retry. After the first failed attempt the remaining batches
+ * are dropped, and close returns after at most 10 seconds even if the aggregator does not answer.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LogShipper shipper = LogShipper.tcp("localhost", 5170, ShippingPolicy.defaults().withCompression(false));
+ *     config.addSink(shipper);
+ *     ...
+ *     System.out.println(shipper.getShippedEntries() + " shipped, " + shipper.getDroppedEntries() + " dropped");
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class LogShipper implements LogSink {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final long MAX_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Transport transport;
+    private final ShippingPolicy policy;
+    private final Thread thread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<Batch> ready = new ArrayDeque<>();
+    private final ByteArrayOutputStream open = new ByteArrayOutputStream();
+    private int openEntries;
+    private long openSince;
+    private long buffered;
+    private boolean closed;
+    private volatile boolean abandoned;
+
+    private final LongAdder shipped = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * <h2>LogShipper(Transport, {@link ShippingPolicy}, String)</h2>
+     * <p>Creates a new shipper and starts its background thread.</p>
+     *
+     * @param transport The transport sending a batch.
+     * @param policy    The policy.
+     * @param target    The name of the target, used for the thread name.
+     */
+    LogShipper(final Transport transport, final ShippingPolicy policy, final String target) {
+        this.transport = transport;
+        this.policy = policy;
+        this.thread = Thread.ofPlatform().daemon().name("Logger-shipper-" + target).unstarted(this::run);
+        this.thread.start();
+    }
+
+    /**
+     * <h2>http({@link URI}, {@link ShippingPolicy})</h2>
+     * <p>Creates a shipper posting every batch to the given endpoint.</p>
+     *
+     * @param endpoint The endpoint of the aggregator.
+     * @param policy   The policy.
+     * @return The shipper.
+     */
+    public static LogShipper http(final URI endpoint, final ShippingPolicy policy) {
+        return new LogShipper(new HttpTransport(endpoint), policy, endpoint.getHost() + ":" + endpoint.getPort());
+    }
+
+    /**
+     * <h2>tcp(String, int, {@link ShippingPolicy})</h2>
+     * <p>Creates a shipper writing every batch to a persistent TCP connection.</p>
+     *
+     * @param host   The host of the aggregator.
+     * @param port   The port of the aggregator.
+     * @param policy The policy.
+     * @return The shipper.
+     */
+    public static LogShipper tcp(final String host, final int port, final ShippingPolicy policy) {
+        return new LogShipper(new TcpTransport(host, port), policy, host + ":" + port);
+    }
+
+    /**
+     * <h2>write(byte[], int, int, int)</h2>
+     * <p>Appends the entries to the open batch.</p>
+     * <p>If the buffer is full, the call waits for free space or drops the entries, depending on the policy.
+     * Entries larger than the whole buffer are always dropped, as are entries written by the {@link LoggerHandler}
+     * while the buffer is full.</p>
+     *
+     * @param buffer  The buffer holding the batch.
+     * @param offset  The offset of the batch.
+     * @param length  The length of the batch in bytes.
+     * @param entries The amount of entries in the batch.
+     */
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length, final int entries) {
+        lock.lock();
+        try {
+            if (closed || length > policy.bufferSize()) {
+                dropped.add(entries);
+                return;
+            }
+            while (buffered + length > policy.bufferSize()) {
+                if (!policy.blockWhenFull() || closed || LoggerHandler.isFlushing()) {
+                    dropped.add(entries);
+                    return;
+                }
+                notFull.awaitUninterruptibly();
+            }
+            if (0 == open.size()) {
+                openSince = System.nanoTime();
+            }
+            open.write(buffer, offset, length);
+            openEntries += entries;
+            buffered += length;
+            if (open.size() >= policy.batchSize()) {
+                seal();
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>awaitCapacity()</h2>
+     * <p>Waits until the buffer has room for a full batch if the policy blocks when full, returns immediately once
+     * the shipper is closed.</p>
+     */
+    @Override
+    public void awaitCapacity() {
+        if (!policy.blockWhenFull() || LoggerHandler.isFlushing()) {
+            return;
+        }
+        final long required = Math.min(policy.batchSize(), policy.bufferSize());
+        lock.lock();
+        try {
+            while (!closed && buffered + required > policy.bufferSize()) {
+                notFull.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>close()</h2>
+     * <p>Sends the pending batches once without retry and stops the background thread.</p>
+     * <p>The batches are dropped after the first failed attempt. If the background thread did not finish within
+     * the close timeout, the remaining batches are dropped and the thread is interrupted.</p>
+     *
+     * @throws IOException If the transport cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join(CLOSE_TIMEOUT.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            abandoned = true;
+            thread.interrupt();
+        }
+        transport.close();
+    }
+
+    /**
+     * <h2>getShippedEntries()</h2>
+     * <p>Gets the amount of entries accepted by the aggregator.</p>
+     *
+     * @return The amount of shipped entries.
+     */
+    public long getShippedEntries() {
+        return shipped.sum();
+    }
+
+    /**
+     * <h2>getDroppedEntries()</h2>
+     * <p>Gets the amount of entries dropped because the buffer was full, the retries were exhausted or the
+     * aggregator rejected the batch.</p>
+     *
+     * @return The amount of dropped entries.
+     */
+    public long getDroppedEntries() {
+        return dropped.sum();
+    }
+
+    /**
+     * <h2>getFailedAttempts()</h2>
+     * <p>Gets the amount of failed send attempts, including attempts that were retried successfully.</p>
+     *
+     * @return The amount of failed attempts.
+     */
+    public long getFailedAttempts() {
+        return failures.sum();
+    }
+
+    /**
+     * <h2>getBufferedBytes()</h2>
+     * <p>Gets the amount of bytes waiting to be sent.</p>
+     *
+     * @return The amount of buffered bytes.
+     */
+    public long getBufferedBytes() {
+        lock.lock();
+        try {
+            return buffered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>run()</h2>
+     * <p>The loop of the background thread, it stops once closed and every batch was sent.</p>
+     */
+    private void run() {
+        while (true) {
+            final Batch batch = take();
+            if (null == batch) {
+                return;
+            }
+            if (abandoned) {
+                dropped.add(batch.entries());
+            } else {
+                send(batch);
+            }
+            lock.lock();
+            try {
+                buffered -= batch.data().length;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * <h2>take()</h2>
+     * <p>Waits for the next batch, the open batch is sealed once its linger time elapsed.</p>
+     *
+     * @return The batch or null if the shipper is closed and empty.
+     */
+    private Batch take() {
+        final long linger = TimeUnit.MILLISECONDS.toNanos(Math.max(1, policy.linger()));
+        lock.lock();
+        try {
+            while (true) {
+                if (!ready.isEmpty()) {
+                    return ready.poll();
+                }
+                if (open.size() > 0) {
+                    final long remaining = linger - (System.nanoTime() - openSince);
+                    if (closed || remaining <= 0) {
+                        seal();
+                        continue;
+                    }
+                    notEmpty.awaitNanos(remaining);
+                } else if (closed) {
+                    return null;
+                } else {
+                    notEmpty.awaitNanos(linger);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return ready.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>seal()</h2>
+     * <p>Moves the open batch to the ready batches, the lock must be held.</p>
+     */
+    private void seal() {
+        ready.add(new Batch(open.toByteArray(), openEntries));
+        open.reset();
+        openEntries = 0;
+    }
+
+    /**
+     * <h2>send(Batch)</h2>
+     * <p>Sends the batch, failed attempts are retried with an exponential backoff unless the shipper is closed.</p>
+     * <p>A failed attempt after close abandons the shipper, so the remaining batches are not sent.</p>
+     *
+     * @param batch The batch.
+     */
+    private void send(final Batch batch) {
+        final byte[] body;
+        try {
+            body = policy.compress() ? gzip(batch.data()) : batch.data();
+        } catch (IOException ex) {
+            dropped.add(batch.entries());
+            return;
+        }
+        long backoff = Math.max(1, policy.backoff());
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (transport.send(body, policy.compress())) {
+                    shipped.add(batch.entries());
+                } else {
+                    dropped.add(batch.entries());
+                }
+                return;
+            } catch (IOException ex) {
+                failures.increment();
+                if (isClosed()) {
+                    abandoned = true;
+                    dropped.add(batch.entries());
+                    return;
+                }
+                if (attempt >= policy.maxRetries()) {
+                    dropped.add(batch.entries());
+                    return;
+                }
+                if (!sleep(backoff)) {
+                    dropped.add(batch.entries());
+                    return;
+                }
+                backoff = Math.min(MAX_BACKOFF, backoff * 2);
+            }
+        }
+    }
+
+    /**
+     * <h2>isClosed()</h2>
+     * <p>Checks if the shipper was closed.</p>
+     */
+    private boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>sleep(long)</h2>
+     * <p>Waits before the next retry, closing the shipper ends the wait early.</p>
+     *
+     * @param millis The delay in milliseconds.
+     * @return False if the thread was interrupted.
+     */
+    private boolean sleep(final long millis) {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(millis);
+            while (remaining > 0 && !closed) {
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>gzip(byte[])</h2>
+     * <p>Compresses the data with gzip.</p>
+     */
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (final GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * <h1>Batch</h1>
+     * <p>A sealed batch of complete lines.</p>
+     *
+     * @param data    The uncompressed lines.
+     * @param entries The amount of entries.
+     */
+    private record Batch(byte[] data, int entries) {
+    }
+
+    /**
+     * <h1>Transport</h1>
+     * <p>Sends a single batch to the aggregator.</p>
+     */
+    interface Transport extends Closeable {
+        /**
+         * <h2>send(byte[], boolean)</h2>
+         * <p>Sends the body.</p>
+         *
+         * @param body       The body.
+         * @param compressed True if the body is gzip compressed.
+         * @return True if the batch was accepted, false if it was rejected and must not be retried.
+         * @throws IOException If the attempt failed and may be retried.
+         */
+        boolean send(byte[] body, boolean compressed) throws IOException;
+    }
+
+    /**
+     * <h1>HttpTransport</h1>
+     * <p>Posts every batch with the {@link HttpClient} of the JDK.</p>
+     */
+    private static final class HttpTransport implements Transport {
+        private final URI endpoint;
+        private final HttpClient client = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+
+        private HttpTransport(final URI endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public boolean send(final byte[] body, final boolean compressed) throws IOException {
+            final HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (compressed) {
+                request.header("Content-Encoding", "gzip");
+            }
+            final int status;
+            try {
+                status = client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            if (status >= 200 && status < 300) {
+                return true;
+            }
+            if (408 == status || 429 == status || status >= 500) {
+                throw new IOException("HTTP " + status);
+            }
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // The client is released with the shipper
+        }
+    }
+
+    /**
+     * <h1>TcpTransport</h1>
+     * <p>Writes every batch to a persistent socket, which is reopened after a failure.</p>
+     */
+    private static final class TcpTransport implements Transport {
+        private final String host;
+        private final int port;
+        private Socket socket;
+        private OutputStream output;
+
+        private TcpTransport(final String host, final int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        @Override
+        public boolean send(final byte[] body, final boolean compressed) throws IOException {
+            try {
+                if (null == socket) {
+                    socket = new Socket();
+                    socket.connect(new InetSocketAddress(host, port), (int) CONNECT_TIMEOUT.toMillis());
+                    output = socket.getOutputStream();
+                }
+                output.write(body);
+                output.flush();
+                return true;
+            } catch (IOException ex) {
+                close();
+                throw ex;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (null != socket) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+                socket = null;
+                output = null;
+            }
+        }
+    }
+}
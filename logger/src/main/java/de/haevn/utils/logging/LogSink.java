@@ -0,0 +1,121 @@
+package de.haevn.utils.logging;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <h1>LogSink</h1>
+ * <p>This interface receives the encoded entries of a {@link Logger}.</p>
+ * <p>A batch of entries is serialized once as newline delimited json, every sink added with
+ * {@link LoggerConfig#addSink(LogSink)} receives the same bytes. A batch always contains complete lines.</p>
+ * <p>Sinks are called by a single thread at a time, either the writer thread of an asynchronous logger or the
+ * {@link LoggerHandler}. A sink blocking in {@link #write(byte[], int, int, int)} slows down logging, which is the
+ * intended backpressure if the destination cannot keep up. The handler writes while it holds the lock of an output
+ * group, a sink should not wait for a remote destination there. It calls {@link #awaitCapacity()} on the logging
+ * thread before it takes the lock instead, which is where such a sink applies its backpressure.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LoggerConfig config = new LoggerConfig();
+ *     config.setConsoleOutput(null);
+ *     config.addSink(LogSink.rolling(new File("logs/App.log"), RollingPolicy.bySize(10 * 1024 * 1024)));
+ *     config.addSink(LogShipper.http(URI.create("http://localhost:9880/ingest"), ShippingPolicy.defaults()));
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public interface LogSink extends Closeable {
+
+    /**
+     * <h2>write(byte[], int, int, int)</h2>
+     * <p>Writes a batch of encoded entries, the buffer is reused after the call returns.</p>
+     *
+     * @param buffer  The buffer holding the batch.
+     * @param offset  The offset of the batch.
+     * @param length  The length of the batch in bytes.
+     * @param entries The amount of entries in the batch.
+     * @throws IOException If the batch cannot be written.
+     */
+    void write(byte[] buffer, int offset, int length, int entries) throws IOException;
+
+    /**
+     * <h2>awaitCapacity()</h2>
+     * <p>Waits until the sink can accept another batch, called by a synchronous logger before it takes the lock of
+     * its output group. Writes of the periodic flush and of the shutdown never wait.</p>
+     * <p>The default returns immediately.</p>
+     */
+    default void awaitCapacity() {
+    }
+
+    /**
+     * <h2>flush()</h2>
+     * <p>Flushes the written batches, called once after every batch.</p>
+     *
+     * @throws IOException If the sink cannot be flushed.
+     */
+    default void flush() throws IOException {
+    }
+
+    /**
+     * <h2>close()</h2>
+     * <p>Writes pending batches and releases the resources of the sink, called when the application shuts down.</p>
+     *
+     * @throws IOException If the sink cannot be closed.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * <h2>console()</h2>
+     * <p>Creates a sink writing to {@link System#out}, the stream is not closed.</p>
+     *
+     * @return The sink.
+     */
+    static LogSink console() {
+        return new StreamSink(System.out, false);
+    }
+
+    /**
+     * <h2>of({@link OutputStream})</h2>
+     * <p>Creates a sink writing to the given stream, the stream is not closed.</p>
+     *
+     * @param output The stream.
+     * @return The sink.
+     */
+    static LogSink of(final OutputStream output) {
+        return new StreamSink(output, false);
+    }
+
+    /**
+     * <h2>file({@link File})</h2>
+     * <p>Creates a sink appending to the given file.</p>
+     *
+     * @param file The file.
+     * @return The sink.
+     * @throws FileNotFoundException If the file cannot be opened.
+     */
+    static LogSink file(final File file) throws FileNotFoundException {
+        return new StreamSink(new FileOutputStream(file, true), true);
+    }
+
+    /**
+     * <h2>rolling({@link File}, {@link RollingPolicy})</h2>
+     * <p>Creates a sink appending to the given file, the file is rotated according to the policy.</p>
+     *
+     * @param file   The active file.
+     * @param policy The rolling policy.
+     * @return The sink.
+     * @throws FileNotFoundException If the file cannot be opened.
+     */
+    static LogSink rolling(final File file, final RollingPolicy policy) throws FileNotFoundException {
+        return new StreamSink(new RollingFileOutputStream(file, policy), true);
+    }
+}
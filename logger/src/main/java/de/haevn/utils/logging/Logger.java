@@ -1,17 +1,15 @@
 package de.haevn.utils.logging;
 
 import de.haevn.annotations.Launcher;
-import de.haevn.utils.SerializationUtilsV2;
+import de.haevn.annotations.LauncherRegistry;
 import de.haevn.utils.debug.MethodTools;
 import de.haevn.utils.exceptions.ApplicationException;
 
 import java.io.File;
-import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
-
-import static de.haevn.annotations.AnnotationUtils.findLauncher;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <h1>Logger</h1>
@@ -33,7 +31,19 @@ public final class Logger {
     private static final LoggerHandler HANDLER = LoggerHandler.getInstance();
     private final LoggerConfig config;
     private final List<LogEntry> logEntries = new ArrayList<>();
-    private final Thread shutdownHook = new Thread(this::flush);
+    private final ReentrantLock entriesLock = new ReentrantLock();
+    private final LogMetrics metrics = new LogMetrics(this::getQueueDepth, () -> getEnqueueStatistics().rejected());
+    private final LogEntryEncoder encoder = new LogEntryEncoder(metrics);
+    private final AsyncLogWriter asyncWriter;
+    private final LogHistory history;
+    private final CallSiteThrottle throttle;
+    private final StripedPool<EntryBuilder> pool;
+    private final StackTraceDeduplicator deduplicator;
+    private volatile boolean shutdownHookActive = false;
+    private final EntryBuilder disabled = new EntryBuilder();
+    private final String name;
+    private final String category;
+    private volatile LoggerHierarchy.Settings settings = LoggerHierarchy.Settings.NONE;
 
     /**
      * <h2>Logger()</h2>
@@ -86,6 +96,9 @@ public final class Logger {
      *   <li>The logger will use the class name as the logger name, if the class is null the logger name will be "Logger"</li>
      *   <li>The logger will store the logs under the user home directory in a folder called "haevn"
      *   and a subfolder with the name of the application</li>
+     *   <li>The application name is resolved once per process by the {@link LauncherRegistry}, which the io
+     *   utilities share, so logs and files end up in the same application directory. Without a launcher the name
+     *   is "UNKNOWN"</li>
      *   <li>When the directories do not exist, they will be created</li>
      * </ul>
      *
@@ -94,16 +107,15 @@ public final class Logger {
      */
     public <T> Logger(final Class<?> cl, final LoggerConfig config) {
 
-        String name = (null == cl) ? "Logger" : cl.getSimpleName();
+        this.name = (null == cl) ? "Logger" : cl.getSimpleName();
+        this.category = (null == cl) ? "Logger" : cl.getName();
 
-        final String appName = findLauncher("de.haevn")
-                .stream()
-                .findFirst()
-                .map(Launcher::name).orElse("/UNKNOWN");
+        final String appName = LauncherRegistry.find("de.haevn")
+                .map(Launcher::name).orElse("UNKNOWN");
         String rootPath = System.getProperty("user.home") + File.separator + "haevn" + File.separator + appName;
         final File root = new File(rootPath, "logs");
         this.config = config;
-        if (null == this.config.getFileOutput()) {
+        if (null == this.config.getFileOutput() && null == this.config.getBinaryOutput() && this.config.getSinks().isEmpty()) {
             try {
                 final var logFile = new File(root, File.separatorChar + name + ".log");
                 if (!logFile.exists()) {
@@ -115,8 +127,16 @@ public final class Logger {
                 throw new ApplicationException(ex);
             }
         }
+        this.history = config.getHistorySize() > 0 ? new LogHistory(config.getHistorySize()) : null;
+        this.throttle = null == config.getSamplingPolicy() ? null : new CallSiteThrottle(config.getSamplingPolicy());
+        this.deduplicator = null == config.getDeduplicationPolicy() ? null : new StackTraceDeduplicator(config.getDeduplicationPolicy());
+        this.pool = config.getPoolSize() > 0 && null == history ? new StripedPool<>(config.getPoolSize()) : null;
+        this.asyncWriter = config.isAsync() ? new AsyncLogWriter(name, config, this::write) : null;
         HANDLER.addLogger(this);
-        activateShutdownHook();
+        LoggerHierarchy.getInstance().attach(this);
+        if (config.isUseShutdownHook()) {
+            activateShutdownHook();
+        }
     }
 
     LoggerConfig getConfig() {
@@ -126,12 +146,22 @@ public final class Logger {
     /**
      * <h2>at({@link Level})</h2>
      * <p>Creates a new {@link EntryBuilder} for the given log level</p>
+     * <p>The call site is only captured if the level is enabled and the {@link CallSiteCapture} policy allows it</p>
+     * <p>If the level is disabled a shared no-op builder is returned, nothing is allocated</p>
      *
      * @param level The log level to use
      * @return The EntryBuilder
      */
     public EntryBuilder at(Level level) {
-        return new EntryBuilder(level).forEnclosingMethod(3);
+        if (!isEnabled(level)) {
+            metrics.onFiltered(level);
+            return disabled;
+        }
+        final EntryBuilder builder = builder(level);
+        if (shouldCapture(level)) {
+            builder.forEnclosingMethod(3);
+        }
+        return builder;
     }
 
     /**
@@ -143,7 +173,66 @@ public final class Logger {
      * @return The EntryBuilder
      */
     private EntryBuilder atInternal(Level level) {
-        return new EntryBuilder(level).forEnclosingMethod(4);
+        if (!isEnabled(level)) {
+            metrics.onFiltered(level);
+            return disabled;
+        }
+        final EntryBuilder builder = builder(level);
+        if (shouldCapture(level)) {
+            builder.forEnclosingMethod(4);
+        }
+        return builder;
+    }
+
+    /**
+     * <h2>builder({@link Level})</h2>
+     * <p>Takes a recycled {@link EntryBuilder} from the pool or creates a new one</p>
+     *
+     * @param level The log level to use
+     * @return The EntryBuilder
+     */
+    private EntryBuilder builder(final Level level) {
+        if (null != pool) {
+            final EntryBuilder recycled = pool.acquire();
+            if (null != recycled) {
+                recycled.entry.setLevel(level);
+                return recycled;
+            }
+        }
+        return new EntryBuilder(level);
+    }
+
+    /**
+     * <h2>isEnabled({@link Level})</h2>
+     * <p>Checks if an entry with the given level passes the level mask of the logger</p>
+     * <p>This is the fast path to guard expensive log statements</p>
+     * <h3>Example:</h3>
+     * <pre>
+     * {@code
+     *     if (LOGGER.isEnabled(Level.DEBUG)) {
+     *         LOGGER.atDebug().withObject(expensiveSnapshot()).log();
+     *     }
+     * }
+     * </pre>
+     *
+     * @param level The log level to check
+     * @return True iff the entry would be logged
+     */
+    public boolean isEnabled(final Level level) {
+        final int mask = settings.levelMask();
+        return LoggerHierarchy.Settings.INHERIT == mask ? config.isEnabled(level) : (mask & level.bit()) != 0;
+    }
+
+    /**
+     * <h2>shouldCapture({@link Level})</h2>
+     * <p>Checks if the call site must be captured for an entry with the given level</p>
+     * <p>Disabled levels never reach this check, they get the shared no-op builder</p>
+     *
+     * @param level The log level to check
+     * @return True iff the call site should be captured
+     */
+    private boolean shouldCapture(final Level level) {
+        return config.getCallSiteCapture().captures(level);
     }
 
     /**
@@ -266,7 +355,12 @@ public final class Logger {
      * @return The list of log entries
      */
     public List<LogEntry> getLogEntries(int level) {
-        return logEntries.stream().filter(entry -> (entry.getLevel().value & level) == level).toList();
+        entriesLock.lock();
+        try {
+            return logEntries.stream().filter(entry -> (entry.getLevel().value & level) == level).toList();
+        } finally {
+            entriesLock.unlock();
+        }
     }
 
     /**
@@ -280,54 +374,265 @@ public final class Logger {
         return getLogEntries(level.value);
     }
 
+    /**
+     * <h2>getHistory()</h2>
+     * <p>Gets the indexed {@link LogHistory} of this logger</p>
+     * <p>Unlike {@link #getLogEntries()} the history is not cleared by {@link #flush()}</p>
+     *
+     * @return The history or an empty optional if {@link LoggerConfig#getHistorySize()} is 0
+     */
+    public Optional<LogHistory> getHistory() {
+        return Optional.ofNullable(history);
+    }
+
     /**
      * <h2>clearLogEntries()</h2>
      * <p>Clears the list of log entries</p>
      */
     public void clearLogEntries() {
-        logEntries.clear();
+        entriesLock.lock();
+        try {
+            logEntries.clear();
+        } finally {
+            entriesLock.unlock();
+        }
     }
 
     /**
      * <h2>flush()</h2>
      * <p>Flushes the log entries to the console and the file</p>
-     * <p>The method is synchronized to ensure that the log entries are not modified while flushing</p>
+     * <p>The buffered entries are moved out under a short lock, the output is written without holding it, so
+     * logging threads and virtual threads never wait on a monitor during I/O</p>
      * <p>The entries are printed to the console</p>
      * <p>The entries are also appended as a json entry to the log file</p>
+     * <p>In asynchronous mode the method waits until the writer thread has written all published entries</p>
+     * <p>Pending "messages suppressed" summaries of the {@link SamplingPolicy} are logged before flushing</p>
+     * <p>The entries are written by the {@link LoggerHandler}, which also flushes all loggers periodically</p>
      */
     public void flush() {
-        synchronized (logEntries) {
-
-            logEntries.forEach(entry -> {
-                final PrintStream consoleOutput = config.getConsoleOutput();
-                final PrintStream fileOutput = config.getFileOutput();
-
-                final Consumer<PrintStream> consumer = stream -> {
-                    if (null == stream) {
-                        return;
-                    }
-                    SerializationUtilsV2.json().disablePretty().useSafeModule()
-                            .export(SanitizedLogEntry.getFromLogEntry(entry))
-                            .ifPresent(stream::println);
-                };
-
-                consumer.accept(consoleOutput);
-                consumer.accept(fileOutput);
-            });
+        awaitDrained();
+        HANDLER.flush(this);
+    }
+
+    /**
+     * <h2>awaitDrained()</h2>
+     * <p>Waits until the writer thread has written all published entries, does nothing in synchronous mode</p>
+     */
+    void awaitDrained() {
+        if (null != asyncWriter) {
+            asyncWriter.awaitDrained();
+        }
+    }
+
+    /**
+     * <h2>drainTo(List)</h2>
+     * <p>Moves all buffered entries to the given list, used by the {@link LoggerHandler} to write them</p>
+     *
+     * @param target The list receiving the entries
+     */
+    void drainTo(final List<LogEntry> target) {
+        if (null != throttle) {
+            throttle.drainSuppressed(this::reportSuppressed);
+        }
+        entriesLock.lock();
+        try {
+            target.addAll(logEntries);
             logEntries.clear();
+        } finally {
+            entriesLock.unlock();
+        }
+    }
+
+    /**
+     * <h2>write(List)</h2>
+     * <p>Writes the given entries as json to the console and the file</p>
+     * <p>Every entry is serialized only once by the shared {@link LogEntryEncoder}</p>
+     * <p>This is used by the writer thread in asynchronous mode, synchronous loggers are written by the {@link LoggerHandler}</p>
+     *
+     * @param entries The entries to write
+     */
+    private void write(final List<LogEntry> entries) {
+        final long start = System.nanoTime();
+        if (null != config.getBinaryOutput()) {
+            config.getBinaryOutput().write(entries);
+        }
+        encoder.encode(entries, config.getSinks(), config.getConsoleOutput(), config.getFileOutput());
+        metrics.onFlushed(System.nanoTime() - start);
+        for (final LogEntry entry : entries) {
+            entry.recycle();
+        }
+    }
+
+    /**
+     * <h2>enqueue({@link LogEntry})</h2>
+     * <p>Timestamps and retains the entry and hands it to the writer thread or the list of log entries</p>
+     *
+     * @param entry The entry to enqueue
+     * @return The amount of buffered entries, always 0 in asynchronous mode
+     */
+    private int enqueue(final LogEntry entry) {
+        entry.setTimestamp(System.currentTimeMillis());
+        retain(entry);
+        if (null != asyncWriter) {
+            if (!asyncWriter.publish(entry)) {
+                if (null != deduplicator && null != entry.getThrowable()) {
+                    deduplicator.release(entry);
+                }
+                entry.recycle();
+            }
+            return 0;
+        }
+        entriesLock.lock();
+        try {
+            logEntries.add(entry);
+            return logEntries.size();
+        } finally {
+            entriesLock.unlock();
+        }
+    }
+
+    /**
+     * <h2>reportSuppressed(Object, long)</h2>
+     * <p>Logs a summary of the entries suppressed at a call site which did not log since</p>
+     *
+     * @param callSite   The key of the call site
+     * @param suppressed The amount of suppressed entries
+     */
+    private void reportSuppressed(final Object callSite, final long suppressed) {
+        final Level level = config.getSamplingPolicy().maxLevel();
+        if (isEnabled(level)) {
+            final LogEntry summary = new LogEntry();
+            summary.setLevel(level);
+            summary.setMessage(suppressed + " messages suppressed at " + callSite);
+            enqueue(summary);
+        }
+    }
+
+    /**
+     * <h2>retain({@link LogEntry})</h2>
+     * <p>Adds the entry to the history, if the history is enabled</p>
+     *
+     * @param entry The entry to retain
+     */
+    private void retain(final LogEntry entry) {
+        if (null != history) {
+            history.add(entry);
+        }
+    }
+
+    /**
+     * <h2>isAsync()</h2>
+     * <p>Checks if this logger writes its entries on a background thread</p>
+     *
+     * @return True iff the logger is asynchronous
+     */
+    public boolean isAsync() {
+        return null != asyncWriter;
+    }
+
+    /**
+     * <h2>getName()</h2>
+     * <p>Gets the name of this logger, the simple name of its class</p>
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * <h2>getCategory()</h2>
+     * <p>Gets the fully qualified name of the class of this logger, used to resolve its {@link LoggerHierarchy} rules</p>
+     *
+     * @return The category
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * <h2>applySettings({@link LoggerHierarchy.Settings})</h2>
+     * <p>Caches the settings resolved by the {@link LoggerHierarchy}, undefined settings are read from the config</p>
+     *
+     * @param settings The resolved settings
+     */
+    void applySettings(final LoggerHierarchy.Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * <h2>isAutoFlush()</h2>
+     * <p>Gets the auto flush of the {@link LoggerHierarchy} or of the config</p>
+     *
+     * @return True iff every entry is flushed immediately
+     */
+    private boolean isAutoFlush() {
+        final Boolean autoFlush = settings.autoFlush();
+        return null == autoFlush ? config.isAutoFlush() : autoFlush;
+    }
+
+    /**
+     * <h2>getLogSize()</h2>
+     * <p>Gets the log size of the {@link LoggerHierarchy} or of the config</p>
+     *
+     * @return The amount of buffered entries triggering a flush
+     */
+    private int getLogSize() {
+        final int logSize = settings.logSize();
+        return LoggerHierarchy.Settings.INHERIT == logSize ? config.getLogSize() : logSize;
+    }
+
+    /**
+     * <h2>getQueueDepth()</h2>
+     * <p>Gets the amount of entries waiting to be written</p>
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        if (null != asyncWriter) {
+            return asyncWriter.getQueueDepth();
+        }
+        entriesLock.lock();
+        try {
+            return logEntries.size();
+        } finally {
+            entriesLock.unlock();
         }
     }
 
+    /**
+     * <h2>getMetrics()</h2>
+     * <p>Gets the counters and histograms of this logger</p>
+     * <p>Batches of a synchronous logger are written by the {@link LoggerHandler} and recorded in its metrics</p>
+     *
+     * @return The metrics
+     */
+    public LogMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * <h2>getEnqueueStatistics()</h2>
+     * <p>Gets the producer side statistics of the asynchronous mode, e.g. the enqueue latency</p>
+     * <p>A synchronous logger always reports empty statistics</p>
+     *
+     * @return The statistics
+     */
+    public EnqueueStatistics getEnqueueStatistics() {
+        return null == asyncWriter ? new EnqueueStatistics(0, 0, 0, 0) : asyncWriter.getStatistics();
+    }
+
     /**
      * <h2>activateShutdownHook()</h2>
      * <p>Activates the shutdown hook</p>
      * <p>The shutdown hook will flush the log entries when the application is terminated</p>
+     * <p>All loggers share the single shutdown hook of the {@link LoggerHandler}</p>
      *
      * @return The Logger
      * @hidden This method is preview method and should not be used in production
      */
     public Logger activateShutdownHook() {
-        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        shutdownHookActive = true;
         return this;
     }
 
@@ -339,10 +644,20 @@ public final class Logger {
      * @hidden This method is preview method and should not be used in production
      */
     public Logger deactivateShutdownHook() {
-        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        shutdownHookActive = false;
         return this;
     }
 
+    /**
+     * <h2>isShutdownHookActive()</h2>
+     * <p>Checks if the logger is flushed when the application is terminated</p>
+     *
+     * @return True iff the shutdown hook is active
+     */
+    public boolean isShutdownHookActive() {
+        return shutdownHookActive;
+    }
+
 
     /**
      * <h1>EntryBuilder</h1>
@@ -361,7 +676,16 @@ public final class Logger {
      * @since 1.0
      */
     public final class EntryBuilder {
-        private final LogEntry entry = new LogEntry();
+        private final LogEntry entry;
+
+        /**
+         * <h2>EntryBuilder()</h2>
+         * <p>Creates the no-op EntryBuilder of a logger, it is shared by all disabled levels</p>
+         * <p>Every method returns immediately, so a disabled statement neither allocates nor formats</p>
+         */
+        private EntryBuilder() {
+            this.entry = null;
+        }
 
         /**
          * <h2>EntryBuilder({@link Level})</h2>
@@ -371,7 +695,20 @@ public final class Logger {
          * @param level The log level to use
          */
         EntryBuilder(Level level) {
+            this.entry = new LogEntry();
             entry.setLevel(level);
+            if (null != pool) {
+                entry.setRecycler(this::recycle);
+            }
+        }
+
+        /**
+         * <h2>recycle()</h2>
+         * <p>Clears the entry and returns this builder to the pool of the logger</p>
+         */
+        private void recycle() {
+            entry.reset();
+            pool.release(this);
         }
 
         /**
@@ -381,6 +718,9 @@ public final class Logger {
          * @return The used pipeline
          */
         public EntryBuilder forEnclosingMethod() {
+            if (null == entry) {
+                return this;
+            }
             MethodTools.getMethod(2).ifPresent(entry::setHelper);
             return this;
         }
@@ -404,6 +744,9 @@ public final class Logger {
          * @return The used pipeline
          */
         public EntryBuilder withException(final Throwable throwable) {
+            if (null == entry) {
+                return this;
+            }
             entry.setThrowable(throwable);
             return this;
         }
@@ -415,6 +758,9 @@ public final class Logger {
          * @return The used pipeline
          */
         public EntryBuilder withThreadName() {
+            if (null == entry) {
+                return this;
+            }
             entry.setThreadName(Thread.currentThread().getName());
             return this;
         }
@@ -427,6 +773,9 @@ public final class Logger {
          * @return The used pipeline
          */
         public EntryBuilder withMessage(final String message) {
+            if (null == entry) {
+                return this;
+            }
             entry.setMessage(message);
             return this;
         }
@@ -434,13 +783,100 @@ public final class Logger {
         /**
          * <h2>withMessage(String, {@link Object}...)</h2>
          * <p>Adds a message of the log entry with arguments</p>
+         * <p>The message is formatted when it is written, an entry which is dropped is never formatted</p>
+         * <p>The arguments are held by reference. Strings, boxed primitives and enums are formatted lazily, any other
+         * argument makes {@link #log()} format the message right away, so a mutable argument is logged with its state
+         * at the time of the call. The argument array itself must not be modified afterwards</p>
          *
          * @param message The message to set
          * @param args    The arguments to use
          * @return The used pipeline
          */
         public EntryBuilder withMessage(final String message, final Object... args) {
-            entry.setMessage(String.format(message, args));
+            if (null == entry) {
+                return this;
+            }
+            entry.setMessage(message, args);
+            return this;
+        }
+
+        /**
+         * <h2>with(String, long)</h2>
+         * <p>Adds an integral field to the log entry, the value is not boxed</p>
+         *
+         * @param key   The key of the field
+         * @param value The value of the field
+         * @return The used pipeline
+         */
+        public EntryBuilder with(final String key, final long value) {
+            if (null == entry) {
+                return this;
+            }
+            entry.fields().add(key, value);
+            return this;
+        }
+
+        /**
+         * <h2>with(String, double)</h2>
+         * <p>Adds a floating point field to the log entry, the value is not boxed</p>
+         *
+         * @param key   The key of the field
+         * @param value The value of the field
+         * @return The used pipeline
+         */
+        public EntryBuilder with(final String key, final double value) {
+            if (null == entry) {
+                return this;
+            }
+            entry.fields().add(key, value);
+            return this;
+        }
+
+        /**
+         * <h2>with(String, boolean)</h2>
+         * <p>Adds a boolean field to the log entry, the value is not boxed</p>
+         *
+         * @param key   The key of the field
+         * @param value The value of the field
+         * @return The used pipeline
+         */
+        public EntryBuilder with(final String key, final boolean value) {
+            if (null == entry) {
+                return this;
+            }
+            entry.fields().add(key, value);
+            return this;
+        }
+
+        /**
+         * <h2>with(String, String)</h2>
+         * <p>Adds a string field to the log entry</p>
+         *
+         * @param key   The key of the field
+         * @param value The value of the field
+         * @return The used pipeline
+         */
+        public EntryBuilder with(final String key, final String value) {
+            if (null == entry) {
+                return this;
+            }
+            entry.fields().add(key, value);
+            return this;
+        }
+
+        /**
+         * <h2>with(String, {@link Object})</h2>
+         * <p>Adds a field to the log entry, the value is serialized like the object of the entry</p>
+         *
+         * @param key   The key of the field
+         * @param value The value of the field
+         * @return The used pipeline
+         */
+        public EntryBuilder with(final String key, final Object value) {
+            if (null == entry) {
+                return this;
+            }
+            entry.fields().add(key, value);
             return this;
         }
 
@@ -452,6 +888,9 @@ public final class Logger {
          * @return The used pipeline
          */
         public EntryBuilder withObject(final Object obj) {
+            if (null == entry) {
+                return this;
+            }
             entry.setObj(obj);
             return this;
         }
@@ -459,21 +898,79 @@ public final class Logger {
         /**
          * <h2>log()</h2>
          * <p>Logs the log entry</p>
-         * <p>The log entry is only logged if the log level of the entry is greater or equal to the log level of the logger</p>
+         * <p>The log entry is only logged if its level is enabled in the level mask of the logger</p>
          * <p>The log entry is also added to the list of log entries</p>
          * <p>If the auto flush is enabled or the log size is reached, the log entries are flushed</p>
+         * <p>Otherwise the {@link LoggerHandler} flushes them periodically or once its threshold is reached</p>
+         * <p>In asynchronous mode the entry is published to the writer thread without taking any lock</p>
+         * <p>If a {@link SamplingPolicy} is configured, the entry may be dropped by the limiter of its call site</p>
+         * <p>The {@link LogContext} of the current thread is attached to the entry</p>
+         * <p>A message with mutable arguments is formatted now, see {@link #withMessage(String, Object...)}</p>
+         * <p>If a {@link DeduplicationPolicy} is configured, a recently written stack trace is only referenced</p>
+         * <p>If {@link LoggerConfig#setPoolSize(int) pooling} is enabled, the builder must not be used afterwards</p>
+         * <p>No monitor is held while logging, a builder belongs to the thread which created it</p>
          */
-        public synchronized void log() {
-            synchronized (logEntries) {
-                if (config.getLevel().ordinal() >= entry.getLevel().ordinal()) {
-                    entry.setTimestamp(System.currentTimeMillis());
-                    logEntries.add(entry);
-                }
+        public void log() {
+            if (null == entry) {
+                return;
+            }
+            if (!isEnabled(entry.getLevel())) {
+                metrics.onFiltered(entry.getLevel());
+                entry.recycle();
+                return;
+            }
+            if (!admit()) {
+                metrics.onSampledOut();
+                entry.recycle();
+                return;
+            }
+            metrics.onProduced(entry.getLevel());
+            entry.freezeArguments();
+            if (null != deduplicator && null != entry.getThrowable()
+                    && deduplicator.apply(entry, System.currentTimeMillis())) {
+                metrics.onTraceOmitted();
+            }
+            entry.setContext(LogContext.current());
+            final int buffered = enqueue(entry);
+            if (null != asyncWriter) {
+                return;
+            }
+            if (isAutoFlush() || getLogSize() <= buffered) {
+                flush();
+            } else {
+                HANDLER.onBuffered(buffered);
+            }
+        }
 
-                if (config.isAutoFlush() || config.getLogSize() <= logEntries.size()) {
-                    flush();
-                }
+        /**
+         * <h2>admit()</h2>
+         * <p>Applies the {@link SamplingPolicy} of the call site to the entry, an entry without call site and message
+         * is never throttled</p>
+         * <p>If entries of the call site were suppressed since the last summary, a summary entry is logged first</p>
+         *
+         * @return True iff the entry passes the policy
+         */
+        private boolean admit() {
+            if (null == throttle || !throttle.applies(entry.getLevel())) {
+                return true;
+            }
+            final Object callSite = CallSiteThrottle.callSite(entry, entry.getTemplate());
+            if (null == callSite) {
+                return true;
+            }
+            final long suppressed = throttle.admit(callSite);
+            if (CallSiteThrottle.REJECTED == suppressed) {
+                return false;
+            }
+            if (suppressed > 0) {
+                final LogEntry summary = new LogEntry();
+                summary.setLevel(entry.getLevel());
+                summary.setHelper(entry.getHelper());
+                summary.setThreadName(entry.getThreadName());
+                summary.setMessage(suppressed + " messages suppressed");
+                enqueue(summary);
             }
+            return true;
         }
 
         /**
@@ -3,7 +3,12 @@ package de.haevn.utils.logging;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * <h1>LoggerConfig</h1>
@@ -18,10 +23,24 @@ public final class LoggerConfig {
     private File logFile;
     private PrintStream fileOutput;
     private PrintStream consoleOutput = System.out;
-    private Level level = Level.ALL;
+    private volatile Level level = Level.ALL;
+    private volatile int levelMask = Level.maskUpTo(Level.ALL);
     private boolean autoFlush = true;
     private boolean useShutdownHook = true;
     private int logSize = 100;
+    private boolean async = false;
+    private int asyncBufferSize = 8192;
+    private WaitStrategy waitStrategy = WaitStrategy.SLEEPING;
+    private boolean blockWhenFull = true;
+    private CallSiteCapture callSiteCapture = CallSiteCapture.ALWAYS;
+    private RollingPolicy rollingPolicy;
+    private int historySize = 0;
+    private SamplingPolicy samplingPolicy;
+    private BinaryLogWriter binaryOutput;
+    private int poolSize = 0;
+    private DeduplicationPolicy deduplicationPolicy;
+    private final List<LogSink> sinks = new CopyOnWriteArrayList<>();
+    private final List<LogSink> sinksView = Collections.unmodifiableList(sinks);
 
 
     /**
@@ -68,11 +87,58 @@ public final class LoggerConfig {
     /**
      * <h2>setLevel({@link Level})</h2>
      * <p>Sets the level of the logger.</p>
+     * <p>The level mask is updated as well, the change is visible to running loggers immediately.</p>
      *
      * @param level The level.
      */
     public void setLevel(final Level level) {
         this.level = level;
+        this.levelMask = Level.maskUpTo(level);
+    }
+
+    /**
+     * <h2>getLevelMask()</h2>
+     * <p>Gets the mask of enabled levels, a level is enabled iff its {@link Level#bit() bit} is set.</p>
+     *
+     * @return The level mask.
+     */
+    public int getLevelMask() {
+        return levelMask;
+    }
+
+    /**
+     * <h2>setLevelMask(int)</h2>
+     * <p>Sets the mask of enabled levels, the change is visible to running loggers immediately.</p>
+     *
+     * @param levelMask The level mask.
+     */
+    public void setLevelMask(final int levelMask) {
+        this.levelMask = levelMask;
+    }
+
+    /**
+     * <h2>setEnabledLevels({@link Level}...)</h2>
+     * <p>Enables exactly the given levels.</p>
+     *
+     * @param levels The enabled levels.
+     */
+    public void setEnabledLevels(final Level... levels) {
+        int mask = 0;
+        for (final Level enabled : levels) {
+            mask |= enabled.bit();
+        }
+        this.levelMask = mask;
+    }
+
+    /**
+     * <h2>isEnabled({@link Level})</h2>
+     * <p>Checks if the given level is enabled, this is a single volatile read and a bit test.</p>
+     *
+     * @param level The level.
+     * @return True iff entries with the level are logged.
+     */
+    public boolean isEnabled(final Level level) {
+        return (levelMask & level.bit()) != 0;
     }
 
     /**
@@ -135,6 +201,255 @@ public final class LoggerConfig {
         this.logSize = logSize;
     }
 
+    /**
+     * <h2>isAsync()</h2>
+     * <p>Checks if the logger writes entries on a background thread.</p>
+     *
+     * @return True iff the logger is asynchronous.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * <h2>setAsync(boolean)</h2>
+     * <p>Sets the logger to write entries on a background thread.</p>
+     * <p>In asynchronous mode {@link #isAutoFlush()} and {@link #getLogSize()} are ignored,
+     * entries are written in batches by the writer thread.</p>
+     * <p>This setting must be applied before the logger is created.</p>
+     *
+     * @param async The async mode.
+     */
+    public void setAsync(final boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * <h2>getAsyncBufferSize()</h2>
+     * <p>Gets the capacity of the ring buffer used in asynchronous mode.</p>
+     *
+     * @return The buffer size.
+     */
+    public int getAsyncBufferSize() {
+        return asyncBufferSize;
+    }
+
+    /**
+     * <h2>setAsyncBufferSize(int)</h2>
+     * <p>Sets the capacity of the ring buffer used in asynchronous mode.</p>
+     * <p>The value is rounded up to the next power of two.</p>
+     *
+     * @param asyncBufferSize The buffer size.
+     */
+    public void setAsyncBufferSize(final int asyncBufferSize) {
+        this.asyncBufferSize = asyncBufferSize;
+    }
+
+    /**
+     * <h2>getWaitStrategy()</h2>
+     * <p>Gets the {@link WaitStrategy} used in asynchronous mode.</p>
+     *
+     * @return The wait strategy.
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * <h2>setWaitStrategy({@link WaitStrategy})</h2>
+     * <p>Sets the {@link WaitStrategy} used in asynchronous mode.</p>
+     *
+     * @param waitStrategy The wait strategy.
+     */
+    public void setWaitStrategy(final WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * <h2>isBlockWhenFull()</h2>
+     * <p>Checks if producers wait for a free slot when the ring buffer is full.</p>
+     *
+     * @return True iff producers wait, false if entries are discarded.
+     */
+    public boolean isBlockWhenFull() {
+        return blockWhenFull;
+    }
+
+    /**
+     * <h2>setBlockWhenFull(boolean)</h2>
+     * <p>Sets if producers wait for a free slot when the ring buffer is full.</p>
+     *
+     * @param blockWhenFull True to wait, false to discard entries.
+     */
+    public void setBlockWhenFull(final boolean blockWhenFull) {
+        this.blockWhenFull = blockWhenFull;
+    }
+
+    /**
+     * <h2>getCallSiteCapture()</h2>
+     * <p>Gets the {@link CallSiteCapture} policy of the logger.</p>
+     *
+     * @return The call site capture policy.
+     */
+    public CallSiteCapture getCallSiteCapture() {
+        return callSiteCapture;
+    }
+
+    /**
+     * <h2>setCallSiteCapture({@link CallSiteCapture})</h2>
+     * <p>Sets for which entries the calling method is captured.</p>
+     *
+     * @param callSiteCapture The call site capture policy.
+     */
+    public void setCallSiteCapture(final CallSiteCapture callSiteCapture) {
+        this.callSiteCapture = callSiteCapture;
+    }
+
+    /**
+     * <h2>getHistorySize()</h2>
+     * <p>Gets the amount of entries retained in the {@link LogHistory}.</p>
+     *
+     * @return The history size, 0 if the history is disabled.
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * <h2>setHistorySize(int)</h2>
+     * <p>Sets the amount of entries retained in the indexed {@link LogHistory}, 0 disables the history.</p>
+     * <p>This setting must be applied before the logger is created.</p>
+     *
+     * @param historySize The history size.
+     */
+    public void setHistorySize(final int historySize) {
+        this.historySize = historySize;
+    }
+
+    /**
+     * <h2>getSamplingPolicy()</h2>
+     * <p>Gets the policy used to sample and rate limit entries per call site.</p>
+     *
+     * @return The sampling policy or null if every entry is logged.
+     */
+    public SamplingPolicy getSamplingPolicy() {
+        return samplingPolicy;
+    }
+
+    /**
+     * <h2>setSamplingPolicy({@link SamplingPolicy})</h2>
+     * <p>Sets the policy used to sample and rate limit entries per call site, null disables throttling.</p>
+     * <p>This setting must be applied before the logger is created.</p>
+     *
+     * @param samplingPolicy The sampling policy.
+     */
+    public void setSamplingPolicy(final SamplingPolicy samplingPolicy) {
+        this.samplingPolicy = samplingPolicy;
+    }
+
+    /**
+     * <h2>getPoolSize()</h2>
+     * <p>Gets the amount of log entries kept for reuse.</p>
+     *
+     * @return The pool size, 0 if pooling is disabled.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * <h2>setPoolSize(int)</h2>
+     * <p>Sets the amount of log entries kept for reuse, 0 disables pooling.</p>
+     * <p>With pooling, an entry and its {@link Logger.EntryBuilder} are recycled once the entry was written, so a
+     * builder must not be used after {@link Logger.EntryBuilder#log()} and entries returned by
+     * {@link Logger#getLogEntries()} are only valid until the next flush. A good size is the amount of entries
+     * written per flush, e.g. the {@link #getAsyncBufferSize() async buffer size}.</p>
+     * <p>Pooling is ignored if the {@link LogHistory} is enabled, because the history retains the entries.</p>
+     * <p>This setting must be applied before the logger is created.</p>
+     *
+     * @param poolSize The pool size.
+     */
+    public void setPoolSize(final int poolSize) {
+        this.poolSize = Math.max(0, poolSize);
+    }
+
+    /**
+     * <h2>getDeduplicationPolicy()</h2>
+     * <p>Gets the policy used to shorten repeated stack traces.</p>
+     *
+     * @return The deduplication policy or null if every stack trace is written in full.
+     */
+    public DeduplicationPolicy getDeduplicationPolicy() {
+        return deduplicationPolicy;
+    }
+
+    /**
+     * <h2>setDeduplicationPolicy({@link DeduplicationPolicy})</h2>
+     * <p>Sets the policy used to shorten repeated stack traces, null writes every stack trace in full.</p>
+     * <p>This setting must be applied before the logger is created.</p>
+     *
+     * @param deduplicationPolicy The deduplication policy.
+     */
+    public void setDeduplicationPolicy(final DeduplicationPolicy deduplicationPolicy) {
+        this.deduplicationPolicy = deduplicationPolicy;
+    }
+
+    /**
+     * <h2>getSinks()</h2>
+     * <p>Gets the {@link LogSink sinks} receiving the encoded entries in addition to console and file.</p>
+     *
+     * @return The unmodifiable list of sinks.
+     */
+    public List<LogSink> getSinks() {
+        return sinksView;
+    }
+
+    /**
+     * <h2>addSink({@link LogSink})</h2>
+     * <p>Adds a sink receiving the encoded entries.</p>
+     * <p>If a sink is added before the logger is created and no file output is set, the logger does not create its
+     * default json log file. Sinks are closed when the application shuts down.</p>
+     *
+     * @param sink The sink.
+     */
+    public void addSink(final LogSink sink) {
+        if (null != sink) {
+            sinks.add(sink);
+        }
+    }
+
+    /**
+     * <h2>removeSink({@link LogSink})</h2>
+     * <p>Removes a sink, the sink is not closed.</p>
+     *
+     * @param sink The sink.
+     */
+    public void removeSink(final LogSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * <h2>getBinaryOutput()</h2>
+     * <p>Gets the writer of the binary, memory-mapped log segments.</p>
+     *
+     * @return The writer or null if no binary log is written.
+     */
+    public BinaryLogWriter getBinaryOutput() {
+        return binaryOutput;
+    }
+
+    /**
+     * <h2>setBinaryOutput({@link File})</h2>
+     * <p>Writes the entries additionally as binary records into memory-mapped segments next to the given file.</p>
+     * <p>If no file output is set, the logger does not create its default json log file.</p>
+     *
+     * @param base The base file of the segments.
+     * @throws IOException If the first segment cannot be created.
+     */
+    public void setBinaryOutput(final File base) throws IOException {
+        this.binaryOutput = new BinaryLogWriter(base);
+    }
+
     /**
      * <h2>setOutput(String)</h2>
      * <p>Sets the output stream to a file.</p>
@@ -148,14 +463,39 @@ public final class LoggerConfig {
     /**
      * <h2>setOutput({@link File})</h2>
      * <p>Sets the output stream to a file.</p>
+     * <p>If a {@link RollingPolicy} is set, the file is rotated according to it.</p>
      *
      * @param logFile The output stream.
      */
     public void setOutput(final File logFile) throws FileNotFoundException {
-        this.fileOutput = new PrintStream(new FileOutputStream(logFile, true));
+        final OutputStream stream = null == rollingPolicy
+                ? new FileOutputStream(logFile, true)
+                : new RollingFileOutputStream(logFile, rollingPolicy);
+        this.fileOutput = new PrintStream(stream);
         this.logFile = logFile;
     }
 
+    /**
+     * <h2>getRollingPolicy()</h2>
+     * <p>Gets the {@link RollingPolicy} of the log file.</p>
+     *
+     * @return The rolling policy or null if the file is never rotated.
+     */
+    public RollingPolicy getRollingPolicy() {
+        return rollingPolicy;
+    }
+
+    /**
+     * <h2>setRollingPolicy({@link RollingPolicy})</h2>
+     * <p>Sets the {@link RollingPolicy} of the log file, null disables rotation.</p>
+     * <p>The policy must be set before the output file is set, otherwise it applies to the next file.</p>
+     *
+     * @param rollingPolicy The rolling policy.
+     */
+    public void setRollingPolicy(final RollingPolicy rollingPolicy) {
+        this.rollingPolicy = rollingPolicy;
+    }
+
     /**
      * <h2>getLogFile()</h2>
      * <p>Gets the log file.</p>
@@ -1,19 +1,54 @@
 package de.haevn.utils.logging;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <h1>LoggerHandler</h1>
  * <p>This class handles all loggers.</p>
+ * <p>A single daemon thread flushes all registered loggers periodically, or earlier once a logger buffered
+ * {@link #getFlushThreshold()} entries. Entries of loggers sharing the same console and file stream are encoded
+ * into one buffer and written with one write call per stream. Every such output group has a lock of its own, so
+ * loggers writing to different outputs never wait for each other.</p>
+ * <p>A single shutdown hook flushes every logger with an active shutdown hook when the application terminates,
+ * together with the scheduler this makes {@link LoggerConfig#setAutoFlush(boolean) autoFlush=false} safe.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     LoggerHandler.getInstance().setFlushInterval(500);
+ *     LoggerHandler.getInstance().setFlushThreshold(1000);
+ * }
+ * </pre>
  *
  * @author haevn
- * @version 1.0
+ * @version 1.1
  * @since 1.0
  */
-final class LoggerHandler {
+public final class LoggerHandler {
     private static final LoggerHandler INSTANCE = new LoggerHandler();
-    private final List<Logger> loggers = new ArrayList<>();
+    private static final ThreadLocal<Boolean> FLUSHING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final List<Logger> loggers = new CopyOnWriteArrayList<>();
+    private final LogMetrics metrics = new LogMetrics(this::getQueueDepth, () -> 0);
+    private final Map<Sinks, Group> groups = new ConcurrentHashMap<>();
+    private final Map<Logger, Group> assignments = new ConcurrentHashMap<>();
+    private final Thread scheduler = Thread.ofPlatform().daemon().name("Logger-flusher").unstarted(this::run);
+    private volatile long flushInterval = 1000;
+    private volatile int flushThreshold = 64;
+    private volatile boolean mbeans = false;
 
     /**
      * <h2>getInstance()</h2>
@@ -21,15 +56,18 @@ final class LoggerHandler {
      *
      * @return The instance.
      */
-    public static synchronized LoggerHandler getInstance() {
+    public static LoggerHandler getInstance() {
         return INSTANCE;
     }
 
     /**
      * <h2>LoggerHandler()</h2>
      * <p>This is the private constructor of the logger handler.</p>
+     * <p>It starts the flush scheduler and registers the shutdown hook.</p>
      */
     private LoggerHandler() {
+        scheduler.start();
+        Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().name("Logger-shutdown").unstarted(this::shutdown));
     }
 
     /**
@@ -40,6 +78,9 @@ final class LoggerHandler {
      */
     public void addLogger(final Logger logger) {
         loggers.add(logger);
+        if (mbeans) {
+            logger.getMetrics().register("Logger", logger.getName());
+        }
     }
 
     /**
@@ -47,6 +88,297 @@ final class LoggerHandler {
      * <p>This method flushes all loggers.</p>
      */
     public void flushAll() {
-        loggers.forEach(Logger::flush);
+        flush(loggers);
+    }
+
+    /**
+     * <h2>getMetrics()</h2>
+     * <p>Gets the metrics of the batches written for synchronous loggers.</p>
+     *
+     * @return The metrics.
+     */
+    public LogMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * <h2>registerMBeans()</h2>
+     * <p>Registers the {@link LogMetricsMXBean metrics} of the handler and of every current and future logger at the
+     * platform MBean server. Calling this method again has no effect.</p>
+     */
+    public synchronized void registerMBeans() {
+        if (mbeans) {
+            return;
+        }
+        mbeans = true;
+        metrics.register("LoggerHandler", "LoggerHandler");
+        for (final Logger logger : loggers) {
+            logger.getMetrics().register("Logger", logger.getName());
+        }
+    }
+
+    /**
+     * <h2>getLoggers()</h2>
+     * <p>Gets the registered loggers.</p>
+     *
+     * @return The loggers.
+     */
+    List<Logger> getLoggers() {
+        return loggers;
+    }
+
+    /**
+     * <h2>getQueueDepth()</h2>
+     * <p>Gets the amount of entries buffered by all synchronous loggers.</p>
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (final Logger logger : loggers) {
+            if (!logger.isAsync()) {
+                depth += logger.getQueueDepth();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * <h2>getFlushInterval()</h2>
+     * <p>Gets the interval of the flush scheduler.</p>
+     *
+     * @return The interval in milliseconds.
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * <h2>setFlushInterval(long)</h2>
+     * <p>Sets the interval of the flush scheduler.</p>
+     *
+     * @param flushInterval The interval in milliseconds.
+     */
+    public void setFlushInterval(final long flushInterval) {
+        this.flushInterval = Math.max(1, flushInterval);
+        LockSupport.unpark(scheduler);
+    }
+
+    /**
+     * <h2>getFlushThreshold()</h2>
+     * <p>Gets the amount of buffered entries of a logger that triggers an early flush.</p>
+     *
+     * @return The threshold.
+     */
+    public int getFlushThreshold() {
+        return flushThreshold;
+    }
+
+    /**
+     * <h2>setFlushThreshold(int)</h2>
+     * <p>Sets the amount of buffered entries of a logger that triggers an early flush.</p>
+     *
+     * @param flushThreshold The threshold.
+     */
+    public void setFlushThreshold(final int flushThreshold) {
+        this.flushThreshold = Math.max(1, flushThreshold);
+    }
+
+    /**
+     * <h2>onBuffered(int)</h2>
+     * <p>Wakes the scheduler if a logger buffered at least {@link #getFlushThreshold()} entries.</p>
+     *
+     * @param buffered The amount of entries buffered by the logger.
+     */
+    void onBuffered(final int buffered) {
+        if (buffered >= flushThreshold) {
+            LockSupport.unpark(scheduler);
+        }
+    }
+
+    /**
+     * <h2>flush({@link Logger})</h2>
+     * <p>Writes the buffered entries of the given logger.</p>
+     * <p>Only the lock of the logger's output group is taken, this is the path of every auto-flushed log call.</p>
+     * <p>Before the lock is taken, the calling thread waits for the {@link LogSink#awaitCapacity() capacity} of the
+     * sinks, so a full sink slows down the logging thread without stalling the other loggers of the group.</p>
+     *
+     * @param logger The logger to flush.
+     */
+    void flush(final Logger logger) {
+        final Group group = groupOf(logger);
+        for (final LogSink sink : group.sinks.sinks()) {
+            sink.awaitCapacity();
+        }
+        group.lock.lock();
+        try {
+            logger.drainTo(group.pending);
+            group.write();
+        } finally {
+            group.lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>flush(Collection)</h2>
+     * <p>Writes the buffered entries of the given loggers.</p>
+     * <p>The entries are grouped by their console and file stream, every group is encoded once and written with
+     * a single call per stream. The writes of a group happen under its own {@link ReentrantLock}, so entries keep
+     * their order and a virtual thread waiting for the lock or blocked in the I/O does not pin its carrier thread.</p>
+     * <p>Pooled entries are recycled once they are written.</p>
+     *
+     * @param targets The loggers to flush.
+     */
+    void flush(final Collection<Logger> targets) {
+        final Map<Group, List<Logger>> batches = new LinkedHashMap<>();
+        for (final Logger logger : targets) {
+            batches.computeIfAbsent(groupOf(logger), key -> new ArrayList<>()).add(logger);
+        }
+        batches.forEach((group, members) -> {
+            group.lock.lock();
+            try {
+                for (final Logger logger : members) {
+                    logger.drainTo(group.pending);
+                }
+                group.write();
+            } finally {
+                group.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * <h2>isFlushing()</h2>
+     * <p>Checks if the current thread writes an output group and therefore holds its lock.</p>
+     * <p>{@link LogSink Sinks} use this to avoid waiting while every logger of the group waits for them.</p>
+     *
+     * @return True iff the current thread flushes loggers.
+     */
+    static boolean isFlushing() {
+        return FLUSHING.get();
+    }
+
+    /**
+     * <h2>groupOf({@link Logger})</h2>
+     * <p>Gets the output group of the logger.</p>
+     * <p>The group is remembered per logger and only looked up again after the outputs of the logger changed.</p>
+     *
+     * @param logger The logger.
+     * @return The group.
+     */
+    private Group groupOf(final Logger logger) {
+        final LoggerConfig config = logger.getConfig();
+        final Group assigned = assignments.get(logger);
+        if (null != assigned && assigned.sinks.matches(config)) {
+            return assigned;
+        }
+        final Sinks sinks = new Sinks(config.getConsoleOutput(), config.getFileOutput(), config.getBinaryOutput(), List.copyOf(config.getSinks()));
+        final Group group = groups.computeIfAbsent(sinks, Group::new);
+        assignments.put(logger, group);
+        return group;
+    }
+
+    /**
+     * <h2>run()</h2>
+     * <p>The loop of the flush scheduler.</p>
+     */
+    private void run() {
+        while (true) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushInterval));
+            try {
+                flushAll();
+            } catch (final RuntimeException ignored) {
+                // The scheduler must survive a broken logger
+            }
+        }
+    }
+
+    /**
+     * <h2>shutdown()</h2>
+     * <p>Flushes all loggers with an active shutdown hook, asynchronous loggers are drained first.</p>
+     * <p>Binary segments and {@link LogSink sinks} are closed afterwards, so segments are trimmed and pending
+     * batches of a {@link LogShipper} are sent.</p>
+     */
+    private void shutdown() {
+        final List<Logger> targets = new ArrayList<>();
+        for (final Logger logger : loggers) {
+            if (logger.isShutdownHookActive()) {
+                logger.awaitDrained();
+                targets.add(logger);
+            }
+        }
+        flush(targets);
+        final Set<Closeable> closeables = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Logger logger : targets) {
+            if (null != logger.getConfig().getBinaryOutput()) {
+                closeables.add(logger.getConfig().getBinaryOutput());
+            }
+            closeables.addAll(logger.getConfig().getSinks());
+        }
+        for (final Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (final IOException | RuntimeException ignored) {
+            }
+        }
+    }
+
+    /**
+     * <h1>Sinks</h1>
+     * <p>The streams and sinks of a logger, loggers with identical streams and sinks share one write.</p>
+     */
+    private record Sinks(PrintStream console, PrintStream file, BinaryLogWriter binary, List<LogSink> sinks) {
+        /**
+         * <h2>matches({@link LoggerConfig})</h2>
+         * <p>Checks if the configuration still writes to these streams and sinks.</p>
+         *
+         * @param config The configuration.
+         * @return True iff the outputs are identical.
+         */
+        boolean matches(final LoggerConfig config) {
+            return console == config.getConsoleOutput() && file == config.getFileOutput()
+                    && binary == config.getBinaryOutput() && sinks.equals(config.getSinks());
+        }
+    }
+
+    /**
+     * <h1>Group</h1>
+     * <p>The loggers writing to the same {@link Sinks}, with the lock, encoder and entry list they share.</p>
+     * <p>All members are only accessed while the lock is held.</p>
+     */
+    private final class Group {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LogEntryEncoder encoder = new LogEntryEncoder(metrics);
+        private final List<LogEntry> pending = new ArrayList<>();
+        private final Sinks sinks;
+
+        private Group(final Sinks sinks) {
+            this.sinks = sinks;
+        }
+
+        /**
+         * <h2>write()</h2>
+         * <p>Writes and recycles the pending entries.</p>
+         */
+        void write() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            FLUSHING.set(Boolean.TRUE);
+            try {
+                final long start = System.nanoTime();
+                if (null != sinks.binary()) {
+                    sinks.binary().write(pending);
+                }
+                encoder.encode(pending, sinks.sinks(), sinks.console(), sinks.file());
+                metrics.onFlushed(System.nanoTime() - start);
+                for (final LogEntry entry : pending) {
+                    entry.recycle();
+                }
+            } finally {
+                FLUSHING.set(Boolean.FALSE);
+                pending.clear();
+            }
+        }
     }
 }
@@ -0,0 +1,363 @@
+package de.haevn.utils.logging;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * <h1>LoggerHierarchy</h1>
+ * <p>This class overrides the level, auto flush and log size of loggers by class or package name.</p>
+ * <p>A rule applies to the logger of a class if its name is the fully qualified class name or a package or outer
+ * class of it, the empty name is the root. Every setting is inherited separately from the most specific rule
+ * defining it, settings without any rule are taken from the {@link LoggerConfig} of the logger.</p>
+ * <p>The settings are resolved when a logger is created and whenever the rules change, each logger caches its
+ * resolved settings, so a log call does not look up any rule.</p>
+ * <p>Rules can be read from properties, unknown levels and malformed numbers are ignored:</p>
+ * <pre>
+ * {@code
+ *     logger.level=WARNING
+ *     logger.de.haevn.utils.io.level=DEBUG
+ *     logger.de.haevn.utils.io.FileWatcher.levels=ERROR,FATAL
+ *     logger.de.haevn.utils.network.autoFlush=true
+ *     logger.de.haevn.utils.network.logSize=500
+ * }
+ * </pre>
+ * <p>{@code level} enables every level up to the given one like {@link LoggerConfig#setLevel(Level)},
+ * {@code levels} enables exactly the given levels like {@link LoggerConfig#setEnabledLevels(Level...)}.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     LoggerHierarchy.getInstance().setLevel("de.haevn.utils.io", Level.DEBUG);
+ *     LoggerHierarchy.getInstance().configure(properties);
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class LoggerHierarchy {
+    /**
+     * The prefix of the property keys read by {@link #configure(Map)}.
+     */
+    public static final String PREFIX = "logger";
+
+    /**
+     * The name of the root rule.
+     */
+    public static final String ROOT = "";
+
+    private static final LoggerHierarchy INSTANCE = new LoggerHierarchy();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<String, Settings> rules = Map.of();
+
+    /**
+     * <h2>getInstance()</h2>
+     * <p>Gets the instance of the logger hierarchy.</p>
+     *
+     * @return The instance.
+     */
+    public static LoggerHierarchy getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * <h2>LoggerHierarchy()</h2>
+     * <p>This is the private constructor of the logger hierarchy.</p>
+     */
+    private LoggerHierarchy() {
+    }
+
+    /**
+     * <h2>setLevel(String, {@link Level})</h2>
+     * <p>Enables every level up to the given level for the loggers below the name.</p>
+     *
+     * @param name  The class or package name, {@link #ROOT} for all loggers.
+     * @param level The level.
+     */
+    public void setLevel(final String name, final Level level) {
+        update(name, rule -> rule.withLevelMask(Level.maskUpTo(level)));
+    }
+
+    /**
+     * <h2>setEnabledLevels(String, {@link Level}...)</h2>
+     * <p>Enables exactly the given levels for the loggers below the name.</p>
+     *
+     * @param name   The class or package name, {@link #ROOT} for all loggers.
+     * @param levels The enabled levels.
+     */
+    public void setEnabledLevels(final String name, final Level... levels) {
+        int mask = 0;
+        for (final Level enabled : levels) {
+            mask |= enabled.bit();
+        }
+        final int levelMask = mask;
+        update(name, rule -> rule.withLevelMask(levelMask));
+    }
+
+    /**
+     * <h2>setAutoFlush(String, boolean)</h2>
+     * <p>Sets the auto flush for the loggers below the name.</p>
+     *
+     * @param name      The class or package name, {@link #ROOT} for all loggers.
+     * @param autoFlush The auto flush.
+     */
+    public void setAutoFlush(final String name, final boolean autoFlush) {
+        update(name, rule -> rule.withAutoFlush(autoFlush));
+    }
+
+    /**
+     * <h2>setLogSize(String, int)</h2>
+     * <p>Sets the log size for the loggers below the name.</p>
+     *
+     * @param name    The class or package name, {@link #ROOT} for all loggers.
+     * @param logSize The log size.
+     */
+    public void setLogSize(final String name, final int logSize) {
+        update(name, rule -> rule.withLogSize(logSize));
+    }
+
+    /**
+     * <h2>remove(String)</h2>
+     * <p>Removes the rule of the name, the loggers below inherit from the next rule again.</p>
+     *
+     * @param name The class or package name.
+     */
+    public void remove(final String name) {
+        update(name, rule -> null);
+    }
+
+    /**
+     * <h2>clear()</h2>
+     * <p>Removes all rules, every logger uses its {@link LoggerConfig} again.</p>
+     */
+    public void clear() {
+        replace(Map.of());
+    }
+
+    /**
+     * <h2>configure(Map)</h2>
+     * <p>Replaces all rules with the rules read from the given properties, keys not starting with
+     * {@value #PREFIX} are ignored.</p>
+     *
+     * @param properties The properties, e.g. a {@link java.util.Properties} instance.
+     */
+    public void configure(final Map<?, ?> properties) {
+        final Map<String, Settings> parsed = new HashMap<>();
+        properties.forEach((key, value) -> {
+            final String property = String.valueOf(key).trim();
+            if (!property.equals(PREFIX) && !property.startsWith(PREFIX + ".")) {
+                return;
+            }
+            final int split = property.lastIndexOf('.');
+            if (split < PREFIX.length()) {
+                return;
+            }
+            final String name = split == PREFIX.length() ? ROOT : property.substring(PREFIX.length() + 1, split);
+            final Settings rule = parsed.getOrDefault(name, Settings.NONE);
+            final Settings updated = parse(rule, property.substring(split + 1), String.valueOf(value).trim());
+            if (rule != updated) {
+                parsed.put(name, updated);
+            }
+        });
+        replace(parsed);
+    }
+
+    /**
+     * <h2>getRules()</h2>
+     * <p>Gets the current rules by name.</p>
+     *
+     * @return An unmodifiable copy of the rules.
+     */
+    public Map<String, Settings> getRules() {
+        return Map.copyOf(rules);
+    }
+
+    /**
+     * <h2>resolve(String)</h2>
+     * <p>Resolves the settings of the given class name, every setting is taken from the most specific rule
+     * defining it.</p>
+     *
+     * @param name The fully qualified class name.
+     * @return The resolved settings, {@link Settings#NONE} if no rule applies.
+     */
+    public Settings resolve(final String name) {
+        final Map<String, Settings> current = rules;
+        if (current.isEmpty()) {
+            return Settings.NONE;
+        }
+        Settings resolved = Settings.NONE;
+        String candidate = null == name ? ROOT : name;
+        while (true) {
+            final Settings rule = current.get(candidate);
+            if (null != rule) {
+                resolved = resolved.inherit(rule);
+            }
+            if (candidate.isEmpty()) {
+                return resolved;
+            }
+            final int split = Math.max(candidate.lastIndexOf('.'), candidate.lastIndexOf('$'));
+            candidate = split < 0 ? ROOT : candidate.substring(0, split);
+        }
+    }
+
+    /**
+     * <h2>attach({@link Logger})</h2>
+     * <p>Resolves the settings of a new logger, the lock ensures a concurrent change of the rules is not missed.</p>
+     *
+     * @param logger The logger.
+     */
+    void attach(final Logger logger) {
+        lock.lock();
+        try {
+            logger.applySettings(resolve(logger.getCategory()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>update(String, {@link UnaryOperator})</h2>
+     * <p>Changes the rule of the name and resolves the settings of all loggers again.</p>
+     *
+     * @param name   The name of the rule.
+     * @param change The change, returning null removes the rule.
+     */
+    private void update(final String name, final UnaryOperator<Settings> change) {
+        final String key = null == name ? ROOT : name.trim();
+        lock.lock();
+        try {
+            final Map<String, Settings> copy = new HashMap<>(rules);
+            final Settings rule = change.apply(copy.getOrDefault(key, Settings.NONE));
+            if (null == rule) {
+                copy.remove(key);
+            } else {
+                copy.put(key, rule);
+            }
+            replace(copy);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>replace(Map)</h2>
+     * <p>Replaces all rules and resolves the settings of all loggers again.</p>
+     *
+     * @param replacement The new rules.
+     */
+    private void replace(final Map<String, Settings> replacement) {
+        lock.lock();
+        try {
+            rules = Map.copyOf(replacement);
+            for (final Logger logger : LoggerHandler.getInstance().getLoggers()) {
+                logger.applySettings(resolve(logger.getCategory()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>parse({@link Settings}, String, String)</h2>
+     * <p>Applies a single property to a rule.</p>
+     *
+     * @param rule      The rule.
+     * @param attribute The attribute, one of level, levels, autoFlush or logSize.
+     * @param value     The value.
+     * @return The changed rule or the given rule if the property is invalid.
+     */
+    private static Settings parse(final Settings rule, final String attribute, final String value) {
+        try {
+            return switch (attribute) {
+                case "level" -> rule.withLevelMask(Level.maskUpTo(Level.valueOf(value.toUpperCase(Locale.ROOT))));
+                case "levels" -> {
+                    int mask = 0;
+                    for (final String level : value.split(",")) {
+                        if (!level.isBlank()) {
+                            mask |= Level.valueOf(level.trim().toUpperCase(Locale.ROOT)).bit();
+                        }
+                    }
+                    yield rule.withLevelMask(mask);
+                }
+                case "autoFlush" -> rule.withAutoFlush(Boolean.parseBoolean(value));
+                case "logSize" -> rule.withLogSize(Integer.parseInt(value));
+                default -> rule;
+            };
+        } catch (IllegalArgumentException ignored) {
+            return rule;
+        }
+    }
+
+    /**
+     * <h1>Settings</h1>
+     * <p>The settings of a rule or the resolved settings of a logger, {@link #INHERIT} and null mark a setting
+     * taken from elsewhere.</p>
+     *
+     * @param levelMask The mask of enabled levels or {@link #INHERIT}.
+     * @param logSize   The log size or {@link #INHERIT}.
+     * @param autoFlush The auto flush or null.
+     * @author haevn
+     * @version 1.0
+     * @since 2.1
+     */
+    public record Settings(int levelMask, int logSize, Boolean autoFlush) {
+        /**
+         * Marks a setting that is not defined.
+         */
+        public static final int INHERIT = -1;
+
+        /**
+         * The settings defining nothing.
+         */
+        public static final Settings NONE = new Settings(INHERIT, INHERIT, null);
+
+        /**
+         * <h2>withLevelMask(int)</h2>
+         * <p>Creates a copy of these settings with the given level mask.</p>
+         *
+         * @param levelMask The level mask.
+         * @return The new settings.
+         */
+        public Settings withLevelMask(final int levelMask) {
+            return new Settings(levelMask, logSize, autoFlush);
+        }
+
+        /**
+         * <h2>withLogSize(int)</h2>
+         * <p>Creates a copy of these settings with the given log size.</p>
+         *
+         * @param logSize The log size.
+         * @return The new settings.
+         */
+        public Settings withLogSize(final int logSize) {
+            return new Settings(levelMask, logSize, autoFlush);
+        }
+
+        /**
+         * <h2>withAutoFlush(boolean)</h2>
+         * <p>Creates a copy of these settings with the given auto flush.</p>
+         *
+         * @param autoFlush The auto flush.
+         * @return The new settings.
+         */
+        public Settings withAutoFlush(final boolean autoFlush) {
+            return new Settings(levelMask, logSize, autoFlush);
+        }
+
+        /**
+         * <h2>inherit({@link Settings})</h2>
+         * <p>Fills the undefined settings from the given less specific settings.</p>
+         *
+         * @param parent The less specific settings.
+         * @return The merged settings.
+         */
+        Settings inherit(final Settings parent) {
+            return new Settings(INHERIT == levelMask ? parent.levelMask : levelMask,
+                    INHERIT == logSize ? parent.logSize : logSize,
+                    null == autoFlush ? parent.autoFlush : autoFlush);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package de.haevn.utils.logging;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <h1>RollingFileOutputStream</h1>
+ * <p>This class is an {@link OutputStream} that rotates its file according to a {@link RollingPolicy}.</p>
+ * <p>On rotation the active file is renamed to {@code <name>-<yyyyMMdd-HHmmssSSS>.log} and a new file is opened.
+ * Compressing the rotated file and deleting old generations happens on a shared background thread,
+ * so a rotation only costs a rename on the writing thread.</p>
+ * <p>Rotation is only checked at the start of a write call, a batch written in one call is never split.</p>
+ * <p>Writes are guarded by a {@link ReentrantLock} instead of a monitor, so a virtual thread blocked in the I/O
+ * does not pin its carrier thread.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public final class RollingFileOutputStream extends OutputStream {
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS").withZone(ZoneId.systemDefault());
+    private static final ExecutorService COMPRESSOR = Executors.newSingleThreadExecutor(
+            runnable -> Thread.ofPlatform().daemon().name("Logger-compressor").unstarted(runnable));
+
+    private final File file;
+    private final RollingPolicy policy;
+    private final String baseName;
+    private final Pattern rotatedPattern;
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileOutputStream out;
+    private long written;
+    private long nextRollover;
+    private int sequence;
+
+    /**
+     * <h2>RollingFileOutputStream({@link File}, {@link RollingPolicy})</h2>
+     * <p>Opens the given file in append mode.</p>
+     *
+     * @param file   The active log file.
+     * @param policy The rolling policy.
+     * @throws FileNotFoundException If the file cannot be opened.
+     */
+    public RollingFileOutputStream(final File file, final RollingPolicy policy) throws FileNotFoundException {
+        this.file = file.getAbsoluteFile();
+        this.policy = policy;
+        final String name = file.getName();
+        this.baseName = name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name;
+        this.rotatedPattern = Pattern.compile(Pattern.quote(baseName) + "-\\d{8}-\\d{9}(-\\d+)?\\.log(\\.gz)?");
+        open();
+    }
+
+    /**
+     * <h2>open()</h2>
+     * <p>Opens the active file and computes the next rotation time.</p>
+     *
+     * @throws FileNotFoundException If the file cannot be opened.
+     */
+    private void open() throws FileNotFoundException {
+        out = new FileOutputStream(file, true);
+        written = file.length();
+        if (policy.interval() > 0) {
+            final long now = System.currentTimeMillis();
+            nextRollover = now - Math.floorMod(now, policy.interval()) + policy.interval();
+        }
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        lock.lock();
+        try {
+            rollIfNecessary(1);
+            out.write(b);
+            written++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        lock.lock();
+        try {
+            rollIfNecessary(length);
+            out.write(bytes, offset, length);
+            written += length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            out.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            out.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>rollIfNecessary(int)</h2>
+     * <p>Rotates the file if writing the given amount of bytes would violate the policy.</p>
+     *
+     * @param length The amount of bytes about to be written.
+     * @throws IOException If the new file cannot be opened.
+     */
+    private void rollIfNecessary(final int length) throws IOException {
+        final boolean bySize = policy.maxFileSize() > 0 && written > 0 && written + length > policy.maxFileSize();
+        final boolean byTime = policy.interval() > 0 && System.currentTimeMillis() >= nextRollover;
+        if (bySize || byTime) {
+            roll();
+        }
+    }
+
+    /**
+     * <h2>roll()</h2>
+     * <p>Renames the active file, reopens it and schedules compression and cleanup.</p>
+     *
+     * @throws IOException If the new file cannot be opened.
+     */
+    private void roll() throws IOException {
+        out.close();
+        File rotated = new File(file.getParentFile(), baseName + "-" + SUFFIX.format(Instant.now()) + ".log");
+        if (rotated.exists()) {
+            rotated = new File(file.getParentFile(), baseName + "-" + SUFFIX.format(Instant.now()) + "-" + (++sequence) + ".log");
+        }
+        final File target = rotated;
+        final boolean renamed = file.renameTo(target);
+        open();
+        if (renamed) {
+            COMPRESSOR.execute(() -> {
+                if (policy.compress()) {
+                    compress(target);
+                }
+                prune();
+            });
+        }
+    }
+
+    /**
+     * <h2>compress({@link File})</h2>
+     * <p>Compresses the given file with gzip and deletes the original.</p>
+     *
+     * @param source The file to compress.
+     */
+    private static void compress(final File source) {
+        final File target = new File(source.getParentFile(), source.getName() + ".gz");
+        try (final InputStream in = new FileInputStream(source);
+             final OutputStream gzip = new GZIPOutputStream(new FileOutputStream(target))) {
+            in.transferTo(gzip);
+        } catch (IOException ex) {
+            target.delete();
+            return;
+        }
+        source.delete();
+    }
+
+    /**
+     * <h2>prune()</h2>
+     * <p>Deletes the oldest rotated files until only {@link RollingPolicy#generations()} remain.</p>
+     */
+    private void prune() {
+        final File[] rotated = file.getParentFile().listFiles((dir, name) -> rotatedPattern.matcher(name).matches());
+        if (null == rotated || rotated.length <= policy.generations()) {
+            return;
+        }
+        Arrays.sort(rotated, Comparator.comparing(File::getName));
+        for (int i = 0; i < rotated.length - policy.generations(); i++) {
+            rotated[i].delete();
+        }
+    }
+}
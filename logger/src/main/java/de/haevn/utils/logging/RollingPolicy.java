@@ -0,0 +1,93 @@
+package de.haevn.utils.logging;
+
+/**
+ * <h1>RollingPolicy</h1>
+ * <p>This record defines when a log file is rotated and how many rotated generations are kept.</p>
+ * <p>A file is rotated once it would exceed {@code maxFileSize} bytes or once the wall-clock interval ends,
+ * a value of 0 disables the respective trigger.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LoggerConfig config = new LoggerConfig();
+ *     config.setRollingPolicy(RollingPolicy.bySize(10 * 1024 * 1024).withGenerations(5));
+ * }
+ * </pre>
+ *
+ * @param maxFileSize The maximal size of the active file in bytes, 0 disables size based rotation.
+ * @param interval    The rotation interval in milliseconds, 0 disables time based rotation.
+ * @param generations The amount of rotated files to keep.
+ * @param compress    True if rotated files are compressed with gzip.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public record RollingPolicy(long maxFileSize, long interval, int generations, boolean compress) {
+    private static final int DEFAULT_GENERATIONS = 7;
+
+    /**
+     * <h2>bySize(long)</h2>
+     * <p>Creates a policy that rotates the file when it reaches the given size.</p>
+     *
+     * @param maxFileSize The maximal size in bytes.
+     * @return The policy.
+     */
+    public static RollingPolicy bySize(final long maxFileSize) {
+        return new RollingPolicy(maxFileSize, 0, DEFAULT_GENERATIONS, true);
+    }
+
+    /**
+     * <h2>byInterval(long)</h2>
+     * <p>Creates a policy that rotates the file at the end of every interval.</p>
+     * <p>Intervals are aligned to the epoch, an interval of one day rotates at midnight UTC.</p>
+     *
+     * @param interval The interval in milliseconds.
+     * @return The policy.
+     */
+    public static RollingPolicy byInterval(final long interval) {
+        return new RollingPolicy(0, interval, DEFAULT_GENERATIONS, true);
+    }
+
+    /**
+     * <h2>withMaxFileSize(long)</h2>
+     * <p>Creates a copy of this policy with the given maximal file size.</p>
+     *
+     * @param maxFileSize The maximal size in bytes.
+     * @return The new policy.
+     */
+    public RollingPolicy withMaxFileSize(final long maxFileSize) {
+        return new RollingPolicy(maxFileSize, interval, generations, compress);
+    }
+
+    /**
+     * <h2>withInterval(long)</h2>
+     * <p>Creates a copy of this policy with the given interval.</p>
+     *
+     * @param interval The interval in milliseconds.
+     * @return The new policy.
+     */
+    public RollingPolicy withInterval(final long interval) {
+        return new RollingPolicy(maxFileSize, interval, generations, compress);
+    }
+
+    /**
+     * <h2>withGenerations(int)</h2>
+     * <p>Creates a copy of this policy keeping the given amount of rotated files.</p>
+     *
+     * @param generations The amount of rotated files.
+     * @return The new policy.
+     */
+    public RollingPolicy withGenerations(final int generations) {
+        return new RollingPolicy(maxFileSize, interval, generations, compress);
+    }
+
+    /**
+     * <h2>withCompression(boolean)</h2>
+     * <p>Creates a copy of this policy with compression enabled or disabled.</p>
+     *
+     * @param compress True to compress rotated files.
+     * @return The new policy.
+     */
+    public RollingPolicy withCompression(final boolean compress) {
+        return new RollingPolicy(maxFileSize, interval, generations, compress);
+    }
+}
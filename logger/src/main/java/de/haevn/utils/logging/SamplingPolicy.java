@@ -0,0 +1,83 @@
+package de.haevn.utils.logging;
+
+/**
+ * <h1>SamplingPolicy</h1>
+ * <p>This record defines how entries of a single call site are sampled and rate limited.</p>
+ * <p>Every call site gets its own token bucket that refills with {@code permitsPerSecond} and holds at most
+ * {@code burst} tokens. Entries passing the bucket are additionally sampled with the given probability.
+ * Only entries up to {@code maxLevel} are throttled, more severe entries are always logged.</p>
+ * <p>Suppressed entries are counted and reported as a "N messages suppressed" entry of the same call site.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LoggerConfig config = new LoggerConfig();
+ *     config.setSamplingPolicy(SamplingPolicy.rateLimited(10, 20).withProbability(0.5));
+ * }
+ * </pre>
+ *
+ * @param permitsPerSecond The refill rate of the token bucket, 0 disables rate limiting.
+ * @param burst            The capacity of the token bucket.
+ * @param probability      The probability an entry is kept, 1 disables sampling.
+ * @param maxLevel         The most severe level that is throttled.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public record SamplingPolicy(double permitsPerSecond, int burst, double probability, Level maxLevel) {
+
+    /**
+     * <h2>rateLimited(double, int)</h2>
+     * <p>Creates a policy limiting every call site to the given rate.</p>
+     *
+     * @param permitsPerSecond The refill rate.
+     * @param burst            The maximal burst.
+     * @return The policy.
+     */
+    public static SamplingPolicy rateLimited(final double permitsPerSecond, final int burst) {
+        return new SamplingPolicy(permitsPerSecond, burst, 1.0, Level.INFO);
+    }
+
+    /**
+     * <h2>sampled(double)</h2>
+     * <p>Creates a policy keeping every entry with the given probability.</p>
+     *
+     * @param probability The probability between 0 and 1.
+     * @return The policy.
+     */
+    public static SamplingPolicy sampled(final double probability) {
+        return new SamplingPolicy(0, 0, probability, Level.INFO);
+    }
+
+    /**
+     * <h2>withProbability(double)</h2>
+     * <p>Creates a copy of this policy with the given sampling probability.</p>
+     *
+     * @param probability The probability between 0 and 1.
+     * @return The new policy.
+     */
+    public SamplingPolicy withProbability(final double probability) {
+        return new SamplingPolicy(permitsPerSecond, burst, probability, maxLevel);
+    }
+
+    /**
+     * <h2>withMaxLevel({@link Level})</h2>
+     * <p>Creates a copy of this policy throttling all entries up to the given level.</p>
+     *
+     * @param maxLevel The most severe level that is throttled.
+     * @return The new policy.
+     */
+    public SamplingPolicy withMaxLevel(final Level maxLevel) {
+        return new SamplingPolicy(permitsPerSecond, burst, probability, maxLevel);
+    }
+
+    /**
+     * <h2>applies({@link Level})</h2>
+     * <p>Checks if entries with the given level are throttled.</p>
+     *
+     * @param level The level of the entry.
+     * @return True iff the entry is subject to this policy.
+     */
+    public boolean applies(final Level level) {
+        return level.ordinal() <= maxLevel.ordinal();
+    }
+}
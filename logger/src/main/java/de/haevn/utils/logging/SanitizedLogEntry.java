@@ -1,9 +1,13 @@
 package de.haevn.utils.logging;
 
-import de.haevn.utils.exceptions.ExceptionUtils;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import de.haevn.utils.debug.MethodTools;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * <h1>SanitizedLogEntry</h1>
@@ -17,23 +21,72 @@ import java.util.Date;
  * @param object    The object of the log entry.
  * @param message   The message of the log entry.
  * @param throwable The throwable of the log entry.
+ * @param fields    The structured fields and the context of the log entry, null if there are none.
  * @author haevn
- * @version 1.0
+ * @version 1.1
  * @since 1.0
  */
 public record SanitizedLogEntry(String date, String level, String source, String method, String thread, Object object,
-                                String message, String throwable) {
+                                String message, String throwable,
+                                @JsonInclude(JsonInclude.Include.NON_EMPTY) Map<String, Object> fields) {
+
+    /**
+     * The format of the date, the formatter is immutable and shared.
+     */
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd,yyyy HH:mm:ss");
+
+    /**
+     * <h2>SanitizedLogEntry(String, String, String, String, String, Object, String, String)</h2>
+     * <p>Creates a sanitized log entry without fields.</p>
+     *
+     * @param date      The date of the log entry.
+     * @param level     The level of the log entry.
+     * @param source    The source of the log entry.
+     * @param method    The method of the log entry.
+     * @param thread    The thread of the log entry.
+     * @param object    The object of the log entry.
+     * @param message   The message of the log entry.
+     * @param throwable The throwable of the log entry.
+     */
+    public SanitizedLogEntry(final String date, final String level, final String source, final String method, final String thread,
+                             final Object object, final String message, final String throwable) {
+        this(date, level, source, method, thread, object, message, throwable, null);
+    }
 
     /**
      * <h2>getFromLogEntry({@link LogEntry})</h2>
      * <p>This static method converts a {@link LogEntry} to a {@link SanitizedLogEntry}.</p>
+     * <p>If the call site was not captured, source and method are empty.</p>
      *
      * @param entry The log entry.
      * @return The sanitized log entry.
      */
     public static SanitizedLogEntry getFromLogEntry(LogEntry entry) {
-        final SimpleDateFormat sdf = new SimpleDateFormat("MMM dd,yyyy HH:mm:ss");
-        final Date resultdate = new Date(entry.getTimestamp());
-        return new SanitizedLogEntry(sdf.format(resultdate), entry.getLevel().name(), entry.getHelper().getFileName() + ":" + entry.getHelper().getLineNumber(), entry.getHelper().getClassName() + "#" + entry.getHelper().getMethodName(), entry.getThreadName(), entry.getObj(), entry.getMessage(), ExceptionUtils.getStackTrace(entry.getThrowable()));
+        final String date = DATE_FORMAT.format(Instant.ofEpochMilli(entry.getTimestamp()).atZone(ZoneId.systemDefault()));
+        final MethodTools helper = entry.getHelper();
+        final String source = null == helper ? "" : helper.getFileName() + ":" + helper.getLineNumber();
+        final String method = null == helper ? "" : helper.getClassName() + "#" + helper.getMethodName();
+        return new SanitizedLogEntry(date, entry.getLevel().name(), source, method, entry.getThreadName(), entry.getObj(), entry.getMessage(), StackTraceDeduplicator.describe(entry), getFields(entry));
+    }
+
+    /**
+     * <h2>getFields({@link LogEntry})</h2>
+     * <p>Merges the context and the fields of the entry, fields shadow context bindings with the same key.</p>
+     *
+     * @param entry The log entry.
+     * @return The fields or null if the entry has none.
+     */
+    static Map<String, Object> getFields(final LogEntry entry) {
+        if (!entry.hasFields()) {
+            return null;
+        }
+        final Map<String, Object> fields = new LinkedHashMap<>();
+        if (null != entry.getContext()) {
+            entry.getContext().forEach(fields::put);
+        }
+        if (null != entry.getFields()) {
+            fields.putAll(entry.getFields().toMap());
+        }
+        return fields;
     }
 }
@@ -0,0 +1,114 @@
+package de.haevn.utils.logging;
+
+/**
+ * <h1>ShippingPolicy</h1>
+ * <p>This record defines how a {@link LogShipper} batches, buffers and retries entries.</p>
+ * <p>Entries are collected until a batch reaches {@code batchSize} bytes or the oldest entry waited
+ * {@code linger} milliseconds. At most {@code bufferSize} bytes are held, including batches waiting for a retry.
+ * Once the buffer is full, the logger either waits for free space or the new entries are dropped. A synchronous
+ * logger waits before it writes, an entry flushed periodically by the {@link LoggerHandler} is dropped instead of
+ * waiting, as the handler serves every logger.</p>
+ * <p>A failed batch is retried {@code maxRetries} times with an exponential backoff starting at {@code backoff}
+ * milliseconds, afterwards it is dropped.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final ShippingPolicy policy = ShippingPolicy.defaults()
+ *             .withBatchSize(256 * 1024)
+ *             .withCompression(true)
+ *             .withBlockWhenFull(false);
+ * }
+ * </pre>
+ *
+ * @param batchSize     The size of a batch in bytes.
+ * @param linger        The maximal time in milliseconds an entry waits for its batch to fill.
+ * @param bufferSize    The maximal amount of buffered bytes.
+ * @param maxRetries    The amount of retries of a failed batch.
+ * @param backoff       The initial delay between retries in milliseconds.
+ * @param compress      True if batches are compressed with gzip.
+ * @param blockWhenFull True if the logger waits for free space, false if entries are dropped.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public record ShippingPolicy(int batchSize, long linger, long bufferSize, int maxRetries, long backoff,
+                             boolean compress, boolean blockWhenFull) {
+
+    /**
+     * <h2>defaults()</h2>
+     * <p>Creates a policy with 64 KiB batches, 1 second linger, a 16 MiB buffer, 5 retries starting at
+     * 200 milliseconds, compression and blocking when full.</p>
+     *
+     * @return The policy.
+     */
+    public static ShippingPolicy defaults() {
+        return new ShippingPolicy(64 * 1024, 1000, 16L * 1024 * 1024, 5, 200, true, true);
+    }
+
+    /**
+     * <h2>withBatchSize(int)</h2>
+     * <p>Creates a copy of this policy with the given batch size.</p>
+     *
+     * @param batchSize The size of a batch in bytes.
+     * @return The new policy.
+     */
+    public ShippingPolicy withBatchSize(final int batchSize) {
+        return new ShippingPolicy(batchSize, linger, bufferSize, maxRetries, backoff, compress, blockWhenFull);
+    }
+
+    /**
+     * <h2>withLinger(long)</h2>
+     * <p>Creates a copy of this policy with the given linger time.</p>
+     *
+     * @param linger The linger time in milliseconds.
+     * @return The new policy.
+     */
+    public ShippingPolicy withLinger(final long linger) {
+        return new ShippingPolicy(batchSize, linger, bufferSize, maxRetries, backoff, compress, blockWhenFull);
+    }
+
+    /**
+     * <h2>withBufferSize(long)</h2>
+     * <p>Creates a copy of this policy with the given buffer size.</p>
+     *
+     * @param bufferSize The maximal amount of buffered bytes.
+     * @return The new policy.
+     */
+    public ShippingPolicy withBufferSize(final long bufferSize) {
+        return new ShippingPolicy(batchSize, linger, bufferSize, maxRetries, backoff, compress, blockWhenFull);
+    }
+
+    /**
+     * <h2>withRetries(int, long)</h2>
+     * <p>Creates a copy of this policy with the given retry settings.</p>
+     *
+     * @param maxRetries The amount of retries of a failed batch.
+     * @param backoff    The initial delay between retries in milliseconds.
+     * @return The new policy.
+     */
+    public ShippingPolicy withRetries(final int maxRetries, final long backoff) {
+        return new ShippingPolicy(batchSize, linger, bufferSize, maxRetries, backoff, compress, blockWhenFull);
+    }
+
+    /**
+     * <h2>withCompression(boolean)</h2>
+     * <p>Creates a copy of this policy with compression enabled or disabled.</p>
+     *
+     * @param compress True to compress batches.
+     * @return The new policy.
+     */
+    public ShippingPolicy withCompression(final boolean compress) {
+        return new ShippingPolicy(batchSize, linger, bufferSize, maxRetries, backoff, compress, blockWhenFull);
+    }
+
+    /**
+     * <h2>withBlockWhenFull(boolean)</h2>
+     * <p>Creates a copy of this policy which either waits for free space or drops entries when the buffer is full.</p>
+     *
+     * @param blockWhenFull True to wait, false to drop.
+     * @return The new policy.
+     */
+    public ShippingPolicy withBlockWhenFull(final boolean blockWhenFull) {
+        return new ShippingPolicy(batchSize, linger, bufferSize, maxRetries, backoff, compress, blockWhenFull);
+    }
+}
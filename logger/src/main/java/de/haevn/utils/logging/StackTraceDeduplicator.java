@@ -0,0 +1,204 @@
+package de.haevn.utils.logging;
+
+import de.haevn.utils.exceptions.ExceptionUtils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <h1>StackTraceDeduplicator</h1>
+ * <p>This class decides whether the stack trace of a logged throwable is written in full or only referenced.</p>
+ * <p>Fingerprints are remembered in a fixed size, four-way set associative table, so the memory is bounded and
+ * lookups are lock-free. A slot holds an immutable pair of fingerprint and write time which is replaced with a single
+ * CAS, so a lookup never pairs a fingerprint with the time of another one. A fingerprint maps to a set of four slots,
+ * a new fingerprint replaces an empty slot or the slot whose trace was written longest ago.</p>
+ * <p>Concurrent first occurrences of the same fingerprint may both write the full trace, a reference is never
+ * written without a preceding full trace in the window. An entry claiming the full trace that is not written after
+ * all must be {@link #release(LogEntry) released}.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class StackTraceDeduplicator {
+    private static final int WAYS = 4;
+    private static final int MAX_CAUSES = 8;
+
+    private final long window;
+    private final int frames;
+    private final int sets;
+    private final AtomicReferenceArray<Slot> slots;
+
+    /**
+     * <h2>StackTraceDeduplicator({@link DeduplicationPolicy})</h2>
+     * <p>Creates a new deduplicator with an empty table.</p>
+     *
+     * @param policy The policy.
+     */
+    StackTraceDeduplicator(final DeduplicationPolicy policy) {
+        this.window = policy.window();
+        this.frames = Math.max(1, policy.frames());
+        int size = 1;
+        while (size * WAYS < policy.capacity()) {
+            size <<= 1;
+        }
+        this.sets = size;
+        this.slots = new AtomicReferenceArray<>(size * WAYS);
+    }
+
+    /**
+     * <h2>apply({@link LogEntry}, long)</h2>
+     * <p>Sets the fingerprint of the throwable of the entry and marks its trace as omitted if it was written
+     * within the window.</p>
+     *
+     * @param entry The entry with a throwable.
+     * @param now   The current time in milliseconds.
+     * @return True iff the trace is omitted.
+     */
+    boolean apply(final LogEntry entry, final long now) {
+        final long fingerprint = fingerprint(entry.getThrowable(), frames);
+        final boolean omitted = isRepeated(fingerprint, now);
+        entry.setFingerprint(String.format("%016x", fingerprint));
+        entry.setTraceOmitted(omitted);
+        return omitted;
+    }
+
+    /**
+     * <h2>release({@link LogEntry})</h2>
+     * <p>Forgets the fingerprint of an entry whose full trace was claimed but is not written, e.g. because the entry
+     * was rejected by a full ring buffer. The next occurrence writes the full trace again.</p>
+     *
+     * @param entry The entry passed to {@link #apply(LogEntry, long)}.
+     */
+    void release(final LogEntry entry) {
+        if (null == entry.getFingerprint() || entry.isTraceOmitted()) {
+            return;
+        }
+        final long fingerprint = Long.parseUnsignedLong(entry.getFingerprint(), 16);
+        final int base = base(fingerprint);
+        for (int i = base; i < base + WAYS; i++) {
+            final Slot slot = slots.get(i);
+            if (null != slot && slot.fingerprint() == fingerprint) {
+                slots.compareAndSet(i, slot, null);
+                return;
+            }
+        }
+    }
+
+    /**
+     * <h2>isRepeated(long, long)</h2>
+     * <p>Checks if the full trace of the fingerprint was written within the window, otherwise records now as
+     * the time the trace is written.</p>
+     *
+     * @param fingerprint The fingerprint, never 0.
+     * @param now         The current time in milliseconds.
+     * @return True iff the trace was written within the window.
+     */
+    private boolean isRepeated(final long fingerprint, final long now) {
+        final int base = base(fingerprint);
+        final Slot claim = new Slot(fingerprint, now);
+        while (true) {
+            int victim = base;
+            Slot replaced = null;
+            long oldest = Long.MAX_VALUE;
+            for (int i = base; i < base + WAYS; i++) {
+                final Slot slot = slots.get(i);
+                if (null == slot) {
+                    if (Long.MIN_VALUE != oldest) {
+                        victim = i;
+                        replaced = null;
+                        oldest = Long.MIN_VALUE;
+                    }
+                    continue;
+                }
+                if (slot.fingerprint() == fingerprint) {
+                    if (now - slot.written() < window) {
+                        return true;
+                    }
+                    // Only the thread renewing the window writes the trace
+                    return !slots.compareAndSet(i, slot, claim);
+                }
+                if (slot.written() < oldest) {
+                    oldest = slot.written();
+                    victim = i;
+                    replaced = slot;
+                }
+            }
+            if (slots.compareAndSet(victim, replaced, claim)) {
+                return false;
+            }
+            // The set changed concurrently, it may hold the fingerprint now
+        }
+    }
+
+    /**
+     * <h2>base(long)</h2>
+     * <p>Gets the index of the first slot of the set of the fingerprint.</p>
+     */
+    private int base(final long fingerprint) {
+        return (int) ((fingerprint ^ (fingerprint >>> 32)) & (sets - 1)) * WAYS;
+    }
+
+    /**
+     * <h2>fingerprint(Throwable, int)</h2>
+     * <p>Hashes the types of the throwable and its causes and their top frames, messages are ignored.</p>
+     *
+     * @param throwable The throwable.
+     * @param frames    The amount of frames per throwable.
+     * @return The fingerprint, never 0.
+     */
+    static long fingerprint(final Throwable throwable, final int frames) {
+        long hash = 0xCBF29CE484222325L;
+        Throwable current = throwable;
+        for (int depth = 0; null != current && depth < MAX_CAUSES; depth++) {
+            hash = mix(hash, current.getClass().getName().hashCode());
+            final StackTraceElement[] trace = current.getStackTrace();
+            for (int i = 0; i < Math.min(frames, trace.length); i++) {
+                hash = mix(hash, trace[i].getClassName().hashCode());
+                hash = mix(hash, trace[i].getMethodName().hashCode());
+                hash = mix(hash, trace[i].getLineNumber());
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return 0 == hash ? 1 : hash;
+    }
+
+    /**
+     * <h2>describe({@link LogEntry})</h2>
+     * <p>Gets the text written for the throwable of the entry, the full stack trace or a reference to it.</p>
+     *
+     * @param entry The entry.
+     * @return The text, empty if the entry has no throwable.
+     */
+    static String describe(final LogEntry entry) {
+        if (null == entry.getThrowable()) {
+            return "";
+        }
+        if (entry.isTraceOmitted()) {
+            return reference(entry);
+        }
+        return ExceptionUtils.getStackTrace(entry.getThrowable());
+    }
+
+    /**
+     * <h2>reference({@link LogEntry})</h2>
+     * <p>Gets the short reference written instead of an omitted stack trace.</p>
+     *
+     * @param entry The entry.
+     * @return The reference.
+     */
+    static String reference(final LogEntry entry) {
+        return entry.getThrowable() + " [stack trace " + entry.getFingerprint() + " omitted, repeated within the window]";
+    }
+
+    private static long mix(final long hash, final long value) {
+        final long mixed = (hash ^ value) * 0x100000001B3L;
+        return mixed ^ (mixed >>> 29);
+    }
+
+    /**
+     * <h1>Slot</h1>
+     * <p>A fingerprint and the time its full trace was written.</p>
+     */
+    private record Slot(long fingerprint, long written) {
+    }
+}
@@ -0,0 +1,49 @@
+package de.haevn.utils.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <h1>StreamSink</h1>
+ * <p>This class is a {@link LogSink} writing every batch with a single call to an {@link OutputStream}.</p>
+ * <p>It backs the console, file and rolling file sinks created by the factories of {@link LogSink}.</p>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class StreamSink implements LogSink {
+    private final OutputStream output;
+    private final boolean owned;
+
+    /**
+     * <h2>StreamSink({@link OutputStream}, boolean)</h2>
+     * <p>Creates a new sink.</p>
+     *
+     * @param output The stream to write to.
+     * @param owned  True if the stream is closed with the sink.
+     */
+    StreamSink(final OutputStream output, final boolean owned) {
+        this.output = output;
+        this.owned = owned;
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length, final int entries) throws IOException {
+        output.write(buffer, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (owned) {
+            output.close();
+        } else {
+            output.flush();
+        }
+    }
+}
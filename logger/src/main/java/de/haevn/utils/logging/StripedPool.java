@@ -0,0 +1,84 @@
+package de.haevn.utils.logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <h1>StripedPool</h1>
+ * <p>This class is a bounded, lock-free object pool used to recycle log entries.</p>
+ * <p>The slots are split into stripes, a thread acquires from the stripe selected by its thread id, so concurrent
+ * producers rarely touch the same slots. Released objects are spread round-robin over all stripes, because they are
+ * usually released by a single writer thread. The pool does not use thread locals, so it also works for virtual threads.</p>
+ * <p>If the stripe of a thread is empty, {@link #acquire()} returns null and the caller allocates a new object.
+ * If the pool is full, a released object is left to the garbage collector.</p>
+ *
+ * @param <T> The type of the pooled objects.
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+final class StripedPool<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int stripeMask;
+    private final int stripeSize;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * <h2>StripedPool(int)</h2>
+     * <p>Creates a new pool with roughly the given capacity.</p>
+     *
+     * @param capacity The amount of objects the pool can hold.
+     */
+    StripedPool(final int capacity) {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() * 2) {
+            stripes <<= 1;
+        }
+        this.stripeMask = stripes - 1;
+        this.stripeSize = Math.max(1, capacity / stripes);
+        this.slots = new AtomicReferenceArray<>(stripes * stripeSize);
+    }
+
+    /**
+     * <h2>acquire()</h2>
+     * <p>Takes an object from the stripe of the current thread.</p>
+     *
+     * @return The object or null if the stripe is empty.
+     */
+    T acquire() {
+        final int start = stripe((int) Thread.currentThread().threadId()) * stripeSize;
+        for (int i = start; i < start + stripeSize; i++) {
+            final T value = slots.get(i);
+            if (null != value && slots.compareAndSet(i, value, null)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <h2>release(Object)</h2>
+     * <p>Returns an object to the pool, the object must not be used by the caller afterwards.</p>
+     *
+     * @param value The object.
+     * @return True iff the object was pooled, false if the pool is full.
+     */
+    boolean release(final T value) {
+        final int start = stripe(cursor.getAndIncrement()) * stripeSize;
+        for (int i = start; i < start + stripeSize; i++) {
+            if (null == slots.get(i) && slots.compareAndSet(i, null, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <h2>stripe(int)</h2>
+     * <p>Maps a number to a stripe, the bits are mixed so consecutive thread ids spread over all stripes.</p>
+     */
+    private int stripe(final int seed) {
+        final int mixed = seed * 0x9E3779B9;
+        return (mixed ^ (mixed >>> 16)) & stripeMask;
+    }
+}
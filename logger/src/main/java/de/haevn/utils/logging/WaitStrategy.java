@@ -0,0 +1,95 @@
+package de.haevn.utils.logging;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h1>WaitStrategy</h1>
+ * <p>This enum defines how the asynchronous log writer and blocked producers wait for the ring buffer.</p>
+ * <p>The strategy is a trade-off between latency and CPU usage.</p>
+ * <ul>
+ *     Following strategies are defined:
+ *     <li>BUSY_SPIN, lowest latency, occupies a full core</li>
+ *     <li>YIELDING, spins shortly and then yields the thread</li>
+ *     <li>SLEEPING, spins, yields and finally parks for a short amount of time</li>
+ *     <li>PARKING, parks the thread until a producer signals new entries</li>
+ * </ul>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ *     final LoggerConfig config = new LoggerConfig();
+ *     config.setAsync(true);
+ *     config.setWaitStrategy(WaitStrategy.SLEEPING);
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+public enum WaitStrategy {
+    BUSY_SPIN {
+        @Override
+        void idle(final int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+    YIELDING {
+        @Override
+        void idle(final int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+    SLEEPING {
+        @Override
+        void idle(final int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES * 2) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(SLEEP_NANOS);
+            }
+        }
+    },
+    PARKING {
+        @Override
+        void idle(final int attempt) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+
+        @Override
+        boolean requiresSignal() {
+            return true;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    /**
+     * The highest attempt count any strategy distinguishes, callers cap their counter here so it never overflows.
+     */
+    static final int MAX_ATTEMPT = SPIN_TRIES * 2;
+    private static final long SLEEP_NANOS = 100_000L;
+    private static final long PARK_NANOS = 10_000_000L;
+
+    /**
+     * <h2>idle(int)</h2>
+     * <p>Waits once, the given attempt counts how often the caller already waited without progress.</p>
+     *
+     * @param attempt The number of unsuccessful attempts so far.
+     */
+    abstract void idle(final int attempt);
+
+    /**
+     * <h2>requiresSignal()</h2>
+     * <p>Checks if producers have to wake up the consumer after publishing an entry.</p>
+     *
+     * @return True iff the consumer must be signaled.
+     */
+    boolean requiresSignal() {
+        return false;
+    }
+}
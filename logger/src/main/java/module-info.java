@@ -2,8 +2,11 @@ module de.haevn.utils.logger {
 
     requires de.haevn.utils.annotations;
     requires de.haevn.utils.debug;
-    requires de.haevn.utils.utils;
+    requires com.fasterxml.jackson.core;
+    requires com.fasterxml.jackson.databind;
     requires de.haevn.utils.exceptions;
+    requires java.net.http;
+    requires java.management;
 
     exports de.haevn.utils.logging;
 
@@ -0,0 +1,39 @@
+package de.haevn.utils.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * <h1>LogEntryTest</h1>
+ * <p>Checks that the arguments of a message are captured with their state at the time the entry is logged.</p>
+ */
+class LogEntryTest {
+
+    @Test
+    void mutableArgumentsAreFormattedWhenFrozen() {
+        final StringBuilder builder = new StringBuilder("before");
+        final List<Integer> values = new ArrayList<>(List.of(1));
+        final LogEntry entry = new LogEntry();
+        entry.setMessage("%s %s %d", builder, values, 7);
+        entry.freezeArguments();
+
+        builder.setLength(0);
+        builder.append("after");
+        values.add(2);
+        assertEquals("before [1] 7", entry.getMessage());
+    }
+
+    @Test
+    void immutableArgumentsStayLazy() {
+        final LogEntry entry = new LogEntry();
+        entry.setMessage("%s %d %s", "text", 42L, Level.INFO);
+        entry.freezeArguments();
+
+        assertEquals("%s %d %s", entry.getTemplate());
+        assertEquals("text 42 INFO", entry.getMessage());
+    }
+}
@@ -0,0 +1,226 @@
+package de.haevn.utils.logging;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <h1>LogShipperTest</h1>
+ * <p>Ships batches to a local {@link HttpServer} stub, which answers with a scripted sequence of status codes.</p>
+ */
+class LogShipperTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private volatile int defaultStatus = 200;
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    private HttpServer server;
+    private URI endpoint;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ingest", this::handle);
+        server.start();
+        endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/ingest");
+    }
+
+    @AfterEach
+    void stopServer() {
+        gate.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void sealsBatchesBySizeAndSendsTheRestOnClose() throws Exception {
+        final byte[] line = line(0);
+        final LogShipper shipper = LogShipper.http(endpoint, ShippingPolicy.defaults()
+                .withCompression(false)
+                .withBatchSize(2 * line.length)
+                .withLinger(TimeUnit.SECONDS.toMillis(30)));
+        for (int i = 0; i < 5; i++) {
+            shipper.write(line(i), 0, line.length, 1);
+        }
+        shipper.close();
+
+        assertEquals(List.of(2, 2, 1), List.of(next().lines().size(), next().lines().size(), next().lines().size()));
+        assertNull(requests.poll());
+        assertEquals(5, shipper.getShippedEntries());
+        assertEquals(0, shipper.getDroppedEntries());
+    }
+
+    @Test
+    void sendsGzipCompressedNdjson() throws Exception {
+        final LogShipper shipper = LogShipper.http(endpoint, ShippingPolicy.defaults().withLinger(10));
+        final byte[] batch = (new String(line(1), StandardCharsets.UTF_8) + new String(line(2), StandardCharsets.UTF_8))
+                .getBytes(StandardCharsets.UTF_8);
+        shipper.write(batch, 0, batch.length, 2);
+
+        final Request request = next();
+        shipper.close();
+        assertEquals("gzip", request.contentEncoding());
+        assertEquals("application/x-ndjson", request.contentType());
+        assertEquals(new String(batch, StandardCharsets.UTF_8), request.text());
+        assertEquals(2, shipper.getShippedEntries());
+    }
+
+    @Test
+    void retriesOnServiceUnavailable() throws Exception {
+        statuses.add(503);
+        statuses.add(503);
+        final LogShipper shipper = LogShipper.http(endpoint, ShippingPolicy.defaults().withLinger(10).withRetries(5, 10));
+        final byte[] line = line(3);
+        shipper.write(line, 0, line.length, 1);
+
+        await(() -> 1 == shipper.getShippedEntries());
+        shipper.close();
+        assertEquals(3, requests.size());
+        assertEquals(2, shipper.getFailedAttempts());
+        assertEquals(0, shipper.getDroppedEntries());
+    }
+
+    @Test
+    void dropsRejectedBatchWithoutRetry() throws Exception {
+        defaultStatus = 400;
+        final LogShipper shipper = LogShipper.http(endpoint, ShippingPolicy.defaults().withLinger(10).withRetries(5, 10));
+        final byte[] line = line(4);
+        shipper.write(line, 0, line.length, 1);
+
+        await(() -> 1 == shipper.getDroppedEntries());
+        shipper.close();
+        assertEquals(1, requests.size());
+        assertEquals(0, shipper.getShippedEntries());
+        assertEquals(0, shipper.getFailedAttempts());
+    }
+
+    @Test
+    void countsEntriesDroppedByAFullBuffer() throws Exception {
+        final byte[] line = line(5);
+        final LogShipper shipper = LogShipper.http(endpoint, ShippingPolicy.defaults()
+                .withLinger(TimeUnit.SECONDS.toMillis(30))
+                .withBufferSize(line.length + line.length / 2)
+                .withBlockWhenFull(false));
+        shipper.write(line, 0, line.length, 1);
+        shipper.write(line, 0, line.length, 3);
+
+        assertEquals(3, shipper.getDroppedEntries());
+        assertEquals(line.length, shipper.getBufferedBytes());
+        shipper.close();
+        assertEquals(1, shipper.getShippedEntries());
+    }
+
+    @Test
+    void awaitCapacityWaitsUntilABatchFits() throws Exception {
+        gate = new CountDownLatch(1);
+        final byte[] line = line(7);
+        final LogShipper shipper = LogShipper.http(endpoint, ShippingPolicy.defaults()
+                .withCompression(false)
+                .withBatchSize(line.length)
+                .withBufferSize(2L * line.length));
+        shipper.write(line, 0, line.length, 1);
+        shipper.write(line, 0, line.length, 1);
+
+        final Thread waiting = Thread.ofVirtual().start(shipper::awaitCapacity);
+        waiting.join(200);
+        assertTrue(waiting.isAlive(), "Returned although the buffer is full");
+        gate.countDown();
+        waiting.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(waiting.isAlive(), "Still waiting after the buffer drained");
+        shipper.close();
+        assertEquals(0, shipper.getDroppedEntries());
+    }
+
+    @Test
+    void closeDropsPendingBatchesAfterTheFirstFailure() throws Exception {
+        defaultStatus = 503;
+        final byte[] line = line(6);
+        final LogShipper shipper = LogShipper.http(endpoint, ShippingPolicy.defaults()
+                .withBatchSize(line.length)
+                .withRetries(5, TimeUnit.SECONDS.toMillis(30)));
+        for (int i = 0; i < 10; i++) {
+            shipper.write(line, 0, line.length, 1);
+        }
+        assertNotNull(next());
+
+        final long start = System.nanoTime();
+        shipper.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS));
+        assertEquals(10, shipper.getDroppedEntries());
+        assertTrue(requests.size() <= 1);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final byte[] body = exchange.getRequestBody().readAllBytes();
+        try {
+            gate.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        requests.add(new Request(exchange.getRequestHeaders().getFirst("Content-Encoding"),
+                exchange.getRequestHeaders().getFirst("Content-Type"), body));
+        final Integer scripted = statuses.poll();
+        exchange.sendResponseHeaders(null == scripted ? defaultStatus : scripted, -1);
+        exchange.close();
+    }
+
+    private Request next() throws InterruptedException {
+        final Request request = requests.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(request, "No request received");
+        return request;
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] line(final int index) {
+        return ("{\"level\":\"INFO\",\"message\":\"entry " + index + "\"}\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * <h1>Request</h1>
+     * <p>A request received by the stub.</p>
+     */
+    private record Request(String contentEncoding, String contentType, byte[] body) {
+        String text() throws IOException {
+            final InputStream in = "gzip".equals(contentEncoding)
+                    ? new GZIPInputStream(new ByteArrayInputStream(body))
+                    : new ByteArrayInputStream(body);
+            try (in) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+
+        List<String> lines() throws IOException {
+            return text().lines().toList();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.haevn.utils.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <h1>LoggerStressTest</h1>
+ * <p>Logs from many virtual threads through an auto-flushed file logger, every log call flushes under the lock of
+ * the output group. A carrier pinned by a monitor during the I/O would stall the run.</p>
+ */
+class LoggerStressTest {
+    private static final int THREADS = 10_000;
+    private static final int ENTRIES_PER_THREAD = 5;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void virtualThreadsCompleteWithAutoFlush() throws Exception {
+        final File file = directory.resolve("stress.log").toFile();
+        final LoggerConfig config = new LoggerConfig();
+        config.setConsoleOutput(null);
+        config.setUseShutdownHook(false);
+        config.setAutoFlush(true);
+        config.setOutput(file);
+        final Logger logger = new Logger(LoggerStressTest.class, config);
+
+        final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            executor.submit(() -> {
+                for (int j = 0; j < ENTRIES_PER_THREAD; j++) {
+                    logger.atInfo().withMessage("Thread " + thread + " entry " + j).log();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Virtual threads did not complete in time");
+
+        logger.flush();
+        config.getFileOutput().flush();
+        try (final Stream<String> lines = Files.lines(file.toPath())) {
+            assertEquals((long) THREADS * ENTRIES_PER_THREAD, lines.count());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package de.haevn.utils.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * <h1>AnnotationIndexProcessor</h1>
+ * <p>This annotation processor generates an index of all types annotated with {@code @Launcher},
+ * {@code @AutoCollect} and {@code @DebugTool}.</p>
+ * <p>The index is written to {@value #RESOURCE}, one line per annotated type:</p>
+ * <pre>
+ * {@code
+ * <annotation>\t<type>\t<attribute>=<value>\t...
+ * }
+ * </pre>
+ * <p>All attributes including their defaults are written, e.g. {@code order} and {@code feature} of
+ * {@code @AutoCollect}. Enum constants are written by name, arrays are joined with a comma and tabs,
+ * line breaks and backslashes are escaped.</p>
+ * <p>The annotations are matched by name, so the processor does not depend on the modules declaring them.</p>
+ * <h3>Example:</h3>
+ * <pre>
+ * {@code
+ * <annotationProcessorPaths>
+ *     <path>
+ *         <groupId>de.haevn</groupId>
+ *         <artifactId>processor</artifactId>
+ *         <version>2.1</version>
+ *     </path>
+ * </annotationProcessorPaths>
+ * }
+ * </pre>
+ *
+ * @author haevn
+ * @version 1.0
+ * @since 2.1
+ */
+@SupportedAnnotationTypes({
+        AnnotationIndexProcessor.LAUNCHER,
+        AnnotationIndexProcessor.AUTO_COLLECT,
+        AnnotationIndexProcessor.DEBUG_TOOL
+})
+public final class AnnotationIndexProcessor extends AbstractProcessor {
+    /**
+     * The location of the generated index.
+     */
+    public static final String RESOURCE = "META-INF/de.haevn/annotation.index";
+
+    static final String LAUNCHER = "de.haevn.annotations.Launcher";
+    static final String AUTO_COLLECT = "de.haevn.annotations.AutoCollect";
+    static final String DEBUG_TOOL = "de.haevn.utils.debug.DebugTool";
+
+    private final Set<String> lines = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element instanceof TypeElement type) {
+                    index(annotation, type);
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !lines.isEmpty()) {
+            write();
+        }
+        return false;
+    }
+
+    /**
+     * <h2>index({@link TypeElement}, {@link TypeElement})</h2>
+     * <p>Adds the line of the annotated type to the index.</p>
+     *
+     * @param annotation The annotation.
+     * @param type       The annotated type.
+     */
+    private void index(final TypeElement annotation, final TypeElement type) {
+        final String annotationName = annotation.getQualifiedName().toString();
+        for (final AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                continue;
+            }
+            final StringBuilder line = new StringBuilder(annotationName)
+                    .append('\t')
+                    .append(processingEnv.getElementUtils().getBinaryName(type));
+            final Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+            values.forEach((key, value) -> line.append('\t')
+                    .append(key.getSimpleName())
+                    .append('=')
+                    .append(escape(toString(value))));
+            lines.add(line.toString());
+        }
+    }
+
+    /**
+     * <h2>write()</h2>
+     * <p>Writes the collected lines to the index resource.</p>
+     */
+    private void write() {
+        try {
+            final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+            try (final Writer writer = file.openWriter()) {
+                for (final String line : lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + RESOURCE + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * <h2>toString({@link AnnotationValue})</h2>
+     * <p>Converts an attribute value to its index representation.</p>
+     *
+     * @param value The value.
+     * @return The string representation.
+     */
+    private static String toString(final AnnotationValue value) {
+        final Object raw = value.getValue();
+        if (raw instanceof VariableElement constant) {
+            return constant.getSimpleName().toString();
+        }
+        if (raw instanceof List<?> list) {
+            return list.stream()
+                    .map(element -> toString((AnnotationValue) element))
+                    .collect(Collectors.joining(","));
+        }
+        return String.valueOf(raw);
+    }
+
+    /**
+     * <h2>escape(String)</h2>
+     * <p>Escapes backslashes, tabs and line breaks.</p>
+     *
+     * @param value The value.
+     * @return The escaped value.
+     */
+    private static String escape(final String value) {
+        final StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> builder.append("\\\\");
+                case '\t' -> builder.append("\\t");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                default -> builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
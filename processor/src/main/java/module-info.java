@@ -0,0 +1,5 @@
+module de.haevn.utils.processor {
+    requires java.compiler;
+
+    provides javax.annotation.processing.Processor with de.haevn.utils.processor.AnnotationIndexProcessor;
+}